@@ -1,22 +1,28 @@
 package com.kevinnorth.rpg_console_game;
 
 import com.kevinnorth.rpg_battle_system.Director;
+import com.kevinnorth.rpg_battle_system.scheduling.FrameScheduler;
 
 public class Battle {
+    private static final int TICKS_PER_SECOND = 60;
+    
     private final Director director;
-    private long previousFrameTime;
+    private final FrameScheduler scheduler;
     
     public Battle(DirectorFactory directorFactory) {
-        previousFrameTime = System.currentTimeMillis();
         director = directorFactory.createDirector();
+        scheduler = new FrameScheduler(director, TICKS_PER_SECOND);
     }
     
+    /**
+     * Runs the battle on the calling thread until <code>endBattle()</code> is
+     * called.
+     */
     public void gameLoop() {
-        long currentTime = System.currentTimeMillis();
-        float detlaTime = (currentTime - previousFrameTime) / 1000f;
-
-        director.onFrame(detlaTime);
-
-        previousFrameTime = currentTime;
+        scheduler.run();
+    }
+    
+    public void endBattle() {
+        scheduler.stop();
     }
 }
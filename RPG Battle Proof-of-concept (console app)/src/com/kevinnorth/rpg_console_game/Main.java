@@ -1,18 +1,17 @@
 package com.kevinnorth.rpg_console_game;
 
 import com.kevinnorth.rpg_battle_system.Director;
+import com.kevinnorth.rpg_battle_system.scheduling.FrameScheduler;
 
 public class Main {
+    private static final int TICKS_PER_SECOND = 60;
 
     public static void main(String[] args) {
-        long lastTime = System.currentTimeMillis();
         Director director = null;
         
-        while(true) {
-            long newTime = System.currentTimeMillis();
-            director.onFrame((newTime - lastTime) / 1000f);
-            newTime = lastTime;
-        }
+        FrameScheduler scheduler = new FrameScheduler(director,
+                TICKS_PER_SECOND);
+        scheduler.run();
     }
     
 }
@@ -1,18 +1,30 @@
 package com.kevinnorth.rpg_console_game.actions;
 
 
+import com.kevinnorth.rpg_console_game.configuration.AttackConfiguration;
 import com.kevinnorth.rpg_console_game.store.BattleAction;
 import com.kevinnorth.rpg_console_game.store.CharacterState;
 
 public class AttackAction extends BattleAction {
+    private final AttackConfiguration attack;
     private final CharacterState target;
     private final CharacterState attacker;
 
-    public AttackAction(CharacterState target, CharacterState attacker) {
+    public AttackAction(AttackConfiguration attack, CharacterState target,
+            CharacterState attacker) {
+        this.attack = attack;
         this.target = target;
         this.attacker = attacker;
     }
 
+    /**
+     * @return The attack being made. Its AttackReducer decides what happens to
+     * the target.
+     */
+    public AttackConfiguration getAttack() {
+        return attack;
+    }
+
     public CharacterState getTarget() {
         return target;
     }
@@ -21,4 +33,3 @@ public class AttackAction extends BattleAction {
         return attacker;
     }
 }
-
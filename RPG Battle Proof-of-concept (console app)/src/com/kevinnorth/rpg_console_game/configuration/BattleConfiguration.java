@@ -63,6 +63,10 @@ public class BattleConfiguration extends Configuration {
         return initialBackPlayerCharacter;
     }
 
+    public TurnOrderReducer getTurnOrderReducer() {
+        return turnOrderReducer;
+    }
+
     public int getInitialMaxMana() {
         return initialMaxMana;
     }
@@ -6,7 +6,6 @@ import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
 import com.kevinnorth.rpg_console_game.actions.AttackAction;
 import com.kevinnorth.rpg_console_game.configuration.AttackConfiguration;
 import com.kevinnorth.rpg_console_game.configuration.BattleConfiguration;
-import com.kevinnorth.rpg_console_game.reducers.attack_reducers.AttackReducer;
 import com.kevinnorth.rpg_console_game.store.BattleAction;
 import com.kevinnorth.rpg_console_game.store.BattleState;
 import com.kevinnorth.rpg_console_game.store.CharacterState;
@@ -36,10 +35,9 @@ public class AttackLogicState
 
     @Override
     public void handleFrame(float deltaTime) {
-        AttackReducer attackReducer = attack.getReducer();
-        AttackAction attackAction = new AttackAction(target, attacker);
+        AttackAction attackAction = new AttackAction(attack, target, attacker);
         
-        changeStoreState(attackReducer, attackAction);
+        dispatch(attackAction);
         
         
     }
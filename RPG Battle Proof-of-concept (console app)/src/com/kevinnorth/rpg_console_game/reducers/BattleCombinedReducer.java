@@ -0,0 +1,31 @@
+package com.kevinnorth.rpg_console_game.reducers;
+
+import com.kevinnorth.rpg_battle_system.store.CombinedReducer;
+import com.kevinnorth.rpg_battle_system.store.SliceReducer;
+import com.kevinnorth.rpg_battle_system.store.SliceVersions;
+import com.kevinnorth.rpg_console_game.store.BattleAction;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import java.util.List;
+
+/**
+ * A CombinedReducer for BattleStates, which keep their SliceVersions
+ * alongside the rest of the battle.
+ */
+public class BattleCombinedReducer
+        extends CombinedReducer<BattleState, BattleAction> {
+    public BattleCombinedReducer(List<? extends SliceReducer<BattleState, ?,
+            ? extends BattleAction>> sliceReducers) {
+        super(sliceReducers);
+    }
+
+    @Override
+    public SliceVersions getSliceVersions(BattleState state) {
+        return state.getSliceVersions();
+    }
+
+    @Override
+    protected BattleState withSliceVersions(BattleState state,
+            SliceVersions sliceVersions) {
+        return state.withSliceVersions(sliceVersions);
+    }
+}
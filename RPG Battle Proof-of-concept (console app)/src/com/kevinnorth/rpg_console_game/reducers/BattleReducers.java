@@ -0,0 +1,54 @@
+package com.kevinnorth.rpg_console_game.reducers;
+
+import com.kevinnorth.rpg_battle_system.store.ReducerRegistry;
+import com.kevinnorth.rpg_battle_system.store.Store;
+import com.kevinnorth.rpg_console_game.actions.AttackAction;
+import com.kevinnorth.rpg_console_game.actions.GoToNextTurnAction;
+import com.kevinnorth.rpg_console_game.configuration.BattleConfiguration;
+import com.kevinnorth.rpg_console_game.reducers.slice_reducers.AttackedEnemiesSliceReducer;
+import com.kevinnorth.rpg_console_game.reducers.slice_reducers.AttackedPartySliceReducer;
+import com.kevinnorth.rpg_console_game.store.BattleAction;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import java.util.Arrays;
+
+/**
+ * Builds the ReducerRegistry the console game's Store uses to dispatch
+ * BattleActions, and the Store itself.
+ */
+public final class BattleReducers {
+    private BattleReducers() { }
+    
+    /**
+     * Creates a Store that LogicStates can change with
+     * <code>dispatch()</code>.
+     * @param battleConfiguration The battle's configuration.
+     * @param initialState The State at the start of the battle.
+     * @return The Store for the battle.
+     */
+    public static Store<BattleState, BattleAction> createStore(
+            BattleConfiguration battleConfiguration,
+            BattleState initialState) {
+        return new Store<>(initialState, createRegistry(battleConfiguration));
+    }
+    
+    /**
+     * Attacks are reduced by a BattleCombinedReducer, so that only the slice
+     * holding an attack's target is rebuilt. Every attack has its own
+     * AttackReducer, which the slice reducers look up from the AttackAction.
+     * Whose turn is next depends on both teams, so turns are reduced by a
+     * TurnOrderReducer for the whole BattleState.
+     * @param battleConfiguration The battle's configuration.
+     * @return The ReducerRegistry for the battle.
+     */
+    public static ReducerRegistry<BattleState, BattleAction> createRegistry(
+            BattleConfiguration battleConfiguration) {
+        BattleCombinedReducer attackReducer = new BattleCombinedReducer(
+                Arrays.asList(new AttackedPartySliceReducer(),
+                        new AttackedEnemiesSliceReducer()));
+        
+        ReducerRegistry<BattleState, BattleAction> registry = new ReducerRegistry<>();
+        registry.register(GoToNextTurnAction.class, battleConfiguration.getTurnOrderReducer());
+        registry.register(AttackAction.class, attackReducer);
+        return registry;
+    }
+}
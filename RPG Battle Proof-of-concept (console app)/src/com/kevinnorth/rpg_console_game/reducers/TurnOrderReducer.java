@@ -7,7 +7,7 @@ import com.kevinnorth.rpg_console_game.store.BattleState;
 import com.kevinnorth.rpg_console_game.store.CharacterState;
 import com.kevinnorth.rpg_console_game.store.EnemyCharacterState;
 import com.kevinnorth.rpg_console_game.store.PlayerCharacterState;
-import java.util.ArrayList;
+import java.util.List;
 
 public class TurnOrderReducer extends Reducer<BattleState, GoToNextTurnAction> {
     private final BattleConfiguration battleConfiguration;
@@ -17,32 +17,61 @@ public class TurnOrderReducer extends Reducer<BattleState, GoToNextTurnAction> {
     }
     
     public BattleState reduce(GoToNextTurnAction action, BattleState previousState) {
-        CharacterState currentCharacter = action.getCharacterOfPreviousTurn();
-        CharacterState nextCharacter;
+        CharacterState<?> nextCharacter = findNextCharacter(
+                previousState.getPlayerCharacters(),
+                previousState.getEnemyCharacters(),
+                action.getCharacterOfPreviousTurn());
         
-        if(currentCharacter.getConfiguration().isPlayerCharacter()) {
-            ArrayList<PlayerCharacterState> playerCharacters = previousState.getPlayerCharacters();
-            int position = playerCharacters.indexOf(currentCharacter);
-            int nextPosition = position + 1;
-            
-            if(nextPosition == playerCharacters.size()) {
-                nextCharacter = previousState.getEnemyCharacters().get(0);
-            } else {
-                nextCharacter = playerCharacters.get(nextPosition);
-            }
+        return previousState.withCurrentCharacter(nextCharacter);
+    }
+    
+    /**
+     * Finds whose turn comes after a character's: every player character
+     * takes a turn, then every enemy, then back to the first player character.
+     * A side with no characters left is skipped.
+     * @param playerCharacters The player characters, in turn order.
+     * @param enemyCharacters The enemies, in turn order.
+     * @param currentCharacter The character whose turn it is.
+     * @return The character whose turn is next, or <code>null</code> if
+     * <code>currentCharacter</code> is <code>null</code> or there are no
+     * characters at all.
+     */
+    public static CharacterState<?> findNextCharacter(
+            List<? extends PlayerCharacterState> playerCharacters,
+            List<? extends EnemyCharacterState> enemyCharacters,
+            CharacterState<?> currentCharacter) {
+        if(currentCharacter == null) {
+            return null;
+        }
+        
+        boolean isPlayerCharacter
+                = currentCharacter.getConfiguration().isPlayerCharacter();
+        List<? extends CharacterState<?>> sameSide
+                = isPlayerCharacter ? playerCharacters : enemyCharacters;
+        List<? extends CharacterState<?>> otherSide
+                = isPlayerCharacter ? enemyCharacters : playerCharacters;
+        
+        int nextPosition = indexOf(sameSide, currentCharacter) + 1;
+        if(nextPosition < sameSide.size()) {
+            return sameSide.get(nextPosition);
+        } else if(!otherSide.isEmpty()) {
+            return otherSide.get(0);
+        } else if(!sameSide.isEmpty()) {
+            return sameSide.get(0);
         } else {
-            ArrayList<EnemyCharacterState> enemyCharacters = previousState.getEnemyCharacters();
-            int position = enemyCharacters.indexOf(currentCharacter);
-            int nextPosition = position + 1;
-            
-            if(nextPosition == enemyCharacters.size()) {
-                nextCharacter = previousState.getPlayerCharacters().get(0);
-            } else {
-                nextCharacter = enemyCharacters.get(nextPosition);
+            return null;
+        }
+    }
+    
+    private static int indexOf(List<? extends CharacterState<?>> characters,
+            CharacterState<?> character) {
+        for(int i = 0; i < characters.size(); i++) {
+            if(characters.get(i).getConfiguration()
+                    == character.getConfiguration()) {
+                return i;
             }
         }
         
-        previousState.setCurrentCharacter(nextCharacter);
-        return previousState;
+        return -1;
     }
 }
@@ -1,6 +1,28 @@
 package com.kevinnorth.rpg_console_game.reducers.attack_reducers;
 
 import com.kevinnorth.rpg_console_game.actions.AttackAction;
-import com.kevinnorth.rpg_console_game.store.BattleReducer;
+import com.kevinnorth.rpg_console_game.store.CharacterState;
 
-public abstract class AttackReducer extends BattleReducer<AttackAction> {}
+/**
+ * <p>What one kind of attack does to its target. Each AttackConfiguration has
+ * its own AttackReducer.</p>
+ * 
+ * <p>An attack only ever changes its target, so an AttackReducer doesn't
+ * reduce the whole BattleState. Instead, AttackedPartySliceReducer and
+ * AttackedEnemiesSliceReducer find the target in their slice of the
+ * BattleState and replace it with whatever <code>reduceTarget()</code>
+ * returns, so an attack only rebuilds the slice its target is in.</p>
+ */
+public abstract class AttackReducer {
+    /**
+     * @param action The attack.
+     * @param target The target as it is in the BattleState being reduced,
+     * which may be newer than <code>action.getTarget()</code>.
+     * @return The target after the attack. This must be a CharacterState of
+     * the same class as <code>target</code>, such as one returned by
+     * <code>target.withCurrentHealthChangedBy()</code>. Return
+     * <code>target</code> itself if the attack had no effect.
+     */
+    public abstract CharacterState<?> reduceTarget(AttackAction action,
+            CharacterState<?> target);
+}
@@ -0,0 +1,39 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_console_game.actions.AttackAction;
+import com.kevinnorth.rpg_console_game.configuration.CharacterConfiguration;
+import com.kevinnorth.rpg_console_game.store.EnemyCharacterState;
+import com.kevinnorth.rpg_console_game.store.PersistentVector;
+import java.util.Collections;
+
+/**
+ * Applies attacks to the enemy they target, using the attack's AttackReducer.
+ * Attacks on player characters leave the enemies untouched.
+ */
+public class AttackedEnemiesSliceReducer
+        extends EnemiesSliceReducer<AttackAction> {
+    public AttackedEnemiesSliceReducer() {
+        super(Collections.<Class<? extends AttackAction>>singletonList(
+                AttackAction.class));
+    }
+
+    @Override
+    public PersistentVector<EnemyCharacterState> reduce(AttackAction action,
+            PersistentVector<EnemyCharacterState> previousSlice) {
+        CharacterConfiguration target = action.getTarget().getConfiguration();
+        if(target.isPlayerCharacter()) {
+            return previousSlice;
+        }
+        
+        for(int i = 0; i < previousSlice.size(); i++) {
+            EnemyCharacterState character = previousSlice.get(i);
+            if(character.getConfiguration() == target) {
+                return previousSlice.with(i, (EnemyCharacterState) action
+                        .getAttack().getReducer()
+                        .reduceTarget(action, character));
+            }
+        }
+        
+        return previousSlice;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_console_game.actions.AttackAction;
+import com.kevinnorth.rpg_console_game.configuration.CharacterConfiguration;
+import com.kevinnorth.rpg_console_game.store.PersistentVector;
+import com.kevinnorth.rpg_console_game.store.PlayerCharacterState;
+import java.util.Collections;
+
+/**
+ * Applies attacks to the player character they target, using the attack's
+ * AttackReducer. Attacks on enemies leave the party untouched.
+ */
+public class AttackedPartySliceReducer extends PartySliceReducer<AttackAction> {
+    public AttackedPartySliceReducer() {
+        super(Collections.<Class<? extends AttackAction>>singletonList(
+                AttackAction.class));
+    }
+
+    @Override
+    public PersistentVector<PlayerCharacterState> reduce(AttackAction action,
+            PersistentVector<PlayerCharacterState> previousSlice) {
+        CharacterConfiguration target = action.getTarget().getConfiguration();
+        if(!target.isPlayerCharacter()) {
+            return previousSlice;
+        }
+        
+        for(int i = 0; i < previousSlice.size(); i++) {
+            PlayerCharacterState character = previousSlice.get(i);
+            if(character.getConfiguration() == target) {
+                return previousSlice.with(i, (PlayerCharacterState) action
+                        .getAttack().getReducer()
+                        .reduceTarget(action, character));
+            }
+        }
+        
+        return previousSlice;
+    }
+}
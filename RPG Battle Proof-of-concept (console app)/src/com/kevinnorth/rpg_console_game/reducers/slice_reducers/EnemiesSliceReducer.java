@@ -0,0 +1,33 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.SliceReducer;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import com.kevinnorth.rpg_console_game.store.EnemyCharacterState;
+import com.kevinnorth.rpg_console_game.store.PersistentVector;
+import java.util.List;
+
+/**
+ * A SliceReducer for the enemy characters. Subclasses only need to implement
+ * <code>reduce()</code>.
+ * @param <ActionType> The class of Action this Reducer handles.
+ */
+public abstract class EnemiesSliceReducer<ActionType extends Action>
+        extends SliceReducer<BattleState,
+                PersistentVector<EnemyCharacterState>, ActionType> {
+    protected EnemiesSliceReducer(
+            List<Class<? extends ActionType>> handledActionClasses) {
+        super(handledActionClasses);
+    }
+
+    @Override
+    public PersistentVector<EnemyCharacterState> getSlice(BattleState state) {
+        return state.getEnemyCharacters();
+    }
+
+    @Override
+    public BattleState withSlice(BattleState state,
+            PersistentVector<EnemyCharacterState> newSlice) {
+        return state.withEnemyCharacters(newSlice);
+    }
+}
@@ -0,0 +1,39 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.SliceComparison;
+import com.kevinnorth.rpg_battle_system.store.SliceReducer;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import java.util.List;
+
+/**
+ * <p>A SliceReducer for the party's current mana. Subclasses only need to
+ * implement <code>reduce()</code>.</p>
+ * 
+ * <p>The mana is compared with <code>equals()</code>, so returning an equal
+ * Integer rather than <code>previousSlice</code> itself doesn't count as a
+ * change.</p>
+ * @param <ActionType> The class of Action this Reducer handles.
+ */
+public abstract class ManaSliceReducer<ActionType extends Action>
+        extends SliceReducer<BattleState, Integer, ActionType> {
+    protected ManaSliceReducer(
+            List<Class<? extends ActionType>> handledActionClasses) {
+        super(handledActionClasses);
+    }
+
+    @Override
+    public Integer getSlice(BattleState state) {
+        return state.getCurrentMana();
+    }
+
+    @Override
+    public BattleState withSlice(BattleState state, Integer newSlice) {
+        return state.withCurrentMana(newSlice);
+    }
+
+    @Override
+    public SliceComparison getSliceComparison() {
+        return SliceComparison.EQUALITY;
+    }
+}
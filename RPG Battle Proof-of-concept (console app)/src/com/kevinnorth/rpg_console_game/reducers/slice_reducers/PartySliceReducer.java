@@ -0,0 +1,33 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.SliceReducer;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import com.kevinnorth.rpg_console_game.store.PersistentVector;
+import com.kevinnorth.rpg_console_game.store.PlayerCharacterState;
+import java.util.List;
+
+/**
+ * A SliceReducer for the player characters. Subclasses only need to implement
+ * <code>reduce()</code>.
+ * @param <ActionType> The class of Action this Reducer handles.
+ */
+public abstract class PartySliceReducer<ActionType extends Action>
+        extends SliceReducer<BattleState,
+                PersistentVector<PlayerCharacterState>, ActionType> {
+    protected PartySliceReducer(
+            List<Class<? extends ActionType>> handledActionClasses) {
+        super(handledActionClasses);
+    }
+
+    @Override
+    public PersistentVector<PlayerCharacterState> getSlice(BattleState state) {
+        return state.getPlayerCharacters();
+    }
+
+    @Override
+    public BattleState withSlice(BattleState state,
+            PersistentVector<PlayerCharacterState> newSlice) {
+        return state.withPlayerCharacters(newSlice);
+    }
+}
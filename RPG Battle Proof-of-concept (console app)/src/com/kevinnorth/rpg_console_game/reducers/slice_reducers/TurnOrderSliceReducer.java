@@ -0,0 +1,31 @@
+package com.kevinnorth.rpg_console_game.reducers.slice_reducers;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.SliceReducer;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import com.kevinnorth.rpg_console_game.store.CharacterState;
+import java.util.List;
+
+/**
+ * A SliceReducer for whose turn it is. Subclasses only need to implement
+ * <code>reduce()</code>.
+ * @param <ActionType> The class of Action this Reducer handles.
+ */
+public abstract class TurnOrderSliceReducer<ActionType extends Action>
+        extends SliceReducer<BattleState, CharacterState<?>, ActionType> {
+    protected TurnOrderSliceReducer(
+            List<Class<? extends ActionType>> handledActionClasses) {
+        super(handledActionClasses);
+    }
+
+    @Override
+    public CharacterState<?> getSlice(BattleState state) {
+        return state.getCurrentCharacter();
+    }
+
+    @Override
+    public BattleState withSlice(BattleState state,
+            CharacterState<?> newSlice) {
+        return state.withCurrentCharacter(newSlice);
+    }
+}
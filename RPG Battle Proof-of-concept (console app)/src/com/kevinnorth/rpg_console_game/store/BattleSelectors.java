@@ -0,0 +1,125 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import com.kevinnorth.rpg_battle_system.store.Selector;
+import com.kevinnorth.rpg_battle_system.store.Selectors;
+import com.kevinnorth.rpg_console_game.reducers.TurnOrderReducer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <p>Memoized Selectors for the values the console game derives from the
+ * BattleState. Each one is only recomputed when the part of the BattleState
+ * it depends on changes, no matter how many objects read it each frame.</p>
+ * 
+ * <p>The memoized Selectors remember their last value, so each
+ * BattleSelectors must only be used by one thread at a time. Create one per
+ * battle for the objects running on the battle's thread, and another for a
+ * Renderer running on its own thread. Sharing one between battles would also
+ * make them keep replacing each other's remembered values.</p>
+ */
+public final class BattleSelectors {
+
+    public static final Selector<BattleState, PersistentVector<PlayerCharacterState>>
+            PLAYER_CHARACTERS
+            = new Selector<BattleState, PersistentVector<PlayerCharacterState>>() {
+                @Override
+                public PersistentVector<PlayerCharacterState> select(BattleState state) {
+                    return state.getPlayerCharacters();
+                }
+            };
+    
+    public static final Selector<BattleState, PersistentVector<EnemyCharacterState>>
+            ENEMY_CHARACTERS
+            = new Selector<BattleState, PersistentVector<EnemyCharacterState>>() {
+                @Override
+                public PersistentVector<EnemyCharacterState> select(BattleState state) {
+                    return state.getEnemyCharacters();
+                }
+            };
+    
+    public static final Selector<BattleState, CharacterState<?>> CURRENT_CHARACTER
+            = new Selector<BattleState, CharacterState<?>>() {
+                @Override
+                public CharacterState<?> select(BattleState state) {
+                    return state.getCurrentCharacter();
+                }
+            };
+    
+    /**
+     * The enemies that still have health left, in turn order.
+     */
+    private final Selector<BattleState, List<EnemyCharacterState>> livingEnemies
+            = Selectors.create(ENEMY_CHARACTERS,
+                    new Function<PersistentVector<EnemyCharacterState>, List<EnemyCharacterState>>() {
+                        @Override
+                        public List<EnemyCharacterState> apply(PersistentVector<EnemyCharacterState> enemies) {
+                            List<EnemyCharacterState> livingEnemies = new ArrayList<>();
+                            for(EnemyCharacterState enemy : enemies) {
+                                if(enemy.getCurrentHealth() > 0) {
+                                    livingEnemies.add(enemy);
+                                }
+                            }
+                            return Collections.unmodifiableList(livingEnemies);
+                        }
+                    });
+    
+    /**
+     * The sum of every player character's current health.
+     */
+    private final Selector<BattleState, Integer> totalPartyHealth
+            = Selectors.create(PLAYER_CHARACTERS,
+                    new Function<PersistentVector<PlayerCharacterState>, Integer>() {
+                        @Override
+                        public Integer apply(PersistentVector<PlayerCharacterState> players) {
+                            int totalHealth = 0;
+                            for(PlayerCharacterState player : players) {
+                                totalHealth += player.getCurrentHealth();
+                            }
+                            return totalHealth;
+                        }
+                    });
+    
+    /**
+     * The character whose turn comes after the current character's, as
+     * decided by <code>TurnOrderReducer.findNextCharacter()</code>.
+     */
+    private final Selector<BattleState, CharacterState<?>> nextCharacter
+            = Selectors.create(PLAYER_CHARACTERS, ENEMY_CHARACTERS, CURRENT_CHARACTER,
+                    new Selectors.Combiner3<PersistentVector<PlayerCharacterState>,
+                            PersistentVector<EnemyCharacterState>, CharacterState<?>,
+                            CharacterState<?>>() {
+                        @Override
+                        public CharacterState<?> combine(PersistentVector<PlayerCharacterState> players,
+                                PersistentVector<EnemyCharacterState> enemies,
+                                CharacterState<?> currentCharacter) {
+                            return TurnOrderReducer.findNextCharacter(players,
+                                    enemies, currentCharacter);
+                        }
+                    });
+    
+    /**
+     * @return A memoized Selector for the enemies that still have health
+     * left, in turn order.
+     */
+    public Selector<BattleState, List<EnemyCharacterState>> getLivingEnemies() {
+        return livingEnemies;
+    }
+    
+    /**
+     * @return A memoized Selector for the sum of every player character's
+     * current health.
+     */
+    public Selector<BattleState, Integer> getTotalPartyHealth() {
+        return totalPartyHealth;
+    }
+    
+    /**
+     * @return A memoized Selector for the character whose turn comes after the
+     * current character's.
+     */
+    public Selector<BattleState, CharacterState<?>> getNextCharacter() {
+        return nextCharacter;
+    }
+}
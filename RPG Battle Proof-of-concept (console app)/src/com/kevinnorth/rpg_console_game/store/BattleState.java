@@ -1,42 +1,87 @@
 package com.kevinnorth.rpg_console_game.store;
 
+import com.kevinnorth.rpg_battle_system.store.SliceVersions;
 import com.kevinnorth.rpg_battle_system.store.State;
-import java.util.ArrayList;
+import com.kevinnorth.rpg_console_game.configuration.CharacterConfiguration;
+import java.util.List;
 
+/**
+ * <p>The console game's immutable State. Every "setter" returns a new
+ * BattleState and leaves this one untouched, so reducers can never corrupt the
+ * States already in the Store's history.</p>
+ * 
+ * <p>The characters are kept in PersistentVectors. Changing one character only
+ * copies the small path of nodes leading to it; the new BattleState shares
+ * every other character, and every other node, with the old one.</p>
+ * 
+ * <p>Characters are identified by their Configuration, which stays the same
+ * for the whole battle, rather than by their CharacterState, which is replaced
+ * every time one of their numbers changes.</p>
+ */
 public class BattleState extends State {
-    private final ArrayList<PlayerCharacterState> playerCharacters;
-    private final ArrayList<EnemyCharacterState> enemyCharacters;
+    private static final int NO_CURRENT_CHARACTER = -1;
     
-    private PlayerCharacterState frontPlayer;
-    private PlayerCharacterState backPlayer;
-    private PlayerCharacterState mainCharacter;
+    private final PersistentVector<PlayerCharacterState> playerCharacters;
+    private final PersistentVector<EnemyCharacterState> enemyCharacters;
     
-    private CharacterState currentCharacter;
+    private final boolean currentCharacterIsPlayer;
+    private final int currentCharacterIndex;
     
-    private int maxMana;
-    private int currentMana;
+    private final int maxMana;
+    private final int currentMana;
+    
+    private final SliceVersions sliceVersions;
 
-    public BattleState(ArrayList<PlayerCharacterState> playerCharacters,
-            ArrayList<EnemyCharacterState> enemyCharacters,
-            CharacterState startingCharacter,
+    public BattleState(List<PlayerCharacterState> playerCharacters,
+            List<EnemyCharacterState> enemyCharacters,
+            CharacterState<?> startingCharacter,
             int maxMana, int currentMana) {
+        this.playerCharacters = PersistentVector.of(playerCharacters);
+        this.enemyCharacters = PersistentVector.of(enemyCharacters);
+        this.maxMana = maxMana;
+        this.currentMana = currentMana;
+        this.sliceVersions = SliceVersions.INITIAL;
+        
+        if(startingCharacter == null) {
+            this.currentCharacterIsPlayer = false;
+            this.currentCharacterIndex = NO_CURRENT_CHARACTER;
+        } else {
+            this.currentCharacterIsPlayer = startingCharacter.getConfiguration()
+                    .isPlayerCharacter();
+            this.currentCharacterIndex = indexOfCharacter(
+                    startingCharacter.getConfiguration());
+        }
+    }
+    
+    private BattleState(PersistentVector<PlayerCharacterState> playerCharacters,
+            PersistentVector<EnemyCharacterState> enemyCharacters,
+            boolean currentCharacterIsPlayer, int currentCharacterIndex,
+            int maxMana, int currentMana, SliceVersions sliceVersions) {
         this.playerCharacters = playerCharacters;
         this.enemyCharacters = enemyCharacters;
-        this.currentCharacter = startingCharacter;
+        this.currentCharacterIsPlayer = currentCharacterIsPlayer;
+        this.currentCharacterIndex = currentCharacterIndex;
         this.maxMana = maxMana;
         this.currentMana = currentMana;
+        this.sliceVersions = sliceVersions;
     }
 
-    public ArrayList<PlayerCharacterState> getPlayerCharacters() {
+    public PersistentVector<PlayerCharacterState> getPlayerCharacters() {
         return playerCharacters;
     }
 
-    public ArrayList<EnemyCharacterState> getEnemyCharacters() {
+    public PersistentVector<EnemyCharacterState> getEnemyCharacters() {
         return enemyCharacters;
     }
 
-    public CharacterState getCurrentCharacter() {
-        return currentCharacter;
+    public CharacterState<?> getCurrentCharacter() {
+        if(currentCharacterIndex == NO_CURRENT_CHARACTER) {
+            return null;
+        }
+        
+        return currentCharacterIsPlayer
+                ? playerCharacters.get(currentCharacterIndex)
+                : enemyCharacters.get(currentCharacterIndex);
     }
 
     public int getMaxMana() {
@@ -46,16 +91,147 @@ public class BattleState extends State {
     public int getCurrentMana() {
         return currentMana;
     }
+    
+    /**
+     * @return How many times each slice of this BattleState has been changed
+     * by a CombinedReducer.
+     */
+    public SliceVersions getSliceVersions() {
+        return sliceVersions;
+    }
+    
+    /**
+     * @param configuration The Configuration of a character in the battle.
+     * @return The character's position in either
+     * <code>getPlayerCharacters()</code> or
+     * <code>getEnemyCharacters()</code>, depending on which team it is on, or
+     * -1 if the character isn't in the battle.
+     */
+    public int indexOfCharacter(CharacterConfiguration configuration) {
+        List<? extends CharacterState<?>> characters
+                = configuration.isPlayerCharacter()
+                        ? playerCharacters : enemyCharacters;
+        
+        for(int i = 0; i < characters.size(); i++) {
+            if(characters.get(i).getConfiguration() == configuration) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
 
-    public void setCurrentCharacter(CharacterState currentCharacter) {
-        this.currentCharacter = currentCharacter;
+    public BattleState withCurrentCharacter(
+            CharacterState<?> currentCharacter) {
+        if(currentCharacter == null) {
+            return new BattleState(playerCharacters, enemyCharacters,
+                    false, NO_CURRENT_CHARACTER, maxMana, currentMana,
+                    sliceVersions);
+        }
+        
+        CharacterConfiguration configuration
+                = currentCharacter.getConfiguration();
+        return new BattleState(playerCharacters, enemyCharacters,
+                configuration.isPlayerCharacter(),
+                indexOfCharacter(configuration), maxMana, currentMana,
+                sliceVersions);
     }
 
-    public void setMaxMana(int maxMana) {
-        this.maxMana = maxMana;
+    public BattleState withSliceVersions(SliceVersions sliceVersions) {
+        return new BattleState(playerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
     }
 
-    public void setCurrentMana(int currentMana) {
-        this.currentMana = currentMana;
+    public BattleState withMaxMana(int maxMana) {
+        return new BattleState(playerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+
+    public BattleState withCurrentMana(int currentMana) {
+        return new BattleState(playerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+    
+    /**
+     * @param playerCharacters The new player characters. Each character should
+     * stay at the same position, so that the current character doesn't change.
+     * @return A BattleState with the player characters replaced.
+     */
+    public BattleState withPlayerCharacters(
+            PersistentVector<PlayerCharacterState> playerCharacters) {
+        if(playerCharacters == this.playerCharacters) {
+            return this;
+        }
+        
+        return new BattleState(playerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+    
+    /**
+     * @param enemyCharacters The new enemy characters. Each character should
+     * stay at the same position, so that the current character doesn't change.
+     * @return A BattleState with the enemy characters replaced.
+     */
+    public BattleState withEnemyCharacters(
+            PersistentVector<EnemyCharacterState> enemyCharacters) {
+        if(enemyCharacters == this.enemyCharacters) {
+            return this;
+        }
+        
+        return new BattleState(playerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+    
+    public BattleState withPlayerCharacter(int index,
+            PlayerCharacterState playerCharacter) {
+        PersistentVector<PlayerCharacterState> newPlayerCharacters
+                = playerCharacters.with(index, playerCharacter);
+        if(newPlayerCharacters == playerCharacters) {
+            return this;
+        }
+        
+        return new BattleState(newPlayerCharacters, enemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+    
+    public BattleState withEnemyCharacter(int index,
+            EnemyCharacterState enemyCharacter) {
+        PersistentVector<EnemyCharacterState> newEnemyCharacters
+                = enemyCharacters.with(index, enemyCharacter);
+        if(newEnemyCharacters == enemyCharacters) {
+            return this;
+        }
+        
+        return new BattleState(playerCharacters, newEnemyCharacters,
+                currentCharacterIsPlayer, currentCharacterIndex,
+                maxMana, currentMana, sliceVersions);
+    }
+    
+    /**
+     * Replaces a character with a new CharacterState for the same character,
+     * such as one returned by <code>withCurrentHealth()</code>.
+     * @param character The new CharacterState. Its Configuration decides which
+     * character it replaces.
+     * @return A BattleState with the character replaced.
+     * @throws IllegalArgumentException If the character isn't in the battle.
+     */
+    public BattleState withCharacter(CharacterState<?> character) {
+        int index = indexOfCharacter(character.getConfiguration());
+        if(index < 0) {
+            throw new IllegalArgumentException("The character isn't part of "
+                    + "this battle.");
+        }
+        
+        if(character.getConfiguration().isPlayerCharacter()) {
+            return withPlayerCharacter(index, (PlayerCharacterState) character);
+        } else {
+            return withEnemyCharacter(index, (EnemyCharacterState) character);
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import com.kevinnorth.rpg_battle_system.store.SliceVersions;
+
+/**
+ * The difference between two consecutive BattleStates, as recorded by
+ * BattleStateDeltaCodec. Only the characters that were replaced are included.
+ * Because CharacterStates are immutable, the delta simply points at the new
+ * CharacterStates, which are shared with the BattleState they came from.
+ */
+public final class BattleStateDelta {
+    private final int[] playerIndices;
+    private final PlayerCharacterState[] players;
+    private final int[] enemyIndices;
+    private final EnemyCharacterState[] enemies;
+    private final CharacterState<?> currentCharacter;
+    private final int maxMana;
+    private final int currentMana;
+    private final SliceVersions sliceVersions;
+
+    BattleStateDelta(int[] playerIndices, PlayerCharacterState[] players,
+            int[] enemyIndices, EnemyCharacterState[] enemies,
+            CharacterState<?> currentCharacter, int maxMana, int currentMana,
+            SliceVersions sliceVersions) {
+        this.playerIndices = playerIndices;
+        this.players = players;
+        this.enemyIndices = enemyIndices;
+        this.enemies = enemies;
+        this.currentCharacter = currentCharacter;
+        this.maxMana = maxMana;
+        this.currentMana = currentMana;
+        this.sliceVersions = sliceVersions;
+    }
+    
+    BattleState applyTo(BattleState previousState) {
+        BattleState state = previousState;
+        
+        for(int i = 0; i < playerIndices.length; i++) {
+            state = state.withPlayerCharacter(playerIndices[i], players[i]);
+        }
+        for(int i = 0; i < enemyIndices.length; i++) {
+            state = state.withEnemyCharacter(enemyIndices[i], enemies[i]);
+        }
+        
+        if(state.getCurrentCharacter() != currentCharacter) {
+            state = state.withCurrentCharacter(currentCharacter);
+        }
+        if(state.getMaxMana() != maxMana) {
+            state = state.withMaxMana(maxMana);
+        }
+        if(state.getCurrentMana() != currentMana) {
+            state = state.withCurrentMana(currentMana);
+        }
+        if(state.getSliceVersions() != sliceVersions) {
+            state = state.withSliceVersions(sliceVersions);
+        }
+        
+        return state;
+    }
+}
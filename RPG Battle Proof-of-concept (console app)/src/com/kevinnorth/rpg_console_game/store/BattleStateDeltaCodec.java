@@ -0,0 +1,93 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import com.kevinnorth.rpg_battle_system.store.StateDeltaCodec;
+import java.util.List;
+
+/**
+ * Records the changes between BattleStates so that a DeltaStateHistory can
+ * keep a whole battle's history without a full BattleState for every change.
+ * Most changes only replace one character or change the current mana, so most
+ * deltas only hold a few references and ints.
+ */
+public class BattleStateDeltaCodec
+        extends StateDeltaCodec<BattleState, BattleStateDelta> {
+    private static final int[] NO_INDICES = new int[0];
+    private static final PlayerCharacterState[] NO_PLAYERS
+            = new PlayerCharacterState[0];
+    private static final EnemyCharacterState[] NO_ENEMIES
+            = new EnemyCharacterState[0];
+    
+    @Override
+    public BattleStateDelta diff(BattleState previousState,
+            BattleState nextState) {
+        if(previousState.getPlayerCharacters().size()
+                    != nextState.getPlayerCharacters().size()
+                || previousState.getEnemyCharacters().size()
+                    != nextState.getEnemyCharacters().size()) {
+            return null;
+        }
+        
+        int[] playerIndices = changedIndices(
+                previousState.getPlayerCharacters(),
+                nextState.getPlayerCharacters());
+        PlayerCharacterState[] players = NO_PLAYERS;
+        if(playerIndices.length > 0) {
+            players = new PlayerCharacterState[playerIndices.length];
+            for(int i = 0; i < playerIndices.length; i++) {
+                players[i] = nextState.getPlayerCharacters()
+                        .get(playerIndices[i]);
+            }
+        }
+        
+        int[] enemyIndices = changedIndices(
+                previousState.getEnemyCharacters(),
+                nextState.getEnemyCharacters());
+        EnemyCharacterState[] enemies = NO_ENEMIES;
+        if(enemyIndices.length > 0) {
+            enemies = new EnemyCharacterState[enemyIndices.length];
+            for(int i = 0; i < enemyIndices.length; i++) {
+                enemies[i] = nextState.getEnemyCharacters()
+                        .get(enemyIndices[i]);
+            }
+        }
+        
+        return new BattleStateDelta(playerIndices, players, enemyIndices,
+                enemies, nextState.getCurrentCharacter(),
+                nextState.getMaxMana(), nextState.getCurrentMana(),
+                nextState.getSliceVersions());
+    }
+
+    @Override
+    public BattleState apply(BattleState previousState,
+            BattleStateDelta delta) {
+        return delta.applyTo(previousState);
+    }
+    
+    private static int[] changedIndices(
+            List<? extends CharacterState<?>> previous,
+            List<? extends CharacterState<?>> next) {
+        if(previous == next) {
+            return NO_INDICES;
+        }
+        
+        int count = 0;
+        for(int i = 0; i < next.size(); i++) {
+            if(previous.get(i) != next.get(i)) {
+                count++;
+            }
+        }
+        
+        if(count == 0) {
+            return NO_INDICES;
+        }
+        
+        int[] indices = new int[count];
+        int position = 0;
+        for(int i = 0; i < next.size(); i++) {
+            if(previous.get(i) != next.get(i)) {
+                indices[position++] = i;
+            }
+        }
+        return indices;
+    }
+}
@@ -2,10 +2,18 @@ package com.kevinnorth.rpg_console_game.store;
 
 import com.kevinnorth.rpg_console_game.configuration.CharacterConfiguration;
 
+/**
+ * An immutable snapshot of a single character's numbers. The "setters" return
+ * a new CharacterState and leave this one untouched, so older BattleStates in
+ * the Store's history keep the values they had at the time. A character keeps
+ * the same Configuration for the whole battle, so the Configuration is what
+ * identifies it from one BattleState to the next.
+ * @param <Configuration> The type of Configuration describing the character.
+ */
 public abstract class CharacterState<Configuration extends CharacterConfiguration> {
     protected final Configuration configuration;
-    protected int maxHealth;
-    protected int currentHealth;
+    protected final int maxHealth;
+    protected final int currentHealth;
     
     public CharacterState(Configuration configuration, int maxHealth, int currentHealth) {
         this.configuration = configuration;
@@ -21,19 +29,26 @@ public abstract class CharacterState<Configuration extends CharacterConfiguratio
         return maxHealth;
     }
 
-    public void setMaxHealth(int maxHealth) {
-        this.maxHealth = maxHealth;
+    public CharacterState<Configuration> withMaxHealth(int maxHealth) {
+        return withHealth(maxHealth, currentHealth);
     }
 
     public int getCurrentHealth() {
         return currentHealth;
     }
     
-    public void setCurrentHealth(int newCurrentHealth) {
-        this.currentHealth = Math.min(newCurrentHealth, maxHealth);
+    public CharacterState<Configuration> withCurrentHealth(int newCurrentHealth) {
+        return withHealth(maxHealth, Math.min(newCurrentHealth, maxHealth));
     }
 
-    public void changeCurrentHealth(int amountToAddToCurrentHealth) {
-        this.currentHealth = Math.min(this.currentHealth + amountToAddToCurrentHealth, maxHealth);
+    public CharacterState<Configuration> withCurrentHealthChangedBy(int amountToAddToCurrentHealth) {
+        return withCurrentHealth(this.currentHealth + amountToAddToCurrentHealth);
     }
+    
+    /**
+     * @param maxHealth The new character's maximum health.
+     * @param currentHealth The new character's current health.
+     * @return A copy of this character with different health values.
+     */
+    protected abstract CharacterState<Configuration> withHealth(int maxHealth, int currentHealth);
 }
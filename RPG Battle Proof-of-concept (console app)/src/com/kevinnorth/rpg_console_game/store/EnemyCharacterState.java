@@ -9,7 +9,7 @@ package com.kevinnorth.rpg_console_game.store;
 import com.kevinnorth.rpg_console_game.configuration.EnemyCharacterConfiguration;
 
 public class EnemyCharacterState extends CharacterState<EnemyCharacterConfiguration> {
-    private SpikePosition spikePosition;
+    private final SpikePosition spikePosition;
 
     public EnemyCharacterState(EnemyCharacterConfiguration configuration,
             int maxHealth, int currentHealth, SpikePosition spikePosition) {
@@ -21,7 +21,12 @@ public class EnemyCharacterState extends CharacterState<EnemyCharacterConfigurat
         return spikePosition;
     }
 
-    public void setSpikePosition(SpikePosition spikePosition) {
-        this.spikePosition = spikePosition;
+    public EnemyCharacterState withSpikePosition(SpikePosition spikePosition) {
+        return new EnemyCharacterState(configuration, maxHealth, currentHealth, spikePosition);
+    }
+
+    @Override
+    protected EnemyCharacterState withHealth(int maxHealth, int currentHealth) {
+        return new EnemyCharacterState(configuration, maxHealth, currentHealth, spikePosition);
     }
 }
@@ -0,0 +1,158 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import java.util.AbstractList;
+import java.util.Collection;
+
+/**
+ * <p>An immutable List that can be "changed" cheaply by creating a new
+ * PersistentVector that shares almost all of its memory with the old one.</p>
+ * 
+ * <p>The elements are stored in a tree where each node holds up to 32
+ * children. Replacing or appending an element only copies the nodes on the
+ * path from the root to that element, which is O(log n) small arrays. Every
+ * other node is shared between the old and new vectors. This lets reducers
+ * return a brand new BattleState without copying every character, so the
+ * previous BattleState stays intact for the Store's history.</p>
+ * 
+ * <p>The mutating methods inherited from List throw
+ * <code>UnsupportedOperationException</code>. Use <code>with()</code> and
+ * <code>plus()</code> instead.</p>
+ * @param <E> The type of the elements in the vector.
+ */
+public final class PersistentVector<E> extends AbstractList<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    
+    private static final PersistentVector<?> EMPTY
+            = new PersistentVector<>(0, 0, new Object[WIDTH]);
+    
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+    
+    /**
+     * @param <E> The type of the elements in the vector.
+     * @return A PersistentVector with no elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+    
+    /**
+     * @param <E> The type of the elements in the vector.
+     * @param elements The elements to put in the vector, in order.
+     * @return A PersistentVector containing <code>elements</code>. If
+     * <code>elements</code> is already a PersistentVector, it is returned
+     * as-is.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(
+            Collection<? extends E> elements) {
+        if(elements instanceof PersistentVector) {
+            return (PersistentVector<E>) elements;
+        }
+        
+        PersistentVector<E> vector = empty();
+        for(E element : elements) {
+            vector = vector.plus(element);
+        }
+        return vector;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        
+        Object[] node = root;
+        for(int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @param index The position of the element to replace.
+     * @param element The new element.
+     * @return A PersistentVector identical to this one except that the
+     * element at <code>index</code> is <code>element</code>. If that element
+     * is already there, this vector is returned.
+     */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index);
+        
+        if(get(index) == element) {
+            return this;
+        }
+        
+        return new PersistentVector<>(size, shift,
+                replace(shift, root, index, element));
+    }
+    
+    /**
+     * @param element The element to append.
+     * @return A PersistentVector identical to this one except that
+     * <code>element</code> has been added to the end.
+     */
+    public PersistentVector<E> plus(E element) {
+        if(size == 1 << (shift + BITS)) {
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            return new PersistentVector<>(size + 1, shift + BITS,
+                    append(shift + BITS, newRoot, size, element));
+        }
+        
+        return new PersistentVector<>(size + 1, shift,
+                append(shift, root, size, element));
+    }
+    
+    private static Object[] replace(int level, Object[] node, int index,
+            Object element) {
+        Object[] copy = node.clone();
+        
+        if(level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = replace(level - BITS, (Object[]) node[child], index,
+                    element);
+        }
+        
+        return copy;
+    }
+    
+    private static Object[] append(int level, Object[] node, int index,
+            Object element) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        
+        if(level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = append(level - BITS, (Object[]) copy[child], index,
+                    element);
+        }
+        
+        return copy;
+    }
+    
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + size);
+        }
+    }
+}
@@ -11,8 +11,8 @@ import com.kevinnorth.rpg_console_game.configuration.PlayerCharacterConfiguratio
 /**
  *
  */
-public class PlayerCharacterState extends CharacterState {
-    private int defense;
+public class PlayerCharacterState extends CharacterState<PlayerCharacterConfiguration> {
+    private final int defense;
 
     public PlayerCharacterState(PlayerCharacterConfiguration configuration,
             int maxHealth, int currentHealth, int defense) {
@@ -24,7 +24,12 @@ public class PlayerCharacterState extends CharacterState {
         return defense;
     }
 
-    public void setDefense(int defense) {
-        this.defense = defense;
+    public PlayerCharacterState withDefense(int defense) {
+        return new PlayerCharacterState(configuration, maxHealth, currentHealth, defense);
+    }
+
+    @Override
+    protected PlayerCharacterState withHealth(int maxHealth, int currentHealth) {
+        return new PlayerCharacterState(configuration, maxHealth, currentHealth, defense);
     }
 }
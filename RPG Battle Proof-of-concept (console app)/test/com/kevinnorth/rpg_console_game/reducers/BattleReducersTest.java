@@ -0,0 +1,66 @@
+package com.kevinnorth.rpg_console_game.reducers;
+
+import com.kevinnorth.rpg_battle_system.store.Store;
+import com.kevinnorth.rpg_console_game.actions.AttackAction;
+import com.kevinnorth.rpg_console_game.configuration.BattleConfiguration;
+import com.kevinnorth.rpg_console_game.configuration.EnemyAttackConfiguration;
+import com.kevinnorth.rpg_console_game.configuration.EnemyCharacterConfiguration;
+import com.kevinnorth.rpg_console_game.configuration.PlayerAttackConfiguration;
+import com.kevinnorth.rpg_console_game.configuration.PlayerCharacterConfiguration;
+import com.kevinnorth.rpg_console_game.reducers.attack_reducers.AttackReducer;
+import com.kevinnorth.rpg_console_game.store.BattleAction;
+import com.kevinnorth.rpg_console_game.store.BattleState;
+import com.kevinnorth.rpg_console_game.store.CharacterState;
+import com.kevinnorth.rpg_console_game.store.EnemyCharacterState;
+import com.kevinnorth.rpg_console_game.store.PlayerCharacterState;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BattleReducersTest {
+    
+    private static final AttackReducer HIT_FOR_THREE = new AttackReducer() {
+        @Override
+        public CharacterState<?> reduceTarget(AttackAction action,
+                CharacterState<?> target) {
+            return target.withCurrentHealthChangedBy(-3);
+        }
+    };
+    
+    @Test
+    public void attacksAreDispatchedToTheTargetsSliceOnly() {
+        PlayerCharacterState player = new PlayerCharacterState(
+                new PlayerCharacterConfiguration(10, 10, 5, 5, "player", "",
+                        new ArrayList<PlayerAttackConfiguration>()),
+                10, 10, 0);
+        EnemyCharacterState enemy = new EnemyCharacterState(
+                new EnemyCharacterConfiguration(10, 10, 0, 0, "",
+                        new ArrayList<EnemyAttackConfiguration>()),
+                10, 10, null);
+        BattleConfiguration configuration = new BattleConfiguration(
+                new ArrayList<PlayerCharacterConfiguration>(),
+                new ArrayList<EnemyCharacterConfiguration>(),
+                null, null, null, new TurnOrderReducer(null, null), 0, 0);
+        Store<BattleState, BattleAction> store = BattleReducers.createStore(
+                configuration, new BattleState(Arrays.asList(player),
+                        Arrays.asList(enemy), player, 0, 0));
+        PlayerAttackConfiguration attack = new PlayerAttackConfiguration(
+                "hit", "", HIT_FOR_THREE);
+        
+        BattleState before = store.getCurrentState();
+        BattleState after = store.dispatch(
+                new AttackAction(attack, enemy, player));
+        
+        assertEquals(7, after.getEnemyCharacters().get(0).getCurrentHealth());
+        assertSame(before.getPlayerCharacters(), after.getPlayerCharacters());
+        assertSame(after, store.getCurrentState());
+        
+        BattleState afterSecond = store.dispatch(
+                new AttackAction(attack, enemy, player));
+        assertEquals(4,
+                afterSecond.getEnemyCharacters().get(0).getCurrentHealth());
+        assertEquals(0, afterSecond.getSliceVersions().get(0));
+        assertEquals(2, afterSecond.getSliceVersions().get(1));
+    }
+}
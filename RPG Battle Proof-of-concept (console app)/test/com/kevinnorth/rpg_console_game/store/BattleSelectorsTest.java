@@ -0,0 +1,47 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import com.kevinnorth.rpg_console_game.configuration.PlayerAttackConfiguration;
+import com.kevinnorth.rpg_console_game.configuration.PlayerCharacterConfiguration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BattleSelectorsTest {
+    
+    private static PlayerCharacterState createPlayer(String name) {
+        return new PlayerCharacterState(new PlayerCharacterConfiguration(10, 10,
+                5, 5, name, "", new ArrayList<PlayerAttackConfiguration>()),
+                10, 10, 0);
+    }
+    
+    @Test
+    public void nextCharacterWrapsToThePartyWhenNoEnemiesAreLeft() {
+        PlayerCharacterState first = createPlayer("first");
+        PlayerCharacterState second = createPlayer("second");
+        BattleState state = new BattleState(Arrays.asList(first, second),
+                Collections.<EnemyCharacterState>emptyList(), second, 0, 0);
+        
+        assertSame(first, new BattleSelectors().getNextCharacter()
+                .select(state));
+    }
+    
+    @Test
+    public void separateInstancesDontShareRememberedValues() {
+        PlayerCharacterState player = createPlayer("player");
+        BattleState state = new BattleState(Arrays.asList(player),
+                Collections.<EnemyCharacterState>emptyList(), player, 0, 0);
+        BattleState hurtState = state.withPlayerCharacter(0,
+                new PlayerCharacterState(player.getConfiguration(), 10, 4, 0));
+        BattleSelectors logicSelectors = new BattleSelectors();
+        BattleSelectors renderSelectors = new BattleSelectors();
+        
+        assertEquals(Integer.valueOf(10),
+                logicSelectors.getTotalPartyHealth().select(state));
+        assertEquals(Integer.valueOf(4),
+                renderSelectors.getTotalPartyHealth().select(hurtState));
+        assertEquals(Integer.valueOf(10),
+                logicSelectors.getTotalPartyHealth().select(state));
+    }
+}
@@ -0,0 +1,83 @@
+package com.kevinnorth.rpg_console_game.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PersistentVectorTest {
+    
+    /* Enough elements for the tree to grow to three levels. */
+    private static final int SIZE = 32 * 32 + 100;
+    
+    private static PersistentVector<Integer> build(int size) {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for(int i = 0; i < size; i++) {
+            vector = vector.plus(i);
+        }
+        return vector;
+    }
+    
+    @Test
+    public void appendingKeepsEveryElementAcrossTreeLevels() {
+        PersistentVector<Integer> vector = build(SIZE);
+        
+        assertEquals(SIZE, vector.size());
+        for(int i = 0; i < SIZE; i++) {
+            assertEquals(Integer.valueOf(i), vector.get(i));
+        }
+    }
+    
+    @Test
+    public void appendingLeavesTheOriginalUnchanged() {
+        PersistentVector<Integer> before = build(32);
+        PersistentVector<Integer> after = before.plus(32);
+        
+        assertEquals(32, before.size());
+        assertEquals(33, after.size());
+        assertEquals(Integer.valueOf(32), after.get(32));
+    }
+    
+    @Test
+    public void replacingLeavesTheOriginalUnchanged() {
+        PersistentVector<Integer> before = build(SIZE);
+        PersistentVector<Integer> after = before.with(1000, -1);
+        
+        assertEquals(Integer.valueOf(1000), before.get(1000));
+        assertEquals(Integer.valueOf(-1), after.get(1000));
+        for(int i = 0; i < SIZE; i++) {
+            if(i != 1000) {
+                assertSame(before.get(i), after.get(i));
+            }
+        }
+    }
+    
+    @Test
+    public void replacingWithTheSameElementReturnsTheSameVector() {
+        PersistentVector<Integer> vector = build(10);
+        
+        assertSame(vector, vector.with(3, vector.get(3)));
+    }
+    
+    @Test
+    public void ofCopiesCollectionsAndReusesVectors() {
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        PersistentVector<String> vector = PersistentVector.of(list);
+        list.set(0, "z");
+        
+        assertEquals(Arrays.asList("a", "b", "c"), vector);
+        assertSame(vector, PersistentVector.of(vector));
+        assertTrue(PersistentVector.empty().isEmpty());
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheEndThrows() {
+        build(5).get(5);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void replacingPastTheEndThrows() {
+        build(5).with(-1, 0);
+    }
+}
@@ -1,15 +1,28 @@
 package com.kevinnorth.rpg_battle_system;
 
 import com.kevinnorth.rpg_battle_system.configuration.Configuration;
+import com.kevinnorth.rpg_battle_system.instrumentation.FramePhase;
+import com.kevinnorth.rpg_battle_system.instrumentation.FrameProfiler;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.LogicStepEvent;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.RenderEvent;
 import com.kevinnorth.rpg_battle_system.logic.LogicMachine;
 import com.kevinnorth.rpg_battle_system.logic.LogicMachineTransitionAction;
+import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
+import com.kevinnorth.rpg_battle_system.reciever.InputQueue;
+import com.kevinnorth.rpg_battle_system.renderer.NullRenderer;
 import com.kevinnorth.rpg_battle_system.renderer.Renderer;
+import com.kevinnorth.rpg_battle_system.scheduling.RenderThread;
 import com.kevinnorth.rpg_battle_system.store.Action;
 import com.kevinnorth.rpg_battle_system.store.Reducer;
+import com.kevinnorth.rpg_battle_system.store.Selector;
+import com.kevinnorth.rpg_battle_system.store.SliceComparison;
 import com.kevinnorth.rpg_battle_system.store.State;
 import com.kevinnorth.rpg_battle_system.store.Store;
+import com.kevinnorth.rpg_battle_system.store.StoreChange;
+import com.kevinnorth.rpg_battle_system.store.StoreMiddleware;
 import com.kevinnorth.rpg_battle_system.store.StoreSubscriber;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <p>The class responsible for controlling an entire battle sequence. It delegates
@@ -53,13 +66,32 @@ import java.util.List;
  */
 public class Director<StoreStateType extends State,
         StoreActionType extends Action, ConfigurationType extends Configuration> {
+    /**
+     * The number of InputEvents that can be waiting for the next frame at
+     * once.
+     */
+    public static final int INPUT_QUEUE_CAPACITY = 1024;
+    
     private final Store<StoreStateType, StoreActionType> store;
     private final LogicMachine<StoreStateType, StoreActionType,
             ? extends LogicMachineTransitionAction, ConfigurationType>
             stateMachine;
     private final Renderer<StoreStateType> renderer;
     private final ConfigurationType configuration;
+    private final InputQueue inputQueue;
+    private final Consumer<InputEvent> inputHandler;
+    
+    private volatile RenderThread<StoreStateType> renderThread;
+    private volatile FrameProfiler<StoreStateType, StoreActionType> profiler;
 
+    /**
+     * @param store The Store that keeps track of the battle's State.
+     * @param stateMachine The LogicMachine that implements the battle's rules.
+     * @param renderer The Renderer that draws the battle, or <code>null</code>
+     * to run the battle headless, such as with a
+     * <code>HeadlessSimulation</code>.
+     * @param configuration The battle's Configuration.
+     */
     public Director(Store<StoreStateType, StoreActionType> store,
             LogicMachine<StoreStateType, StoreActionType,
                     ? extends LogicMachineTransitionAction,
@@ -68,21 +100,210 @@ public class Director<StoreStateType extends State,
             ConfigurationType configuration) {
         this.store = store;
         this.stateMachine = stateMachine;
-        this.renderer = renderer;
+        this.renderer = renderer == null
+                ? new NullRenderer<StoreStateType>() : renderer;
         this.configuration = configuration;
+        this.inputQueue = new InputQueue(INPUT_QUEUE_CAPACITY);
+        this.inputHandler = new Consumer<InputEvent>() {
+            @Override
+            public void accept(InputEvent inputEvent) {
+                stateMachine.handleInput(inputEvent);
+            }
+        };
         
         store.addSubscriber(stateMachine);
     }
     
     /**
      * Call this function once per frame to update the game logic and state and
-     * change what is shown on screen.
+     * change what is shown on screen. Any Store changes and InputEvents
+     * submitted from other threads are handled first.
      * @param deltaTime The amount of time, in seconds, since the previous frame.
      */
     public void onFrame(float deltaTime) {
-        stateMachine.handleFrame(deltaTime);
-        StoreStateType currentState = store.getCurrentState();
-        renderer.render(currentState, deltaTime);
+        onLogicStep(deltaTime);
+        onRenderFrame(deltaTime, 0f);
+    }
+    
+    /**
+     * Updates the game logic and state without drawing anything. A
+     * <code>FrameScheduler</code> calls this at a fixed rate, possibly several
+     * times in a row to catch up, and calls <code>onRenderFrame()</code>
+     * separately. Any Store changes submitted from other threads are applied
+     * first, and then every InputEvent submitted since the previous step is
+     * handed to the LogicMachine, in order, before it handles the frame.
+     * @param deltaTime The amount of time, in seconds, that this step covers.
+     */
+    public void onLogicStep(float deltaTime) {
+        FrameProfiler<StoreStateType, StoreActionType> activeProfiler
+                = profiler;
+        LogicStepEvent event = new LogicStepEvent();
+        event.begin();
+        
+        if(activeProfiler == null) {
+            store.applySubmittedChanges();
+            inputQueue.drain(inputHandler);
+            stateMachine.handleFrame(deltaTime);
+        } else {
+            long phaseStart = System.nanoTime();
+            store.applySubmittedChanges();
+            phaseStart = activeProfiler.recordPhase(
+                    FramePhase.SUBMITTED_CHANGES, phaseStart);
+            inputQueue.drain(inputHandler);
+            phaseStart = activeProfiler.recordPhase(FramePhase.INPUT_DRAIN,
+                    phaseStart);
+            stateMachine.handleFrame(deltaTime);
+            activeProfiler.recordPhase(FramePhase.LOGIC, phaseStart);
+            activeProfiler.endLogicStep();
+        }
+        
+        event.end();
+        if(event.shouldCommit()) {
+            event.deltaTime = deltaTime;
+            event.commit();
+        }
+        
+        RenderThread<StoreStateType> activeRenderThread = renderThread;
+        if(activeRenderThread != null) {
+            activeRenderThread.publish(store.getCurrentState(), deltaTime);
+        }
+    }
+    
+    /**
+     * Draws the Store's current State without updating the game logic.
+     * @param deltaTime The amount of time, in seconds, since the previous
+     * rendered frame.
+     * @param alpha How far real time has moved past the most recent logic step
+     * toward the next one, from 0 to 1.
+     * @see Renderer#render(java.lang.Object, float, float)
+     */
+    public void onRenderFrame(float deltaTime, float alpha) {
+        FrameProfiler<StoreStateType, StoreActionType> activeProfiler
+                = profiler;
+        
+        // The render thread, if there is one, draws on its own schedule.
+        if(renderThread == null) {
+            RenderEvent event = new RenderEvent();
+            event.begin();
+            
+            if(activeProfiler == null) {
+                renderer.render(store.getCurrentState(), deltaTime, alpha);
+            } else {
+                long renderStart = System.nanoTime();
+                renderer.render(store.getCurrentState(), deltaTime, alpha);
+                activeProfiler.recordPhase(FramePhase.RENDER, renderStart);
+            }
+            
+            event.end();
+            if(event.shouldCommit()) {
+                event.deltaTime = deltaTime;
+                event.alpha = alpha;
+                event.commit();
+            }
+        }
+        
+        if(activeProfiler != null) {
+            activeProfiler.endFrame();
+        }
+    }
+    
+    /**
+     * Starts timing every phase of every frame. This must be called from the
+     * thread that runs the game logic.
+     * @return The FrameProfiler recording the timings. Call
+     * <code>registerMBean()</code> on it to publish the timings over JMX.
+     */
+    public FrameProfiler<StoreStateType, StoreActionType> enableProfiling() {
+        FrameProfiler<StoreStateType, StoreActionType> activeProfiler
+                = profiler;
+        if(activeProfiler == null) {
+            activeProfiler = new FrameProfiler<>();
+            store.addMiddleware(activeProfiler);
+            profiler = activeProfiler;
+            
+            RenderThread<StoreStateType> activeRenderThread = renderThread;
+            if(activeRenderThread != null) {
+                activeRenderThread.setFrameProfiler(activeProfiler);
+            }
+        }
+        
+        return activeProfiler;
+    }
+    
+    /**
+     * Stops timing frames. The FrameProfiler keeps the timings it already
+     * recorded, but is removed from JMX.
+     */
+    public void disableProfiling() {
+        FrameProfiler<StoreStateType, StoreActionType> activeProfiler
+                = profiler;
+        if(activeProfiler != null) {
+            profiler = null;
+            
+            RenderThread<StoreStateType> activeRenderThread = renderThread;
+            if(activeRenderThread != null) {
+                activeRenderThread.setFrameProfiler(null);
+            }
+            store.removeMiddleware(activeProfiler);
+            activeProfiler.unregisterMBean();
+        }
+    }
+    
+    /**
+     * @return The FrameProfiler timing this Director's frames, or
+     * <code>null</code> if profiling isn't enabled.
+     */
+    public FrameProfiler<StoreStateType, StoreActionType> getFrameProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * <p>Starts drawing the battle on a dedicated render thread instead of on
+     * the thread that runs the game logic. From now on,
+     * <code>onRenderFrame()</code> does nothing, and each
+     * <code>onLogicStep()</code> publishes the Store's State to the render
+     * thread, which draws the latest State <code>framesPerSecond</code> times
+     * per second.</p>
+     * 
+     * <p>This must be called from the thread that runs the game logic. The
+     * Renderer is only called from the render thread until
+     * <code>stopRenderThread()</code> is called.</p>
+     * @param framesPerSecond How many frames to render each second.
+     * @throws IllegalStateException If a render thread is already running.
+     */
+    public void startRenderThread(int framesPerSecond) {
+        if(renderThread != null) {
+            throw new IllegalStateException("A render thread is already "
+                    + "running.");
+        }
+        
+        RenderThread<StoreStateType> newRenderThread
+                = new RenderThread<>(renderer, framesPerSecond);
+        newRenderThread.setFrameProfiler(profiler);
+        newRenderThread.publish(store.getCurrentState(), 0f);
+        newRenderThread.start();
+        renderThread = newRenderThread;
+    }
+    
+    /**
+     * Stops the render thread, if there is one, and goes back to drawing in
+     * <code>onRenderFrame()</code>. Waits for the frame being drawn, if any,
+     * to finish.
+     */
+    public void stopRenderThread() {
+        RenderThread<StoreStateType> activeRenderThread = renderThread;
+        if(activeRenderThread != null) {
+            renderThread = null;
+            activeRenderThread.stop();
+        }
+    }
+    
+    /**
+     * @return <code>true</code> if the battle is being drawn on a dedicated
+     * render thread.
+     */
+    public boolean isRenderThreadRunning() {
+        return renderThread != null;
     }
     
     /**
@@ -90,6 +311,10 @@ public class Director<StoreStateType extends State,
      * all objects that are subscribed to the Store will be alerted and have a
      * chance to respond to the new State before this function returns. The
      * subscribers may further change the State before this function returns.
+     * If this is called by a subscriber while it is being notified, such as
+     * the LogicMachine responding to a new State, the change is queued
+     * instead, and applied once every subscriber has been notified of the
+     * State they are currently responding to.
      * @param reducer The pure function to use to decide what the next State
      * will be.
      * @param action An Action that describes the event that requires the State
@@ -97,7 +322,10 @@ public class Director<StoreStateType extends State,
      * @return The next State that the battle enters. (This might be identical
      * to the previous State. There will be no special indication if this is the
      * case, and even if the new State is identical to the previous State, all
-     * subscribers will be notified of a state change.)
+     * subscribers will be notified of a state change.) If the change was
+     * queued, the current State, which doesn't include the change yet.
+     * @see Store#changeState(com.kevinnorth.rpg_battle_system.store.Reducer,
+     * com.kevinnorth.rpg_battle_system.store.Action)
      */
     public <SpecificActionType extends StoreActionType> StoreStateType
         changeStoreState(Reducer<StoreStateType, SpecificActionType> reducer,
@@ -105,6 +333,96 @@ public class Director<StoreStateType extends State,
         return store.changeState(reducer, action);
     }
     
+    /**
+     * Changes the State recorded by the Store using the Reducer the Store has
+     * registered for the Action's class. Otherwise, this behaves exactly like
+     * <code>changeStoreState()</code>.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     * @return The next State that the battle enters, or the current State if
+     * the change was queued.
+     * @see Store#dispatch(com.kevinnorth.rpg_battle_system.store.Action)
+     */
+    public StoreStateType dispatch(StoreActionType action) {
+        return store.dispatch(action);
+    }
+    
+    /**
+     * Queues an InputEvent to be handed to the LogicMachine at the start of
+     * the next frame, before the frame is handled. This is safe to call from
+     * any thread, such as the thread that receives input from the OS, and
+     * never blocks. InputEvents are delivered in the order they were
+     * submitted.
+     * @param inputEvent The InputEvent to deliver.
+     * @return <code>true</code> if the InputEvent was queued, or
+     * <code>false</code> if <code>INPUT_QUEUE_CAPACITY</code> InputEvents were
+     * already waiting, in which case it is dropped.
+     */
+    public boolean submitInput(InputEvent inputEvent) {
+        return inputQueue.offer(inputEvent);
+    }
+    
+    /**
+     * Queues a change to the Store's State to be applied at the start of the
+     * next frame. Unlike <code>changeStoreState()</code>, this is safe to call
+     * from any thread, such as an input or AI thread, and never blocks.
+     * @param reducer The pure function to use to decide what the next State
+     * will be.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     */
+    public <SpecificActionType extends StoreActionType> void submitStoreChange(
+            Reducer<StoreStateType, SpecificActionType> reducer,
+            SpecificActionType action) {
+        store.submitChange(reducer, action);
+    }
+    
+    /**
+     * Applies several Reducers, one after the other, as a single change to the
+     * State recorded by the Store. Only the final State is added to the
+     * Store's history, and subscribers are alerted once, with the final State.
+     * @param changes The Reducers to run and the Actions to give them, in
+     * order.
+     * @return The State that the battle enters after every change has been
+     * applied, or the current State if the changes were queued.
+     * @see Store#changeStates(java.util.List)
+     */
+    public StoreStateType changeStoreStates(
+            List<? extends StoreChange<StoreStateType, ? extends StoreActionType>>
+                    changes) {
+        return store.changeStates(changes);
+    }
+    
+    /**
+     * Makes the calling thread the only thread allowed to change the Store's
+     * State directly. Other threads must use <code>submitStoreChange()</code>.
+     * @throws IllegalStateException If another thread owns the Store.
+     * @see Store#claimOwnership()
+     */
+    public void claimStoreOwnership() {
+        store.claimOwnership();
+    }
+    
+    /**
+     * Allows any thread to change the Store's State directly again, for
+     * example so that a different thread can run the next frame.
+     * @throws IllegalStateException If another thread owns the Store.
+     * @see Store#releaseOwnership()
+     */
+    public void releaseStoreOwnership() {
+        store.releaseOwnership();
+    }
+    
+    /**
+     * Gives up the calling thread's ownership of the Store without letting any
+     * other thread change its State directly until one claims it.
+     * @throws IllegalStateException If another thread owns the Store.
+     * @see Store#lockOwnership()
+     */
+    public void lockStoreOwnership() {
+        store.lockOwnership();
+    }
+    
     /**
      * Gets the Store's current State.
      * @return The Store's current state.
@@ -113,6 +431,30 @@ public class Director<StoreStateType extends State,
         return store.getCurrentState();
     }
 
+    /**
+     * Adds middleware that will run around every Reducer the Store runs from
+     * now on.
+     * @param middleware The middleware to add, such as a
+     * <code>ReducerTimingMiddleware</code>.
+     */
+    public void addStoreMiddleware(
+            StoreMiddleware<StoreStateType, StoreActionType> middleware) {
+        store.addMiddleware(middleware);
+    }
+    
+    /**
+     * Finds middleware that was added to the Store, for example to read the
+     * timings recorded by a <code>ReducerTimingMiddleware</code>.
+     * @param <MiddlewareType> The class of middleware to look for.
+     * @param middlewareClass The class of middleware to look for.
+     * @return The first middleware added to the Store that is an instance of
+     * <code>middlewareClass</code>, or <code>null</code> if there isn't any.
+     */
+    public <MiddlewareType extends StoreMiddleware<?, ?>> MiddlewareType
+            getStoreMiddleware(Class<MiddlewareType> middlewareClass) {
+        return store.getMiddleware(middlewareClass);
+    }
+    
     /**
      * Gets the battle's configuration.
      * @return The battle's Configuration.
@@ -122,9 +464,9 @@ public class Director<StoreStateType extends State,
     }
     
     /**
-     * @return An immutable List that contains every State the Store has been
-     * in, in the order those States occurred, with the first State appearing
-     * at the front of the List. Does not include the current State.
+     * @return An immutable List that contains every State kept by the Store's
+     * StateHistory, in the order those States occurred, with the oldest State
+     * appearing at the front of the List. Does not include the current State.
      */
     public List<StoreStateType> getStoreHistory() {
         return store.getStateHistory();
@@ -141,12 +483,73 @@ public class Director<StoreStateType extends State,
     }
     
     /**
-     * Unsubscribes the specified subscriber from updates to the Store state.
+     * Subscribes the specified object to the Store so that any time the
+     * Store's state changes, the object will have a chance to respond to the
+     * changes.
+     * @param subscriber The object to sbuscribe to the Store.
+     * @param priority Subscribers with higher priorities are notified before
+     * subscribers with lower priorities.
+     */
+    public void addStoreSubscriber(StoreSubscriber<StoreStateType> subscriber,
+            int priority) {
+        store.addSubscriber(subscriber, priority);
+    }
+    
+    /**
+     * Subscribes the specified object to the Store so that it is only notified
+     * when the piece of the State picked out by <code>selector</code> changes.
+     * The selected values are compared with <code>equals()</code>.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     */
+    public void addStoreSubscriber(StoreSubscriber<StoreStateType> subscriber,
+            Selector<StoreStateType, ?> selector) {
+        store.addSubscriber(subscriber, selector);
+    }
+    
+    /**
+     * Subscribes the specified object to the Store so that it is only notified
+     * when the piece of the State picked out by <code>selector</code> changes.
+     * @param <SliceType> The type of the value the Selector picks out.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     * @param comparison How to decide whether the selected value changed.
+     */
+    public <SliceType> void addStoreSubscriber(
+            StoreSubscriber<StoreStateType> subscriber,
+            Selector<StoreStateType, SliceType> selector,
+            SliceComparison comparison) {
+        store.addSubscriber(subscriber, selector, comparison);
+    }
+    
+    /**
+     * Subscribes the specified object to the Store so that it is only notified
+     * when the piece of the State picked out by <code>selector</code> changes.
+     * @param <SliceType> The type of the value the Selector picks out.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     * @param comparison How to decide whether the selected value changed.
+     * @param priority Subscribers with higher priorities are notified before
+     * subscribers with lower priorities.
+     */
+    public <SliceType> void addStoreSubscriber(
+            StoreSubscriber<StoreStateType> subscriber,
+            Selector<StoreStateType, SliceType> selector,
+            SliceComparison comparison, int priority) {
+        store.addSubscriber(subscriber, selector, comparison, priority);
+    }
+    
+    /**
+     * Unsubscribes the specified subscriber from updates to the Store state,
+     * whether it was subscribed with or without a Selector.
      * @param subscriber The subscriber to unsubscribe.
      * @return <code>true</code> if the subscriber was removed.
      * <code>false</code> if the subscriber wasn't already subscribed. Either
-     * way, the subscriber will not receive updates after this function is
-     * called.
+     * way, the subscriber will not receive updates after the Store finishes
+     * notifying subscribers of the current State.
      */
     public boolean removeStoreSubscriber(
             StoreSubscriber<StoreStateType> subscriber) {
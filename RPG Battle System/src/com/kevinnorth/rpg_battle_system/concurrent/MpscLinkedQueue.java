@@ -0,0 +1,78 @@
+package com.kevinnorth.rpg_battle_system.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>An unbounded, lock-free queue that any number of threads can add to, but
+ * only a single thread may take from. This is the shape of most of the
+ * cross-thread traffic in a battle: input threads, network threads, and AI
+ * workers produce work, and the thread that owns the battle consumes it.</p>
+ * 
+ * <p>Adding an element is a single atomic swap, so producers never wait on
+ * each other or on the consumer. Elements come out in the order their
+ * <code>offer()</code> calls completed their swap.</p>
+ * @param <E> The type of the elements in the queue.
+ */
+public final class MpscLinkedQueue<E> {
+    private final AtomicReference<Node<E>> head;
+    /* Only touched by the consumer thread. */
+    private Node<E> tail;
+
+    public MpscLinkedQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = new AtomicReference<>(stub);
+        this.tail = stub;
+    }
+    
+    /**
+     * Adds an element to the back of the queue. Safe to call from any thread.
+     * @param element The element to add. Must not be <code>null</code>.
+     */
+    public void offer(E element) {
+        if(element == null) {
+            throw new NullPointerException("MpscLinkedQueue cannot hold null "
+                    + "elements.");
+        }
+        
+        Node<E> node = new Node<>(element);
+        Node<E> previous = head.getAndSet(node);
+        previous.lazySet(node);
+    }
+    
+    /**
+     * Takes the element at the front of the queue. Must only be called by the
+     * consumer thread.
+     * @return The element at the front of the queue, or <code>null</code> if
+     * the queue is empty. An element whose <code>offer()</code> call is still
+     * in progress may not be visible yet.
+     */
+    public E poll() {
+        Node<E> next = tail.get();
+        if(next == null) {
+            return null;
+        }
+        
+        E element = next.element;
+        next.element = null;
+        tail = next;
+        return element;
+    }
+    
+    /**
+     * @return <code>true</code> if there is nothing to take from the queue.
+     * Must only be called by the consumer thread.
+     */
+    public boolean isEmpty() {
+        return tail.get() == null;
+    }
+    
+    private static final class Node<E> extends AtomicReference<Node<E>> {
+        private static final long serialVersionUID = 1L;
+        
+        private E element;
+
+        Node(E element) {
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kevinnorth.rpg_battle_system.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Hands the latest of a stream of values from one producer thread to one
+ * consumer thread without either of them ever waiting on the other.</p>
+ * 
+ * <p>There are three buffers. The producer always has one to fill, the
+ * consumer always has one to read, and the third holds the most recently
+ * published value. Publishing swaps the producer's buffer with the middle one,
+ * and reading swaps the consumer's buffer with the middle one if a newer value
+ * has been published since. Each swap is a single atomic operation. The
+ * consumer always sees a complete value, never one the producer is halfway
+ * through writing, and values the consumer was too slow to see are simply
+ * skipped.</p>
+ * 
+ * <p>Because the buffers are reused, the producer can fill them in place
+ * instead of allocating a new object for every value.</p>
+ * @param <T> The type of the buffers.
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0x3;
+    private static final int NEW_VALUE = 0x4;
+    
+    private final Object[] buffers;
+    /* The index of the middle buffer, plus NEW_VALUE if it holds a value the
+    consumer hasn't taken yet. */
+    private final AtomicInteger middle;
+    /* Only touched by the producer thread. */
+    private int writeIndex;
+    /* Only touched by the consumer thread. */
+    private int readIndex;
+
+    /**
+     * @param first One of the three buffers. The consumer starts out reading
+     * this one.
+     * @param second One of the three buffers.
+     * @param third One of the three buffers.
+     */
+    public TripleBuffer(T first, T second, T third) {
+        this.buffers = new Object[] { first, second, third };
+        this.readIndex = 0;
+        this.middle = new AtomicInteger(1);
+        this.writeIndex = 2;
+    }
+    
+    /**
+     * Must only be called by the producer thread.
+     * @return The buffer the producer should fill with the next value.
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+    
+    /**
+     * Makes the buffer returned by <code>getWriteBuffer()</code> the latest
+     * value and gives the producer a different buffer to fill. Must only be
+     * called by the producer thread.
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | NEW_VALUE) & INDEX_MASK;
+    }
+    
+    /**
+     * Must only be called by the consumer thread.
+     * @return The most recently published buffer. If nothing new has been
+     * published since the last call, this returns the same buffer as the last
+     * call did.
+     */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        if((middle.get() & NEW_VALUE) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        
+        return (T) buffers[readIndex];
+    }
+    
+    /**
+     * @return <code>true</code> if a value has been published that the
+     * consumer hasn't read yet.
+     */
+    public boolean hasNewValue() {
+        return (middle.get() & NEW_VALUE) != 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+/**
+ * The parts of a frame that a FrameProfiler times.
+ */
+public enum FramePhase {
+    /**
+     * Applying the Store changes submitted from other threads since the
+     * previous logic step.
+     */
+    SUBMITTED_CHANGES,
+    /**
+     * Handing the InputEvents submitted since the previous logic step to the
+     * LogicMachine.
+     */
+    INPUT_DRAIN,
+    /**
+     * <code>LogicMachine.handleFrame()</code>.
+     */
+    LOGIC,
+    /**
+     * Every Reducer run during a logic step, added together. Reducers run
+     * inside the other phases, so this overlaps with them.
+     */
+    REDUCERS,
+    /**
+     * Every time the Store alerted its subscribers during a logic step, added
+     * together. Like REDUCERS, this overlaps with the other phases.
+     */
+    SUBSCRIBERS,
+    /**
+     * <code>Renderer.render()</code>, whether it runs on the thread running
+     * the game logic or on a RenderThread.
+     */
+    RENDER,
+    /**
+     * A whole frame: every logic step since the previous rendered frame plus
+     * rendering this one. While a RenderThread draws the battle in parallel,
+     * only the logic steps are counted.
+     */
+    FRAME
+}
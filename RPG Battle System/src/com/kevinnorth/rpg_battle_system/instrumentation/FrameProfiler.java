@@ -0,0 +1,276 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.Reducer;
+import com.kevinnorth.rpg_battle_system.store.State;
+import com.kevinnorth.rpg_battle_system.store.StoreMiddleware;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>Times each phase of every frame a Director runs and records the
+ * durations into one LatencyHistogram per FramePhase. Turn it on with
+ * <code>Director.enableProfiling()</code>.</p>
+ * 
+ * <p>The Director times the phases it runs itself. The FrameProfiler is also
+ * added to the Store as StoreMiddleware, so it can add up the time spent in
+ * Reducers and in alerting subscribers during each logic step, wherever they
+ * were triggered from. Nested Reducers and cascading subscribers are only
+ * counted once.</p>
+ * 
+ * <p>Everything is recorded without allocating or locking. Every phase is
+ * recorded on the thread running the game logic, except for RENDER while a
+ * RenderThread is drawing the battle: its histogram is then recorded by the
+ * render thread alone. The histograms can be read from any thread, either
+ * directly or over JMX after calling <code>registerMBean()</code>, but a
+ * reader may see a slightly out-of-date picture.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer.
+ */
+public class FrameProfiler<StateType extends State, ActionType extends Action>
+        extends StoreMiddleware<StateType, ActionType>
+        implements FrameProfilerMXBean {
+    private final LatencyHistogram[] histograms;
+    
+    private int reduceDepth;
+    private long reduceStartNanos;
+    private long stepReducerNanos;
+    private long alertStartNanos;
+    private long stepSubscriberNanos;
+    private long pendingFrameNanos;
+    
+    private volatile long frameBudgetNanos;
+    private volatile long overBudgetFrameCount;
+    private volatile boolean resetRequested;
+    private volatile boolean renderResetRequested;
+    private ObjectName registeredName;
+
+    public FrameProfiler() {
+        FramePhase[] phases = FramePhase.values();
+        this.histograms = new LatencyHistogram[phases.length];
+        for(int i = 0; i < phases.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+    
+    /**
+     * @param phase A phase of the frame.
+     * @return The durations recorded for that phase. Don't record into it.
+     */
+    public LatencyHistogram getHistogram(FramePhase phase) {
+        return histograms[phase.ordinal()];
+    }
+    
+    /**
+     * Records how long a top-level phase of the frame took. Called by the
+     * Director.
+     * @param phase The phase that just finished. Not REDUCERS, SUBSCRIBERS or
+     * FRAME, which the FrameProfiler records itself.
+     * @param startNanos When the phase started, as a
+     * <code>System.nanoTime()</code> value.
+     * @return The current time, to use as the start of the next phase.
+     */
+    public long recordPhase(FramePhase phase, long startNanos) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        
+        if(phase == FramePhase.RENDER) {
+            recordRender(elapsed);
+        } else {
+            histograms[phase.ordinal()].record(elapsed);
+        }
+        pendingFrameNanos += elapsed;
+        return now;
+    }
+    
+    /**
+     * Records how long a frame drawn on a RenderThread took. Since the render
+     * thread draws in parallel with the game logic, the time isn't added to
+     * the FRAME phase. Called by the RenderThread, which must be the only
+     * thread drawing the battle while it runs.
+     * @param startNanos When the frame started, as a
+     * <code>System.nanoTime()</code> value.
+     */
+    public void recordRenderThreadFrame(long startNanos) {
+        recordRender(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Records the time spent in Reducers and subscribers during the logic step
+     * that just finished. Called by the Director.
+     */
+    public void endLogicStep() {
+        histograms[FramePhase.REDUCERS.ordinal()].record(stepReducerNanos);
+        histograms[FramePhase.SUBSCRIBERS.ordinal()]
+                .record(stepSubscriberNanos);
+        stepReducerNanos = 0;
+        stepSubscriberNanos = 0;
+    }
+    
+    /**
+     * Records the whole frame that just finished and checks it against the
+     * frame budget. Called by the Director.
+     */
+    public void endFrame() {
+        if(resetRequested) {
+            for(FramePhase phase : FramePhase.values()) {
+                // The thread drawing the battle resets RENDER itself.
+                if(phase != FramePhase.RENDER) {
+                    histograms[phase.ordinal()].reset();
+                }
+            }
+            overBudgetFrameCount = 0;
+            resetRequested = false;
+        } else {
+            histograms[FramePhase.FRAME.ordinal()].record(pendingFrameNanos);
+            
+            long budget = frameBudgetNanos;
+            if(budget > 0 && pendingFrameNanos > budget) {
+                overBudgetFrameCount++;
+            }
+        }
+        
+        pendingFrameNanos = 0;
+    }
+
+    /* The RENDER histogram may be recorded by the render thread, so only the
+       thread drawing the battle can reset it. */
+    private void recordRender(long elapsed) {
+        LatencyHistogram histogram = histograms[FramePhase.RENDER.ordinal()];
+        if(renderResetRequested) {
+            histogram.reset();
+            renderResetRequested = false;
+        }
+        
+        histogram.record(elapsed);
+    }
+
+    @Override
+    public void beforeReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState) {
+        if(reduceDepth++ == 0) {
+            reduceStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState, StateType newState) {
+        if(--reduceDepth == 0) {
+            stepReducerNanos += System.nanoTime() - reduceStartNanos;
+        }
+    }
+
+    @Override
+    public void beforeAlertSubscribers(StateType newState) {
+        alertStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterAlertSubscribers(StateType newState) {
+        stepSubscriberNanos += System.nanoTime() - alertStartNanos;
+    }
+    
+    /**
+     * Publishes this FrameProfiler over JMX, under
+     * <code>com.kevinnorth.rpg_battle_system:type=FrameProfiler,name=</code>
+     * followed by <code>name</code>.
+     * @param name A name that tells this battle apart from any others
+     * running in the same JVM.
+     * @throws IllegalStateException If the FrameProfiler couldn't be
+     * registered, for example because the name is already taken.
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(
+                    "com.kevinnorth.rpg_battle_system:type=FrameProfiler,name="
+                            + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, objectName);
+            registeredName = objectName;
+        } catch(JMException e) {
+            throw new IllegalStateException("The FrameProfiler could not be "
+                    + "registered with JMX.", e);
+        }
+    }
+    
+    /**
+     * Removes this FrameProfiler from JMX, if it was registered.
+     */
+    public synchronized void unregisterMBean() {
+        if(registeredName == null) {
+            return;
+        }
+        
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(registeredName);
+        } catch(JMException e) {
+            // It is already gone, which is all we wanted.
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public PhaseTimings getSubmittedChangesTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.SUBMITTED_CHANGES));
+    }
+
+    @Override
+    public PhaseTimings getInputDrainTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.INPUT_DRAIN));
+    }
+
+    @Override
+    public PhaseTimings getLogicTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.LOGIC));
+    }
+
+    @Override
+    public PhaseTimings getReducerTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.REDUCERS));
+    }
+
+    @Override
+    public PhaseTimings getSubscriberTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.SUBSCRIBERS));
+    }
+
+    @Override
+    public PhaseTimings getRenderTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.RENDER));
+    }
+
+    @Override
+    public PhaseTimings getFrameTimings() {
+        return PhaseTimings.of(getHistogram(FramePhase.FRAME));
+    }
+
+    @Override
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    @Override
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        if(frameBudgetNanos < 0) {
+            throw new IllegalArgumentException("The frame budget cannot be "
+                    + "negative.");
+        }
+        
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    @Override
+    public long getOverBudgetFrameCount() {
+        return overBudgetFrameCount;
+    }
+
+    @Override
+    public void reset() {
+        renderResetRequested = true;
+        resetRequested = true;
+    }
+}
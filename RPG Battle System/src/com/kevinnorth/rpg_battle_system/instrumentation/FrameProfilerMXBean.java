@@ -0,0 +1,43 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+/**
+ * The view of a FrameProfiler published over JMX, so frame times can be
+ * watched, and frame-budget violations alerted on, from any JMX client.
+ */
+public interface FrameProfilerMXBean {
+    PhaseTimings getSubmittedChangesTimings();
+    
+    PhaseTimings getInputDrainTimings();
+    
+    PhaseTimings getLogicTimings();
+    
+    PhaseTimings getReducerTimings();
+    
+    PhaseTimings getSubscriberTimings();
+    
+    PhaseTimings getRenderTimings();
+    
+    PhaseTimings getFrameTimings();
+    
+    /**
+     * @return The longest a frame may take, in nanoseconds, before it counts
+     * as over budget, or 0 if there is no budget.
+     */
+    long getFrameBudgetNanos();
+    
+    /**
+     * @param frameBudgetNanos The longest a frame may take, in nanoseconds,
+     * before it counts as over budget, or 0 for no budget.
+     */
+    void setFrameBudgetNanos(long frameBudgetNanos);
+    
+    /**
+     * @return The number of frames that took longer than the frame budget.
+     */
+    long getOverBudgetFrameCount();
+    
+    /**
+     * Forgets every recorded duration at the end of the current frame.
+     */
+    void reset();
+}
@@ -0,0 +1,148 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+import java.util.Arrays;
+
+/**
+ * <p>A fixed-size histogram of durations, in nanoseconds, that is cheap enough
+ * to record into on every frame.</p>
+ * 
+ * <p>Durations are sorted into buckets whose width grows with the duration:
+ * every power of two is split into eight buckets, so a percentile read back
+ * from the histogram is within 12.5% of the true value. Every duration from
+ * zero to several centuries fits into the same preallocated array, so
+ * recording never allocates and never needs to be configured with a range
+ * ahead of time.</p>
+ * 
+ * <p>Recording is not synchronized. Record from one thread at a time; reading
+ * from another thread, such as a monitoring thread, is safe but may see a
+ * slightly out-of-date picture.</p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /* Long.MAX_VALUE has an exponent of 62, which lands in the last row. */
+    private static final int BUCKET_COUNT
+            = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final long[] counts;
+    private long totalCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+    
+    /**
+     * @param nanos The duration to record. Negative durations are recorded as
+     * zero.
+     */
+    public void record(long nanos) {
+        if(nanos < 0) {
+            nanos = 0;
+        }
+        
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        totalNanos += nanos;
+        if(nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+    
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+    
+    /**
+     * @return The longest duration recorded, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    /**
+     * @return The average duration recorded, in nanoseconds, or 0 if nothing
+     * has been recorded.
+     */
+    public double getMeanNanos() {
+        return totalCount == 0 ? 0 : (double) totalNanos / totalCount;
+    }
+    
+    /**
+     * @param percentile A number from 0 to 100, such as 50 for the median or
+     * 99 for the 99th percentile.
+     * @return An upper bound on the duration, in nanoseconds, that
+     * <code>percentile</code> percent of the recorded durations were at or
+     * below, or 0 if nothing has been recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        if(totalCount == 0) {
+            return 0;
+        }
+        
+        long rank = (long) Math.ceil(percentile / 100d * totalCount);
+        if(rank < 1) {
+            rank = 1;
+        }
+        
+        long seen = 0;
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if(seen >= rank) {
+                return Math.min(upperBoundOf(bucket), maxNanos);
+            }
+        }
+        
+        return maxNanos;
+    }
+    
+    /**
+     * Forgets every recorded duration.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+    
+    /**
+     * Adds every duration recorded by another histogram to this one.
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+    
+    private static int bucketOf(long nanos) {
+        if(nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS))
+                & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    private static long upperBoundOf(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket)
+                << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,82 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * A summary of the durations recorded for one FramePhase, as reported over
+ * JMX by a FrameProfiler.
+ */
+public final class PhaseTimings {
+    private final long count;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final double meanNanos;
+
+    public PhaseTimings(long count, long p50Nanos, long p99Nanos,
+            long maxNanos, double meanNanos) {
+        this.count = count;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+        this.meanNanos = meanNanos;
+    }
+    
+    /**
+     * @param histogram The durations to summarize.
+     * @return A summary of <code>histogram</code>.
+     */
+    public static PhaseTimings of(LatencyHistogram histogram) {
+        return new PhaseTimings(histogram.getCount(),
+                histogram.getPercentileNanos(50),
+                histogram.getPercentileNanos(99),
+                histogram.getMaxNanos(), histogram.getMeanNanos());
+    }
+    
+    /**
+     * Rebuilds a PhaseTimings from the form JMX sends it in. JMX clients that
+     * have this class use this automatically.
+     * @param data A PhaseTimings as JMX data.
+     * @return The PhaseTimings.
+     */
+    public static PhaseTimings from(CompositeData data) {
+        return new PhaseTimings((Long) data.get("count"),
+                (Long) data.get("p50Nanos"), (Long) data.get("p99Nanos"),
+                (Long) data.get("maxNanos"), (Double) data.get("meanNanos"));
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The median duration, in nanoseconds.
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return The 99th percentile duration, in nanoseconds.
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return The longest duration, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return The average duration, in nanoseconds.
+     */
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+}
@@ -0,0 +1,105 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.Reducer;
+import com.kevinnorth.rpg_battle_system.store.State;
+import com.kevinnorth.rpg_battle_system.store.StoreMiddleware;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StoreMiddleware that measures how long every Reducer takes to run. The
+ * durations are recorded into one LatencyHistogram per Reducer class and one
+ * per Action class, so you can find out which Reducers, or which kinds of
+ * events, are eating into the frame budget without attaching a profiler.
+ * The histograms can be read from another thread, such as a monitoring
+ * thread, while the Store keeps recording into them.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer.
+ */
+public class ReducerTimingMiddleware<StateType extends State,
+        ActionType extends Action>
+        extends StoreMiddleware<StateType, ActionType> {
+    private final Map<Class<?>, LatencyHistogram> reducerHistograms;
+    private final Map<Class<?>, LatencyHistogram> actionHistograms;
+    private long reduceStartNanos;
+
+    public ReducerTimingMiddleware() {
+        this.reducerHistograms = new ConcurrentHashMap<>();
+        this.actionHistograms = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void beforeReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState) {
+        reduceStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState, StateType newState) {
+        long elapsedNanos = System.nanoTime() - reduceStartNanos;
+        
+        histogramFor(reducerHistograms, reducer.getClass())
+                .record(elapsedNanos);
+        histogramFor(actionHistograms, action.getClass())
+                .record(elapsedNanos);
+    }
+    
+    /**
+     * @param reducerClass A class of Reducer.
+     * @return How long Reducers of that class have taken to run, or
+     * <code>null</code> if none have run yet.
+     */
+    public LatencyHistogram getReducerHistogram(Class<?> reducerClass) {
+        return reducerHistograms.get(reducerClass);
+    }
+    
+    /**
+     * @param actionClass A class of Action.
+     * @return How long Reducers have taken to reduce Actions of that class, or
+     * <code>null</code> if none have been reduced yet.
+     */
+    public LatencyHistogram getActionHistogram(Class<?> actionClass) {
+        return actionHistograms.get(actionClass);
+    }
+    
+    /**
+     * @return A read-only map from each Reducer class that has run to how long
+     * it has taken.
+     */
+    public Map<Class<?>, LatencyHistogram> getReducerHistograms() {
+        return Collections.unmodifiableMap(reducerHistograms);
+    }
+    
+    /**
+     * @return A read-only map from each Action class that has been reduced to
+     * how long reducing it has taken.
+     */
+    public Map<Class<?>, LatencyHistogram> getActionHistograms() {
+        return Collections.unmodifiableMap(actionHistograms);
+    }
+    
+    /**
+     * Forgets every duration recorded so far.
+     */
+    public void reset() {
+        reducerHistograms.clear();
+        actionHistograms.clear();
+    }
+    
+    private static LatencyHistogram histogramFor(
+            Map<Class<?>, LatencyHistogram> histograms, Class<?> type) {
+        LatencyHistogram histogram = histograms.get(type);
+        if(histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existing = histograms.putIfAbsent(type, histogram);
+            if(existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+}
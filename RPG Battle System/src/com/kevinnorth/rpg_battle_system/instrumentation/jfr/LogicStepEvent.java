@@ -0,0 +1,21 @@
+package com.kevinnorth.rpg_battle_system.instrumentation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for every logic step a Director runs,
+ * including applying submitted changes and draining input.
+ */
+@Name("com.kevinnorth.rpg_battle_system.LogicStep")
+@Label("Logic Step")
+@Category({"RPG Battle System", "Frames"})
+@Description("One logic step of a battle")
+public class LogicStepEvent extends Event {
+    @Label("Delta Time")
+    @Description("The amount of time, in seconds, the step covered")
+    public float deltaTime;
+}
@@ -0,0 +1,28 @@
+package com.kevinnorth.rpg_battle_system.instrumentation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder every time a LogicMachine changes
+ * LogicStates.
+ */
+@Name("com.kevinnorth.rpg_battle_system.LogicTransition")
+@Label("Logic Transition")
+@Category({"RPG Battle System", "Logic"})
+@Description("A LogicMachine changing LogicStates")
+public class LogicTransitionEvent extends Event {
+    @Label("From")
+    public String from;
+    
+    @Label("To")
+    public String to;
+    
+    @Label("Reducer")
+    @Description("The LogicStateReducer that chose the new LogicState, if "
+            + "any")
+    public Class<?> reducerClass;
+}
@@ -0,0 +1,25 @@
+package com.kevinnorth.rpg_battle_system.instrumentation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for every frame a Renderer draws.
+ */
+@Name("com.kevinnorth.rpg_battle_system.Render")
+@Label("Render")
+@Category({"RPG Battle System", "Frames"})
+@Description("One rendered frame of a battle")
+public class RenderEvent extends Event {
+    @Label("Delta Time")
+    @Description("The amount of time, in seconds, since the previous "
+            + "rendered frame")
+    public float deltaTime;
+    
+    @Label("Alpha")
+    @Description("How far real time had moved toward the next logic step")
+    public float alpha;
+}
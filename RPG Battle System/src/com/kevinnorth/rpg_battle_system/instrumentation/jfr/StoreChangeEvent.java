@@ -0,0 +1,23 @@
+package com.kevinnorth.rpg_battle_system.instrumentation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for every Reducer a Store runs, however the
+ * change was made.
+ */
+@Name("com.kevinnorth.rpg_battle_system.StoreChange")
+@Label("Store Change")
+@Category({"RPG Battle System", "Store"})
+@Description("A Reducer changing a Store's State")
+public class StoreChangeEvent extends Event {
+    @Label("Reducer")
+    public Class<?> reducerClass;
+    
+    @Label("Action")
+    public Class<?> actionClass;
+}
@@ -0,0 +1,20 @@
+package com.kevinnorth.rpg_battle_system.instrumentation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder every time a Store alerts one of its
+ * subscribers of a new State.
+ */
+@Name("com.kevinnorth.rpg_battle_system.SubscriberNotification")
+@Label("Subscriber Notification")
+@Category({"RPG Battle System", "Store"})
+@Description("A Store alerting one subscriber of a new State")
+public class SubscriberNotificationEvent extends Event {
+    @Label("Subscriber")
+    public Class<?> subscriberClass;
+}
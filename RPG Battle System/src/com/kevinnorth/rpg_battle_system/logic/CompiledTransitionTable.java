@@ -0,0 +1,270 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.store.State;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A TransitionTable that has been checked against a LogicMachine's
+ * LogicStates and turned into arrays.</p>
+ * 
+ * <p>Every class of transition action used in the table gets a dense index,
+ * like the LogicStates' IDs. The transitions for a LogicState and a class of
+ * action then form the cell <code>stateId * actionCount + actionIndex</code>,
+ * and every cell's guards and targets are stored one after another in two
+ * flat arrays. Each class of action is resolved to its index once, by walking
+ * up its superclasses, and kept in a ClassValue, so finding an action's index
+ * never writes to a shared map.</p>
+ * 
+ * <p>A class of action that has superclasses in the table also gets their
+ * rows, merged with its own in the order they were added, so a LogicState
+ * that only handles a superclass still handles every subclass that another
+ * LogicState uses.</p>
+ * 
+ * <p>A LogicState that has a parent also gets its parent's rows, after its
+ * own, so that a transition it doesn't handle falls through to its parent
+ * without any extra lookups.</p>
+ */
+final class CompiledTransitionTable<StoreStateType extends State,
+        TransitionActionType extends LogicMachineTransitionAction> {
+    private static final int NO_ACTION = -1;
+    
+    private final ClassValue<Integer> actionIndexes;
+    private final int actionCount;
+    private final int[] cellStarts;
+    private final TransitionGuard<StoreStateType, TransitionActionType>[] guards;
+    private final int[] targets;
+
+    private CompiledTransitionTable(
+            final Map<Class<?>, Integer> tableActionIndexes, int[] cellStarts,
+            TransitionGuard<StoreStateType, TransitionActionType>[] guards,
+            int[] targets) {
+        this.actionIndexes = new ClassValue<Integer>() {
+            @Override
+            protected Integer computeValue(Class<?> actionClass) {
+                for(Class<?> type = actionClass; type != null;
+                        type = type.getSuperclass()) {
+                    Integer index = tableActionIndexes.get(type);
+                    if(index != null) {
+                        return index;
+                    }
+                }
+                
+                return NO_ACTION;
+            }
+        };
+        this.actionCount = tableActionIndexes.size();
+        this.cellStarts = cellStarts;
+        this.guards = guards;
+        this.targets = targets;
+    }
+    
+    /**
+     * Checks a TransitionTable against a LogicMachine's LogicStates and
+     * compiles it.
+     * @param table The table to compile.
+     * @param stateIds The LogicMachine's LogicStates.
+     * @param startStateId The ID of the LogicMachine's starting LogicState.
+     * @param parentIds The ID of each LogicState's parent, or
+     * <code>LogicStateIds.NO_STATE</code> for LogicStates without one.
+     * @return The compiled table.
+     * @throws MissingLogicStateException If the table names LogicStates that
+     * were never added to the LogicMachine.
+     * @throws IllegalStateException If some LogicStates can't be reached from
+     * the starting LogicState or the table's entry states.
+     */
+    static <StoreStateType extends State,
+            TransitionActionType extends LogicMachineTransitionAction>
+            CompiledTransitionTable<StoreStateType, TransitionActionType>
+            compile(TransitionTable<StoreStateType, TransitionActionType> table,
+                    LogicStateIds stateIds, int startStateId,
+                    int[] parentIds) {
+        List<TransitionTable.Row<StoreStateType, TransitionActionType>> rows
+                = table.getRows();
+        
+        Set<String> missingStates = new LinkedHashSet<>();
+        Map<Class<?>, Integer> actionIndexes = new LinkedHashMap<>();
+        for(TransitionTable.Row<StoreStateType, TransitionActionType> row
+                : rows) {
+            if(!stateIds.contains(row.from)) {
+                missingStates.add(row.from);
+            }
+            if(!stateIds.contains(row.to)) {
+                missingStates.add(row.to);
+            }
+            if(!actionIndexes.containsKey(row.actionClass)) {
+                actionIndexes.put(row.actionClass, actionIndexes.size());
+            }
+        }
+        for(String entryState : table.getEntryStates()) {
+            if(!stateIds.contains(entryState)) {
+                missingStates.add(entryState);
+            }
+        }
+        
+        if(!missingStates.isEmpty()) {
+            throw new MissingLogicStateException("The TransitionTable uses "
+                    + "LogicStates that were never added to the LogicMachine: "
+                    + missingStates + ".");
+        }
+        
+        int stateCount = stateIds.size();
+        int actionCount = actionIndexes.size();
+        
+        // For each class in the table, the indexes of every class in the
+        // table that is it or one of its subclasses, whose cells its rows
+        // belong in.
+        List<List<Integer>> receivingIndexes = new ArrayList<>(actionCount);
+        for(int i = 0; i < actionCount; i++) {
+            receivingIndexes.add(new ArrayList<Integer>());
+        }
+        for(Map.Entry<Class<?>, Integer> entry : actionIndexes.entrySet()) {
+            for(Class<?> type = entry.getKey(); type != null;
+                    type = type.getSuperclass()) {
+                Integer index = actionIndexes.get(type);
+                if(index != null) {
+                    receivingIndexes.get(index).add(entry.getValue());
+                }
+            }
+        }
+        
+        List<List<TransitionTable.Row<StoreStateType, TransitionActionType>>>
+                cells = new ArrayList<>(stateCount * actionCount);
+        for(int i = 0; i < stateCount * actionCount; i++) {
+            cells.add(new ArrayList<TransitionTable.Row<StoreStateType,
+                    TransitionActionType>>());
+        }
+        
+        List<List<Integer>> edges = new ArrayList<>(stateCount);
+        for(int i = 0; i < stateCount; i++) {
+            edges.add(new ArrayList<Integer>());
+        }
+        
+        for(TransitionTable.Row<StoreStateType, TransitionActionType> row
+                : rows) {
+            int from = stateIds.getId(row.from);
+            for(int actionIndex : receivingIndexes.get(
+                    actionIndexes.get(row.actionClass))) {
+                cells.get(from * actionCount + actionIndex).add(row);
+            }
+            edges.get(from).add(stateIds.getId(row.to));
+        }
+        
+        checkReachability(stateIds, edges, startStateId,
+                table.getEntryStates(), parentIds);
+        
+        List<List<TransitionTable.Row<StoreStateType, TransitionActionType>>>
+                fullCells = new ArrayList<>(cells.size());
+        int[] cellStarts = new int[cells.size() + 1];
+        for(int i = 0; i < cells.size(); i++) {
+            List<TransitionTable.Row<StoreStateType, TransitionActionType>> cell
+                    = new ArrayList<>(cells.get(i));
+            for(int parent = parentIds[i / actionCount];
+                    parent != LogicStateIds.NO_STATE;
+                    parent = parentIds[parent]) {
+                cell.addAll(cells.get(parent * actionCount
+                        + i % actionCount));
+            }
+            
+            fullCells.add(cell);
+            cellStarts[i + 1] = cellStarts[i] + cell.size();
+        }
+        
+        TransitionGuard<StoreStateType, TransitionActionType>[] guards
+                = newGuards(cellStarts[cells.size()]);
+        int[] targets = new int[cellStarts[cells.size()]];
+        for(int i = 0; i < fullCells.size(); i++) {
+            List<TransitionTable.Row<StoreStateType, TransitionActionType>> cell
+                    = fullCells.get(i);
+            for(int j = 0; j < cell.size(); j++) {
+                guards[cellStarts[i] + j] = cell.get(j).guard;
+                targets[cellStarts[i] + j] = stateIds.getId(cell.get(j).to);
+            }
+        }
+        
+        return new CompiledTransitionTable<>(actionIndexes, cellStarts, guards,
+                targets);
+    }
+    
+    /**
+     * @param fromStateId The ID of the current LogicState.
+     * @param currentStoreState The current state in the Store.
+     * @param action The action causing the transition.
+     * @return The ID of the LogicState to go to, or
+     * <code>LogicStateIds.NO_STATE</code> if no row of the table matches.
+     */
+    int resolve(int fromStateId, StoreStateType currentStoreState,
+            TransitionActionType action) {
+        int actionIndex = actionIndexes.get(action.getClass());
+        if(actionIndex == NO_ACTION) {
+            return LogicStateIds.NO_STATE;
+        }
+        
+        int cell = fromStateId * actionCount + actionIndex;
+        for(int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+            if(guards[i] == null
+                    || guards[i].allows(currentStoreState, action)) {
+                return targets[i];
+            }
+        }
+        
+        return LogicStateIds.NO_STATE;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <StoreStateType extends State,
+            TransitionActionType extends LogicMachineTransitionAction>
+            TransitionGuard<StoreStateType, TransitionActionType>[]
+            newGuards(int length) {
+        return (TransitionGuard<StoreStateType, TransitionActionType>[])
+                new TransitionGuard<?, ?>[length];
+    }
+    
+    private static void checkReachability(LogicStateIds stateIds,
+            List<List<Integer>> edges, int startStateId,
+            Set<String> entryStates, int[] parentIds) {
+        boolean[] reached = new boolean[stateIds.size()];
+        ArrayDeque<Integer> toVisit = new ArrayDeque<>();
+        
+        toVisit.add(startStateId);
+        for(String entryState : entryStates) {
+            toVisit.add(stateIds.getId(entryState));
+        }
+        
+        Integer stateId;
+        while((stateId = toVisit.poll()) != null) {
+            if(reached[stateId]) {
+                continue;
+            }
+            reached[stateId] = true;
+            toVisit.addAll(edges.get(stateId));
+            
+            // A LogicState's parent is active whenever it is, and the
+            // parent's transitions apply to it as well.
+            if(parentIds[stateId] != LogicStateIds.NO_STATE) {
+                toVisit.add(parentIds[stateId]);
+            }
+        }
+        
+        List<String> unreachable = new ArrayList<>();
+        for(int i = 0; i < reached.length; i++) {
+            if(!reached[i]) {
+                unreachable.add(stateIds.getName(i));
+            }
+        }
+        
+        if(!unreachable.isEmpty()) {
+            throw new IllegalStateException("These LogicStates can't be "
+                    + "reached from the starting LogicState or any entry state "
+                    + "of the TransitionTable: "
+                    + unreachable + ". Add "
+                    + "transitions to them, or declare them with "
+                    + "addEntryState() if they are entered another way.");
+        }
+    }
+}
@@ -2,13 +2,21 @@ package com.kevinnorth.rpg_battle_system.logic;
 
 import com.kevinnorth.rpg_battle_system.Director;
 import com.kevinnorth.rpg_battle_system.configuration.Configuration;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.LogicTransitionEvent;
 import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
 import com.kevinnorth.rpg_battle_system.store.Action;
 import com.kevinnorth.rpg_battle_system.store.Reducer;
 import com.kevinnorth.rpg_battle_system.store.State;
+import com.kevinnorth.rpg_battle_system.store.StoreChange;
 import com.kevinnorth.rpg_battle_system.store.StoreSubscriber;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * <p>Implements the rules of the battle using a finite state machine. Each
@@ -68,6 +76,25 @@ import java.util.Map;
  * machines themselves, using special flags in the Store, or giving your
  * machine states a different StateLogicReducer to use that knows how to go to
  * the cutscene at the right time.</p>
+ * 
+ * <p>LogicStates can also be nested with <code>setParentState()</code>. While
+ * a LogicState is current, its parent, its parent's parent and so on are
+ * active too: they are given the same input, frames and Store States after it,
+ * and the TransitionTable falls through to their transitions when the current
+ * LogicState has none of its own. This lets rules shared by several
+ * LogicStates, like pausing the battle, live in one place.</p>
+ * 
+ * <p>Rules that run alongside the current LogicState instead of inside it,
+ * like a hazard timer that keeps ticking during the player's turn, can be put
+ * in their own LogicMachine and added as a region with
+ * <code>addRegion()</code>. Each region has its own current LogicState and is
+ * given the same input, frames and Store States as this LogicMachine. Regions
+ * marked side-effect-free only read the Store, so their frames are run in
+ * parallel.</p>
+ * 
+ * <p>Each LogicMachine also has a LogicScheduler, which LogicStates can use
+ * to run callbacks or take transitions after some amount of logic time,
+ * instead of adding up <code>deltaTime</code> every frame themselves.</p>
  * @param <StoreStateType> The class that the Store uses to keep track of state.
  * Using a generic type allows you to put whatever arbitrary data you wish into
  * the state as well as use different, specialized state classes in different
@@ -91,9 +118,36 @@ public class LogicMachine<StoreStateType extends State,
             ConfigurationType> director;
     private LogicState<StoreStateType, StoreActionType,
             TransitionActionType, ConfigurationType> currentState;
-    private final Map<String, LogicState<StoreStateType,
-            StoreActionType, TransitionActionType, ConfigurationType>>
-            availableStates;
+    private int currentStateId;
+    private final List<LogicState<StoreStateType, StoreActionType,
+            TransitionActionType, ConfigurationType>> statesById;
+    private final List<LogicStateFactory<StoreStateType, StoreActionType,
+            TransitionActionType, ConfigurationType>> factoriesById;
+    /* The IDs of the lazily loaded LogicStates that are currently loaded,
+    least recently entered first. */
+    private final LinkedHashSet<Integer> loadedLazyStates;
+    private int maxLoadedLazyStates;
+    /* Evicted LogicStates waiting to be handed back to their factories. They
+    are disposed once the LogicMachine is done handling input, a frame or a new
+    Store State, since the LogicState that caused the eviction may be an
+    evicted one that is still running. */
+    private final ArrayDeque<PendingDisposal> pendingDisposals;
+    /* How many calls to the handling methods are in progress. */
+    private int handlingDepth;
+    private final LogicStateIds stateIds;
+    private int[] parentIds;
+    /* How many times each LogicState has become active, so that callbacks it
+    scheduled can tell whether it has been left since. */
+    private int[] entryCounts;
+    private final LogicScheduler scheduler;
+    private final List<Region> regions;
+    /* Scratch list of the side-effect-free regions to run in parallel this
+    frame, kept to avoid allocating one every frame. */
+    private final List<Region> parallelRegions;
+    private ForkJoinPool regionPool;
+    private boolean sideEffectFree;
+    private CompiledTransitionTable<StoreStateType, TransitionActionType>
+            transitionTable;
 
     /**
      * @param director The battle's Director
@@ -105,7 +159,19 @@ public class LogicMachine<StoreStateType extends State,
             currentState) {
         this.director = director;
         this.currentState = currentState;
-        this.availableStates = new HashMap<>();
+        this.currentStateId = LogicStateIds.NO_STATE;
+        this.statesById = new ArrayList<>();
+        this.factoriesById = new ArrayList<>();
+        this.loadedLazyStates = new LinkedHashSet<>();
+        this.maxLoadedLazyStates = Integer.MAX_VALUE;
+        this.pendingDisposals = new ArrayDeque<>();
+        this.stateIds = new LogicStateIds();
+        this.parentIds = new int[0];
+        this.entryCounts = new int[0];
+        this.scheduler = new LogicScheduler();
+        this.regions = new ArrayList<>();
+        this.parallelRegions = new ArrayList<>();
+        this.regionPool = ForkJoinPool.commonPool();
     }
     
     /**
@@ -139,59 +205,468 @@ public class LogicMachine<StoreStateType extends State,
      * <li>In a similar way, you can reuse LogicStateReducers.</li>
      * </ul>
      * 
+     * <p>Each LogicState is also given an integer ID, counting up from 0 in
+     * the order the LogicStates are added. Transitioning by ID, with
+     * <code>changeMachineState(int)</code> or a LogicStateReducer, costs the
+     * same no matter how many LogicStates the LogicMachine has. Names are
+     * turned into IDs with a single hash lookup.</p>
+     * 
      * @param name The name to associate with the new LogicState.
      * @param logicState The LogicState to add to the LogicMachine.
+     * @return The new LogicState's ID.
+     * @throws IllegalStateException If a TransitionTable has already been set,
+     * since it was compiled without this LogicState.
      */
-    public void addLogicState(String name,
+    public int addLogicState(String name,
             LogicState<StoreStateType, StoreActionType,
                     TransitionActionType, ConfigurationType> logicState) {
-        if(availableStates.containsKey(name)) {
-            throw new IllegalStateException("The name \"" + name + "\" is "
-                    + "already being used for a LogicState in this "
-                    + "LogicMachine. Using the same name twice would lose "
-                    + "the previous LogicState.");
+        checkNoTransitionTable();
+        
+        int id = stateIds.add(name);
+        statesById.add(logicState);
+        factoriesById.add(null);
+        addStateSlot(id);
+        
+        if(currentStateId == LogicStateIds.NO_STATE
+                && logicState == currentState) {
+            currentStateId = id;
+        }
+        
+        return id;
+    }
+    
+    /**
+     * Adds a LogicState that isn't built until the first time the
+     * LogicMachine transitions into it. Otherwise, this works exactly like
+     * adding the LogicState itself, and it is given a name and an ID the same
+     * way.
+     * @param name The name to associate with the new LogicState.
+     * @param factory Builds the LogicState when it is first needed.
+     * @return The new LogicState's ID.
+     * @throws IllegalStateException If a TransitionTable has already been set,
+     * since it was compiled without this LogicState.
+     * @see LogicStateFactory
+     */
+    public int addLogicState(String name,
+            LogicStateFactory<StoreStateType, StoreActionType,
+                    TransitionActionType, ConfigurationType> factory) {
+        if(factory == null) {
+            throw new IllegalArgumentException("The LogicStateFactory cannot "
+                    + "be null.");
+        }
+        checkNoTransitionTable();
+        
+        int id = stateIds.add(name);
+        statesById.add(null);
+        factoriesById.add(factory);
+        addStateSlot(id);
+        return id;
+    }
+    
+    private void checkNoTransitionTable() {
+        if(transitionTable != null) {
+            throw new IllegalStateException("Every LogicState must be added "
+                    + "before the TransitionTable, since the table is "
+                    + "compiled with a row for each LogicState.");
+        }
+    }
+    
+    /**
+     * <p>Nests one LogicState inside another. Whenever the child is the
+     * current LogicState, the parent is active as well: after the child
+     * handles input, a frame or a new Store State, the parent does too, and
+     * so on up to the outermost LogicState. If the child transitions to
+     * another LogicState while handling something, its parents don't get
+     * it.</p>
+     * 
+     * <p>When the current LogicState has no row in the TransitionTable for an
+     * action, its parent's rows are used, then its parent's parent's, and so
+     * on.</p>
+     * @param childName The name of the LogicState to nest.
+     * @param parentName The name of the LogicState to nest it in.
+     * @throws IllegalArgumentException If this would make a LogicState its
+     * own ancestor.
+     * @throws IllegalStateException If a TransitionTable has already been set,
+     * since it was compiled without this parent.
+     */
+    public void setParentState(String childName, String parentName) {
+        if(transitionTable != null) {
+            throw new IllegalStateException("Parent LogicStates must be set "
+                    + "before the TransitionTable, since the table is "
+                    + "compiled with their transitions.");
+        }
+        
+        int childId = stateIds.getId(childName);
+        int parentId = stateIds.getId(parentName);
+        for(int id = parentId; id != LogicStateIds.NO_STATE;
+                id = parentIds[id]) {
+            if(id == childId) {
+                throw new IllegalArgumentException("Making \"" + parentName
+                        + "\" the parent of \"" + childName + "\" would make "
+                        + "a LogicState its own ancestor.");
+            }
+        }
+        
+        parentIds[childId] = parentId;
+        if(isActive(childId)) {
+            loadParents(childId);
+        }
+    }
+    
+    /**
+     * @param stateId The ID of a LogicState.
+     * @return The ID of its parent, or <code>LogicStateIds.NO_STATE</code> if
+     * it has none.
+     */
+    public int getParentStateId(int stateId) {
+        if(stateId < 0 || stateId >= stateIds.size()) {
+            throw new MissingLogicStateException("There is no state with the "
+                    + "ID " + stateId + ".");
+        }
+        
+        return parentIds[stateId];
+    }
+    
+    /**
+     * Adds a region that is active for the whole battle.
+     * @param region A LogicMachine with the rules to run alongside this one.
+     * It must have been created with the same Director.
+     * @param sideEffectFree <code>true</code> if the region's LogicStates
+     * never change the Store, so its frames can be run in parallel with other
+     * side-effect-free regions.
+     * @throws IllegalArgumentException If the region is side-effect-free but
+     * has regions of its own that aren't, or if this LogicMachine is a
+     * side-effect-free region and the new region isn't.
+     * @see #addRegion(String, LogicMachine, boolean)
+     */
+    public void addRegion(LogicMachine<StoreStateType, StoreActionType, ?,
+            ConfigurationType> region, boolean sideEffectFree) {
+        addRegion(LogicStateIds.NO_STATE, region, sideEffectFree);
+    }
+    
+    /**
+     * <p>Adds a region: another LogicMachine that runs alongside this one.
+     * The region is given every InputEvent, frame and new Store State after
+     * this LogicMachine's current LogicState and its parents, but transitions
+     * between its own LogicStates independently.</p>
+     * 
+     * <p>Side-effect-free regions may only read the Store. Each frame, they
+     * are run in parallel on the region pool once this LogicMachine's other
+     * regions are done, and this method returns once all of them are. A
+     * side-effect-free region that tries to change the Store throws an
+     * IllegalStateException. Their LogicStates must not share mutable data
+     * with each other, and their own regions must be side-effect-free as
+     * well.</p>
+     * @param activeIn The name of the LogicState the region belongs to. The
+     * region is only active while that LogicState, or one of the LogicStates
+     * nested in it, is current.
+     * @param region A LogicMachine with the rules to run alongside this one.
+     * It must have been created with the same Director.
+     * @param sideEffectFree <code>true</code> if the region's LogicStates
+     * never change the Store, so its frames can be run in parallel with other
+     * side-effect-free regions.
+     * @throws IllegalArgumentException If the region is side-effect-free but
+     * has regions of its own that aren't, or if this LogicMachine is a
+     * side-effect-free region and the new region isn't.
+     */
+    public void addRegion(String activeIn, LogicMachine<StoreStateType,
+            StoreActionType, ?, ConfigurationType> region,
+            boolean sideEffectFree) {
+        addRegion(stateIds.getId(activeIn), region, sideEffectFree);
+    }
+    
+    /**
+     * Sets the pool that side-effect-free regions are run on.
+     * @param regionPool The pool to use. By default, the common pool is used.
+     */
+    public void setRegionPool(ForkJoinPool regionPool) {
+        if(regionPool == null) {
+            throw new IllegalArgumentException("The region pool cannot be "
+                    + "null.");
+        }
+        
+        this.regionPool = regionPool;
+    }
+    
+    /**
+     * Limits how many LogicStates added with a LogicStateFactory can be loaded
+     * at once. When there are more than that, the ones least recently entered
+     * are evicted. The current LogicState and its parents are never
+     * evicted.
+     * @param maxLoadedLazyStates The most lazily loaded LogicStates to keep
+     * loaded at once. There is no limit by default.
+     */
+    public void setMaxLoadedLazyStates(int maxLoadedLazyStates) {
+        if(maxLoadedLazyStates < 1) {
+            throw new IllegalArgumentException("At least one lazily loaded "
+                    + "LogicState must be allowed to be loaded.");
+        }
+        
+        this.maxLoadedLazyStates = maxLoadedLazyStates;
+    }
+    
+    /**
+     * Frees a LogicState that was added with a LogicStateFactory, for example
+     * once the battle can no longer go back to it. If the LogicMachine
+     * transitions into it again, the factory builds a new one.
+     * @param name The name the LogicState was added with.
+     * @return <code>true</code> if the LogicState was loaded and has been
+     * evicted.
+     * @throws IllegalArgumentException If the LogicState wasn't added with a
+     * LogicStateFactory, or if it is the current LogicState or one of its
+     * parents.
+     */
+    public boolean evictLogicState(String name) {
+        int id = stateIds.getId(name);
+        if(factoriesById.get(id) == null) {
+            throw new IllegalArgumentException("The LogicState \"" + name
+                    + "\" wasn't added with a LogicStateFactory, so it can't "
+                    + "be built again once evicted.");
+        }
+        if(isActive(id)) {
+            throw new IllegalArgumentException("The LogicState \"" + name
+                    + "\" is the current LogicState or one of its parents.");
         }
         
-        availableStates.put(name, logicState);
+        boolean evicted = evict(id);
+        if(handlingDepth == 0) {
+            disposeEvicted();
+        }
+        return evicted;
+    }
+    
+    /**
+     * @param name The name a LogicState was added with.
+     * @return <code>true</code> if the LogicState has been built and not
+     * evicted. Always <code>true</code> for LogicStates that weren't added
+     * with a LogicStateFactory.
+     */
+    public boolean isLogicStateLoaded(String name) {
+        return statesById.get(stateIds.getId(name)) != null;
     }
 
     /**
      * @return A list of the Strings that can be used to identify and transition
-     * between LogicStates in this particular instance of LogicMachine.
+     * between LogicStates in this particular instance of LogicMachine, in the
+     * order they were added.
      */
     public Iterable<String> getAvailableStateNames() {
-        return availableStates.keySet();
+        return stateIds.getNames();
+    }
+    
+    /**
+     * @return The names and IDs of the LogicStates in this LogicMachine.
+     */
+    public LogicStateIds getStateIds() {
+        return stateIds;
+    }
+    
+    /**
+     * <p>Gives the LogicMachine a TransitionTable to use for
+     * <code>transition()</code>. Call this once every LogicState has been
+     * added, before the battle starts.</p>
+     * 
+     * <p>The table is checked against the LogicStates right away, so a
+     * mistake in the state graph is reported when the battle is set up
+     * instead of when the bad transition is finally taken. It is then
+     * compiled so that each transition is an array lookup.</p>
+     * @param table The transitions between this LogicMachine's LogicStates.
+     * @throws MissingLogicStateException If the table names LogicStates that
+     * were never added.
+     * @throws IllegalStateException If the starting LogicState was never
+     * added, or if some LogicStates can't be reached from the starting
+     * LogicState or the table's entry states.
+     */
+    public void setTransitionTable(
+            TransitionTable<StoreStateType, TransitionActionType> table) {
+        if(currentStateId == LogicStateIds.NO_STATE) {
+            throw new IllegalStateException("The starting LogicState must be "
+                    + "added with addLogicState() before the TransitionTable "
+                    + "is set, so the table can be checked against it.");
+        }
+        
+        transitionTable = CompiledTransitionTable.compile(table, stateIds,
+                currentStateId, Arrays.copyOf(parentIds, stateIds.size()));
+    }
+    
+    /**
+     * @return The ID of the current LogicState, or
+     * <code>LogicStateIds.NO_STATE</code> if the LogicMachine's starting
+     * LogicState was never added to it.
+     */
+    public int getCurrentStateId() {
+        return currentStateId;
     }
     
     /**
-     * Gives the current LogicState a chance to respond whenever the
-     * Store's state changes.
+     * Gives the current LogicState, its parents and the active regions a
+     * chance to respond whenever the Store's state changes.
      * @param newState The new Store State.
      * @return <code>true</code> if you call <code>store.changeState()</code>
-     * before returning. <code>false</code> otherwise. <i>Returning the
-     * wrong value will lead to unpredictable bugs!</i>
+     * before returning. <code>false</code> otherwise.
      */
     @Override
     public boolean recieveNewState(StoreStateType newState) {
-        return currentState.recieveNewState(newState);
+        handlingDepth++;
+        try {
+            int stateId = currentStateId;
+            boolean changedState = currentState.recieveNewState(newState);
+            for(int id = parentOf(stateId); id != LogicStateIds.NO_STATE
+                    && currentStateId == stateId; id = parentIds[id]) {
+                changedState |= statesById.get(id).recieveNewState(newState);
+            }
+            
+            for(int i = 0; i < regions.size(); i++) {
+                Region region = regions.get(i);
+                if(region.isActive()) {
+                    changedState |= region.machine.recieveNewState(newState);
+                }
+            }
+            
+            return changedState;
+        } finally {
+            endHandling();
+        }
     }
     
     /**
-     * Forwards input events to the current MachineState.
+     * Forwards input events to the current MachineState, its parents and the
+     * active regions. The Director calls this on the thread running the
+     * battle, at the start of each frame, for every InputEvent submitted with
+     * <code>Director.submitInput()</code>.
      * @param inputEvent An object describing the user's input.
      */
     public void handleInput(InputEvent inputEvent) {
-        currentState.handleInput(inputEvent);
+        handlingDepth++;
+        try {
+            int stateId = currentStateId;
+            currentState.handleInput(inputEvent);
+            for(int id = parentOf(stateId); id != LogicStateIds.NO_STATE
+                    && currentStateId == stateId; id = parentIds[id]) {
+                statesById.get(id).handleInput(inputEvent);
+            }
+            
+            for(int i = 0; i < regions.size(); i++) {
+                Region region = regions.get(i);
+                if(region.isActive()) {
+                    region.machine.handleInput(inputEvent);
+                }
+            }
+        } finally {
+            endHandling();
+        }
     }
     
     /**
-     * Called once per frame, allowing the current MachineState to control the
-     * battle over time.
+     * Called once per frame, allowing the current MachineState, its parents
+     * and the active regions to control the battle over time. The callbacks
+     * that have come due in the LogicScheduler are run first.
+     * Side-effect-free regions are run last, in parallel.
      * @param deltaTime The amount of time, in seconds, that has passed since
      * the last time handleFrame() was called.
      */
     public void handleFrame(float deltaTime) {
-        currentState.handleFrame(deltaTime);
+        handlingDepth++;
+        try {
+            scheduler.advance(deltaTime);
+            
+            int stateId = currentStateId;
+            currentState.handleFrame(deltaTime);
+            for(int id = parentOf(stateId); id != LogicStateIds.NO_STATE
+                    && currentStateId == stateId; id = parentIds[id]) {
+                statesById.get(id).handleFrame(deltaTime);
+            }
+            
+            if(regions.isEmpty()) {
+                return;
+            }
+            
+            parallelRegions.clear();
+            for(int i = 0; i < regions.size(); i++) {
+                Region region = regions.get(i);
+                if(!region.isActive()) {
+                    continue;
+                }
+                
+                if(region.sideEffectFree) {
+                    parallelRegions.add(region);
+                } else {
+                    region.machine.handleFrame(deltaTime);
+                }
+            }
+            
+            handleParallelFrames(deltaTime);
+        } finally {
+            endHandling();
+        }
+    }
+    
+    /**
+     * @return The LogicScheduler that this LogicMachine advances every frame.
+     */
+    public LogicScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Schedules a callback for a LogicState. If the LogicState is the current
+     * one or one of its parents, the callback is skipped if the LogicState has
+     * been left by the time it comes due, even if it has been entered again
+     * since.
+     * @param logicState The LogicState scheduling the callback.
+     * @param delaySeconds How long from now, in seconds, to run the callback.
+     * @param callback The callback to run.
+     * @return The ScheduledEvent, which can be used to cancel the callback.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    ScheduledEvent schedule(LogicState<StoreStateType, StoreActionType,
+            TransitionActionType, ConfigurationType> logicState,
+            float delaySeconds, Runnable callback) {
+        int ownerId = LogicStateIds.NO_STATE;
+        for(int id = currentStateId; id != LogicStateIds.NO_STATE;
+                id = parentIds[id]) {
+            if(statesById.get(id) == logicState) {
+                ownerId = id;
+                break;
+            }
+        }
+        
+        if(ownerId == LogicStateIds.NO_STATE || callback == null) {
+            return scheduler.schedule(delaySeconds, callback);
+        }
+        return scheduler.schedule(delaySeconds,
+                new ScopedCallback(ownerId, callback));
+    }
+    
+    /**
+     * Schedules a transition for a LogicState, using the TransitionTable.
+     * Like any other callback scheduled by a LogicState, it is skipped if the
+     * LogicState has been left by the time it comes due.
+     * @param logicState The LogicState scheduling the transition.
+     * @param delaySeconds How long from now, in seconds, to transition.
+     * @param action A transition action that describes the reason why the
+     * State Machine is transitioning.
+     * @return The ScheduledEvent, which can be used to cancel the transition.
+     * @throws IllegalStateException If no TransitionTable was set.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    ScheduledEvent scheduleTransition(LogicState<StoreStateType,
+            StoreActionType, TransitionActionType, ConfigurationType>
+            logicState, float delaySeconds,
+            final TransitionActionType action) {
+        if(transitionTable == null) {
+            throw new IllegalStateException("This LogicMachine has no "
+                    + "TransitionTable. Set one with setTransitionTable().");
+        }
+        
+        return schedule(logicState, delaySeconds, new Runnable() {
+            @Override
+            public void run() {
+                transition(action);
+            }
+        });
     }
     
     /**
@@ -243,13 +718,18 @@ public class LogicMachine<StoreStateType extends State,
     void changeMachineState(
             LogicStateReducer<StoreStateType, TransitionActionType> reducer,
             TransitionActionType action) {
+        if(currentStateId == LogicStateIds.NO_STATE) {
+            throw new IllegalStateException("The current LogicState was never "
+                    + "added to the LogicMachine, so a LogicStateReducer "
+                    + "can't transition away from it. Add every LogicState, "
+                    + "including the starting one, with addLogicState().");
+        }
+        
         StoreStateType currentStoreState = director.getStoreState();
-        String currentStateString = getCurrentStateName();
-                
-        String newStateName = reducer.reduce(currentStateString,
-                currentStoreState, action, getAvailableStateNames());
+        int newStateId = reducer.reduceToId(currentStateId, currentStoreState,
+                action, stateIds);
         
-        changeMachineState(newStateName);
+        transitionTo(newStateId, reducer);
     }
     
     /**
@@ -278,13 +758,51 @@ public class LogicMachine<StoreStateType extends State,
     /* This method's visibility is deliberately set to package visibility,
      * which is why it isn't prefixed by a visibility modifier. */
     void changeMachineState(String newStateName) {
-        currentState = availableStates.get(newStateName);
+        transitionTo(stateIds.getId(newStateName), null);
+    }
+    
+    /**
+     * Changes MachineState to the MachineState with the given ID. This is the
+     * cheapest way to transition.
+     * @param newStateId The ID returned by <code>addLogicState()</code> for
+     * the MachineState you wish to transition to.
+     * @throws MissingLogicStateException If there is no MachineState with that
+     * ID.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    void changeMachineState(int newStateId) {
+        transitionTo(newStateId, null);
+    }
+    
+    /**
+     * Changes MachineState using the TransitionTable given to
+     * <code>setTransitionTable()</code>. The first row of the table for the
+     * current MachineState and the action's class whose guard allows it is
+     * taken.
+     * @param action A transition action that describes the reason why the
+     * State Machine is transitioning.
+     * @return <code>true</code> if a transition was taken.
+     * <code>false</code> if no row matched, in which case the MachineState
+     * doesn't change.
+     * @throws IllegalStateException If no TransitionTable was set.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    boolean transition(TransitionActionType action) {
+        if(transitionTable == null) {
+            throw new IllegalStateException("This LogicMachine has no "
+                    + "TransitionTable. Set one with setTransitionTable().");
+        }
         
-        if(currentState == null) {
-            throw new MissingLogicStateException(
-                    "There is no state associated with the string \""
-                            + newStateName + "\".");
+        int newStateId = transitionTable.resolve(currentStateId,
+                director.getStoreState(), action);
+        if(newStateId == LogicStateIds.NO_STATE) {
+            return false;
         }
+        
+        transitionTo(newStateId, null);
+        return true;
     }
     
     /**
@@ -306,21 +824,345 @@ public class LogicMachine<StoreStateType extends State,
     <SpecificActionType extends StoreActionType> StoreStateType changeStoreState(
             Reducer<StoreStateType, SpecificActionType> reducer,
             SpecificActionType action) {
+        checkSideEffectsAllowed();
         return director.changeStoreState(reducer, action);
     }
     
-    private String getCurrentStateName() {
-        for(Map.Entry<String, LogicState<StoreStateType, StoreActionType,
-                TransitionActionType, ConfigurationType>> namedMachineState
-                : availableStates.entrySet()) {
-            if(namedMachineState.getValue() == currentState) {
-                return namedMachineState.getKey();
+    /**
+     * Changes the State of the battle using the Reducer the Store has
+     * registered for the Action's class.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     * @return The next State that the battle enters.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    StoreStateType dispatch(StoreActionType action) {
+        checkSideEffectsAllowed();
+        return director.dispatch(action);
+    }
+    
+    /**
+     * Applies several Reducers, one after the other, as a single change to the
+     * State of the battle. Subscribers are alerted once, with the final State.
+     * @param changes The Reducers to run and the Actions to give them, in
+     * order.
+     * @return The State that the battle enters after every change has been
+     * applied.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    StoreStateType changeStoreStates(
+            List<? extends StoreChange<StoreStateType, ? extends StoreActionType>>
+                    changes) {
+        checkSideEffectsAllowed();
+        return director.changeStoreStates(changes);
+    }
+    
+    private void transitionTo(int newStateId,
+            LogicStateReducer<StoreStateType, TransitionActionType> reducer) {
+        LogicTransitionEvent event = new LogicTransitionEvent();
+        event.begin();
+        
+        if(newStateId < 0 || newStateId >= statesById.size()) {
+            throw new MissingLogicStateException("There is no state with the "
+                    + "ID " + newStateId + ".");
+        }
+        
+        int previousStateId = currentStateId;
+        currentState = load(newStateId);
+        currentStateId = newStateId;
+        loadParents(newStateId);
+        // A self-transition leaves and enters the state again, so its
+        // callbacks are dropped like any other entry's.
+        for(int id = newStateId; id != LogicStateIds.NO_STATE
+                && (id == previousStateId
+                        || !isInHierarchy(previousStateId, id));
+                id = parentIds[id]) {
+            entryCounts[id]++;
+        }
+        
+        // Once one of the previous LogicState's ancestors is still active,
+        // the rest of them are too.
+        for(int id = previousStateId; id != LogicStateIds.NO_STATE
+                && !isActive(id); id = parentIds[id]) {
+            LogicStateFactory<StoreStateType, StoreActionType,
+                    TransitionActionType, ConfigurationType> factory
+                    = factoriesById.get(id);
+            if(factory != null && factory.isEvictedOnExit()) {
+                evict(id);
+            }
+        }
+        if(loadedLazyStates.size() > maxLoadedLazyStates) {
+            evictLeastRecentlyEntered(maxLoadedLazyStates);
+        }
+        if(handlingDepth == 0) {
+            disposeEvicted();
+        }
+        
+        event.end();
+        if(event.shouldCommit()) {
+            event.from = previousStateId == LogicStateIds.NO_STATE
+                    ? null : stateIds.getName(previousStateId);
+            event.to = stateIds.getName(newStateId);
+            event.reducerClass = reducer == null ? null : reducer.getClass();
+            event.commit();
+        }
+    }
+    
+    private LogicState<StoreStateType, StoreActionType, TransitionActionType,
+            ConfigurationType> load(int stateId) {
+        LogicState<StoreStateType, StoreActionType, TransitionActionType,
+                ConfigurationType> logicState = statesById.get(stateId);
+        LogicStateFactory<StoreStateType, StoreActionType,
+                TransitionActionType, ConfigurationType> factory
+                = factoriesById.get(stateId);
+        if(factory == null) {
+            return logicState;
+        }
+        
+        // Move the state to the back of the least-recently-entered order.
+        loadedLazyStates.remove(stateId);
+        if(logicState == null) {
+            logicState = factory.create(this);
+            statesById.set(stateId, logicState);
+        }
+        loadedLazyStates.add(stateId);
+        
+        return logicState;
+    }
+    
+    private void evictLeastRecentlyEntered(int statesToKeep) {
+        Iterator<Integer> leastRecentlyEntered = loadedLazyStates.iterator();
+        int loaded = loadedLazyStates.size();
+        
+        while(loaded > statesToKeep && leastRecentlyEntered.hasNext()) {
+            int stateId = leastRecentlyEntered.next();
+            if(isActive(stateId)) {
+                continue;
             }
+            
+            leastRecentlyEntered.remove();
+            dispose(stateId);
+            loaded--;
+        }
+    }
+    
+    private boolean evict(int stateId) {
+        if(!loadedLazyStates.remove(stateId)) {
+            return false;
         }
         
-        throw new IllegalStateException("Could not find a String matching the "
-        + "current state in the availableStates map. Did you forcably switch "
-        + "to a MachineState not initially passed into StateMachine as an "
-        + "available state? If so, that is not allowed!");
+        dispose(stateId);
+        return true;
+    }
+    
+    private void dispose(int stateId) {
+        pendingDisposals.add(new PendingDisposal(factoriesById.get(stateId),
+                statesById.get(stateId)));
+        statesById.set(stateId, null);
+    }
+    
+    private void endHandling() {
+        handlingDepth--;
+        if(handlingDepth == 0) {
+            disposeEvicted();
+        }
+    }
+    
+    private void disposeEvicted() {
+        PendingDisposal disposal;
+        while((disposal = pendingDisposals.poll()) != null) {
+            disposal.factory.dispose(disposal.logicState);
+        }
+    }
+    
+    private void addStateSlot(int stateId) {
+        if(stateId == parentIds.length) {
+            int capacity = Math.max(8, parentIds.length * 2);
+            parentIds = Arrays.copyOf(parentIds, capacity);
+            entryCounts = Arrays.copyOf(entryCounts, capacity);
+        }
+        parentIds[stateId] = LogicStateIds.NO_STATE;
+    }
+    
+    private int parentOf(int stateId) {
+        return stateId == LogicStateIds.NO_STATE
+                ? LogicStateIds.NO_STATE : parentIds[stateId];
+    }
+    
+    private void loadParents(int stateId) {
+        for(int id = parentIds[stateId]; id != LogicStateIds.NO_STATE;
+                id = parentIds[id]) {
+            load(id);
+        }
+    }
+    
+    /* Whether the LogicState is the current one or one of its parents. */
+    private boolean isActive(int stateId) {
+        return isInHierarchy(currentStateId, stateId);
+    }
+    
+    private boolean isInHierarchy(int childId, int stateId) {
+        for(int id = childId; id != LogicStateIds.NO_STATE;
+                id = parentIds[id]) {
+            if(id == stateId) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private void addRegion(int activeInId, LogicMachine<StoreStateType,
+            StoreActionType, ?, ConfigurationType> region,
+            boolean sideEffectFree) {
+        if(region == null || region == this) {
+            throw new IllegalArgumentException("A LogicMachine can't be a "
+                    + "region of itself, and the region cannot be null.");
+        }
+        if(region.director != director) {
+            throw new IllegalArgumentException("A region must be created with "
+                    + "the same Director as the LogicMachine it is added to.");
+        }
+        for(int i = 0; i < regions.size(); i++) {
+            if(regions.get(i).machine == region) {
+                throw new IllegalArgumentException("That LogicMachine has "
+                        + "already been added as a region.");
+            }
+        }
+        
+        // A side-effect-free region's own regions run on the same pool
+        // thread, so they must be side-effect-free as well.
+        if(this.sideEffectFree && !sideEffectFree) {
+            throw new IllegalArgumentException("This LogicMachine is a "
+                    + "side-effect-free region, so its regions must be "
+                    + "side-effect-free as well.");
+        }
+        if(sideEffectFree) {
+            for(int i = 0; i < region.regions.size(); i++) {
+                if(!region.regions.get(i).sideEffectFree) {
+                    throw new IllegalArgumentException("A LogicMachine can "
+                            + "only be added as a side-effect-free region if "
+                            + "all of its own regions are side-effect-free.");
+                }
+            }
+        }
+        
+        region.sideEffectFree = sideEffectFree;
+        regions.add(new Region(region, activeInId, sideEffectFree));
+    }
+    
+    private void handleParallelFrames(float deltaTime) {
+        int count = parallelRegions.size();
+        if(count == 0) {
+            return;
+        }
+        
+        // The last region runs on this thread instead of waiting idle.
+        for(int i = 0; i < count - 1; i++) {
+            Region region = parallelRegions.get(i);
+            region.reinitialize();
+            region.deltaTime = deltaTime;
+            regionPool.execute(region);
+        }
+        
+        RuntimeException failure = null;
+        try {
+            parallelRegions.get(count - 1).machine.handleFrame(deltaTime);
+        } catch(RuntimeException e) {
+            failure = e;
+        }
+        
+        // Wait for every region, even after one fails, so that none of them
+        // are still running when the next frame starts.
+        for(int i = 0; i < count - 1; i++) {
+            try {
+                parallelRegions.get(i).join();
+            } catch(RuntimeException e) {
+                if(failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        
+        if(failure != null) {
+            throw failure;
+        }
+    }
+    
+    private void checkSideEffectsAllowed() {
+        if(sideEffectFree) {
+            throw new IllegalStateException("This LogicMachine was added as "
+                    + "a side-effect-free region, so it can't change the "
+                    + "Store.");
+        }
+    }
+    
+    /* A region, along with the task that runs its frame on the region pool
+    when it is side-effect-free. */
+    private final class Region extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final LogicMachine<StoreStateType, StoreActionType, ?,
+                ConfigurationType> machine;
+        private final int activeInId;
+        private final boolean sideEffectFree;
+        private float deltaTime;
+        
+        private Region(LogicMachine<StoreStateType, StoreActionType, ?,
+                ConfigurationType> machine, int activeInId,
+                boolean sideEffectFree) {
+            this.machine = machine;
+            this.activeInId = activeInId;
+            this.sideEffectFree = sideEffectFree;
+        }
+        
+        private boolean isActive() {
+            return activeInId == LogicStateIds.NO_STATE
+                    || LogicMachine.this.isActive(activeInId);
+        }
+        
+        @Override
+        protected void compute() {
+            machine.handleFrame(deltaTime);
+        }
+    }
+    
+    /* An evicted LogicState and the factory to hand it back to. */
+    private final class PendingDisposal {
+        private final LogicStateFactory<StoreStateType, StoreActionType,
+                TransitionActionType, ConfigurationType> factory;
+        private final LogicState<StoreStateType, StoreActionType,
+                TransitionActionType, ConfigurationType> logicState;
+        
+        private PendingDisposal(LogicStateFactory<StoreStateType,
+                StoreActionType, TransitionActionType, ConfigurationType>
+                factory, LogicState<StoreStateType, StoreActionType,
+                TransitionActionType, ConfigurationType> logicState) {
+            this.factory = factory;
+            this.logicState = logicState;
+        }
+    }
+    
+    /* Runs a LogicState's callback only if the LogicState hasn't been left
+    since the callback was scheduled. */
+    private final class ScopedCallback implements Runnable {
+        private final int ownerId;
+        private final int entryCount;
+        private final Runnable callback;
+        
+        private ScopedCallback(int ownerId, Runnable callback) {
+            this.ownerId = ownerId;
+            this.entryCount = entryCounts[ownerId];
+            this.callback = callback;
+        }
+        
+        @Override
+        public void run() {
+            if(isActive(ownerId) && entryCounts[ownerId] == entryCount) {
+                callback.run();
+            }
+        }
     }
 }
@@ -0,0 +1,261 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+/**
+ * <p>Runs callbacks at future logic times, so that LogicStates don't need to
+ * add up <code>deltaTime</code> in <code>handleFrame()</code> to wait for the
+ * end of a timing window, an animation or a delayed effect. Each LogicMachine
+ * has one, which LogicStates use through <code>schedule()</code> and
+ * <code>scheduleTransition()</code>.</p>
+ * 
+ * <p>Logic time only passes when the LogicMachine handles a frame, by that
+ * frame's <code>deltaTime</code>, and is counted in ticks of a fixed length.
+ * A callback is run at the start of the first frame that reaches its tick, so
+ * it is never run early, but can be run up to a frame late. Callbacks that
+ * come due in the same frame are run in the order of their ticks.</p>
+ * 
+ * <p>The callbacks are kept in a hierarchical timing wheel: 11 levels of 64
+ * slots, where each slot on level <i>n</i> covers 64<sup>n</sup> ticks.
+ * Scheduling and cancelling a callback take the same time no matter how many
+ * are waiting. As time passes, the callbacks in a slot are moved down to finer
+ * levels until they are due. Each level also keeps a bitmap of which of its
+ * slots are in use, so the wheel skips straight to the next slot with
+ * callbacks in it. A frame therefore costs time in proportion to the callbacks
+ * that come due or move down, not to how many are waiting or how many ticks
+ * the frame covers.</p>
+ * 
+ * <p>A LogicScheduler isn't thread-safe. Only use it from the thread running
+ * the battle.</p>
+ */
+public class LogicScheduler {
+    /**
+     * The default length of a tick, in nanoseconds: one millisecond.
+     */
+    public static final long DEFAULT_TICK_NANOS = 1000000L;
+    
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    /* Enough levels for any non-negative long tick. */
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    
+    private final long tickNanos;
+    private final ScheduledEvent[][] heads;
+    private final ScheduledEvent[][] tails;
+    private final long[] usedSlots;
+    
+    private long elapsedNanos;
+    private long currentTick;
+    private int pendingCount;
+
+    /**
+     * Creates a LogicScheduler with one-millisecond ticks.
+     */
+    public LogicScheduler() {
+        this(DEFAULT_TICK_NANOS);
+    }
+    
+    /**
+     * @param tickNanos The length of a tick, in nanoseconds. Callbacks are
+     * scheduled to the nearest tick after the time asked for.
+     */
+    public LogicScheduler(long tickNanos) {
+        if(tickNanos <= 0) {
+            throw new IllegalArgumentException("The length of a tick must be "
+                    + "positive.");
+        }
+        
+        this.tickNanos = tickNanos;
+        this.heads = new ScheduledEvent[LEVELS][SLOTS];
+        this.tails = new ScheduledEvent[LEVELS][SLOTS];
+        this.usedSlots = new long[LEVELS];
+    }
+    
+    /**
+     * Schedules a callback to be run after some amount of logic time.
+     * @param delaySeconds How long from now, in seconds, to run the callback.
+     * @param callback The callback to run.
+     * @return The ScheduledEvent, which can be used to cancel the callback.
+     */
+    public ScheduledEvent schedule(float delaySeconds, Runnable callback) {
+        if(!(delaySeconds >= 0)) {
+            throw new IllegalArgumentException("The delay must be zero or "
+                    + "more seconds.");
+        }
+        
+        return scheduleNanos((long) Math.ceil(
+                (double) delaySeconds * NANOS_PER_SECOND), callback);
+    }
+    
+    /**
+     * Schedules a callback to be run after some amount of logic time. A
+     * callback is always run in a later frame than the one it is scheduled
+     * in, even with no delay. When one callback schedules another, the delay
+     * counts from the end of the frame being run.
+     * @param delayNanos How long from now, in nanoseconds, to run the
+     * callback.
+     * @param callback The callback to run.
+     * @return The ScheduledEvent, which can be used to cancel the callback.
+     */
+    public ScheduledEvent scheduleNanos(long delayNanos, Runnable callback) {
+        if(delayNanos < 0) {
+            throw new IllegalArgumentException("The delay must be zero or "
+                    + "more nanoseconds.");
+        }
+        if(callback == null) {
+            throw new IllegalArgumentException("The callback cannot be null.");
+        }
+        
+        long dueNanos = delayNanos > Long.MAX_VALUE - elapsedNanos
+                ? Long.MAX_VALUE : elapsedNanos + delayNanos;
+        long deadlineTick = dueNanos / tickNanos
+                + (dueNanos % tickNanos == 0 ? 0 : 1);
+        
+        // While callbacks are being run, currentTick is still behind the end
+        // of the frame, so count from the frame's last tick instead.
+        ScheduledEvent event = new ScheduledEvent(this, callback,
+                Math.max(deadlineTick, elapsedNanos / tickNanos + 1));
+        place(event);
+        pendingCount++;
+        return event;
+    }
+    
+    /**
+     * Moves logic time forward and runs the callbacks that come due, in order.
+     * The LogicMachine calls this at the start of each frame.
+     * @param deltaTime The amount of time, in seconds, that has passed since
+     * the last frame.
+     */
+    public void advance(float deltaTime) {
+        advanceNanos(Math.round((double) deltaTime * NANOS_PER_SECOND));
+    }
+    
+    /**
+     * Moves logic time forward and runs the callbacks that come due, in order.
+     * @param deltaNanos The amount of time, in nanoseconds, that has passed
+     * since the last frame.
+     */
+    public void advanceNanos(long deltaNanos) {
+        if(deltaNanos < 0) {
+            throw new IllegalArgumentException("Logic time can't go "
+                    + "backwards.");
+        }
+        
+        elapsedNanos += deltaNanos;
+        long targetTick = elapsedNanos / tickNanos;
+        
+        while(pendingCount > 0) {
+            // The lowest level in use always holds the next slot to reach,
+            // and no finer level has anything left in it once it's reached.
+            int level = 0;
+            while(usedSlots[level] == 0) {
+                level++;
+            }
+            int slot = Long.numberOfTrailingZeros(usedSlots[level]);
+            long slotTick = windowStart(currentTick, level)
+                    | ((long) slot << (SLOT_BITS * level));
+            if(slotTick > targetTick) {
+                break;
+            }
+            
+            currentTick = slotTick;
+            ScheduledEvent event;
+            while((event = heads[level][slot]) != null) {
+                unlink(event);
+                if(event.deadlineTick <= currentTick) {
+                    event.pending = false;
+                    pendingCount--;
+                    event.callback.run();
+                } else {
+                    place(event);
+                }
+            }
+        }
+        
+        currentTick = targetTick;
+    }
+    
+    /**
+     * @return The logic time that has passed, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * @return The length of a tick, in nanoseconds.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+    
+    /**
+     * @return How many callbacks are waiting to be run.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    boolean cancel(ScheduledEvent event) {
+        if(!event.pending) {
+            return false;
+        }
+        
+        unlink(event);
+        event.pending = false;
+        pendingCount--;
+        return true;
+    }
+    
+    /* Puts the event on the level of the highest digit where its tick differs
+    from the current tick, so that it is moved down a level each time the
+    current tick reaches its slot. The current tick's own slot on each level is
+    never used. */
+    private void place(ScheduledEvent event) {
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(
+                event.deadlineTick ^ currentTick)) / SLOT_BITS;
+        int slot = (int) (event.deadlineTick >>> (SLOT_BITS * level))
+                & (SLOTS - 1);
+        
+        event.level = level;
+        event.slot = slot;
+        event.next = null;
+        event.previous = tails[level][slot];
+        if(event.previous == null) {
+            heads[level][slot] = event;
+            usedSlots[level] |= 1L << slot;
+        } else {
+            event.previous.next = event;
+        }
+        tails[level][slot] = event;
+    }
+    
+    private void unlink(ScheduledEvent event) {
+        int level = event.level;
+        int slot = event.slot;
+        
+        if(event.previous == null) {
+            heads[level][slot] = event.next;
+        } else {
+            event.previous.next = event.next;
+        }
+        if(event.next == null) {
+            tails[level][slot] = event.previous;
+        } else {
+            event.next.previous = event.previous;
+        }
+        if(heads[level][slot] == null) {
+            usedSlots[level] &= ~(1L << slot);
+        }
+        
+        event.previous = null;
+        event.next = null;
+    }
+    
+    /* The first tick covered by the same slot one level up as the tick. */
+    private static long windowStart(long tick, int level) {
+        int shift = SLOT_BITS * (level + 1);
+        return shift >= Long.SIZE ? 0 : tick & -(1L << shift);
+    }
+}
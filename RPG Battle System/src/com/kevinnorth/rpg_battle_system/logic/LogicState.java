@@ -5,6 +5,8 @@ import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
 import com.kevinnorth.rpg_battle_system.store.Action;
 import com.kevinnorth.rpg_battle_system.store.Reducer;
 import com.kevinnorth.rpg_battle_system.store.State;
+import com.kevinnorth.rpg_battle_system.store.StoreChange;
+import java.util.List;
 
 /**
  * <p>A state in the StateMachine finite state machine used to control a
@@ -84,6 +86,15 @@ public abstract class LogicState<StoreStateType extends State,
         return stateMachine.getAvailableStateNames();
     }
     
+    /**
+     * @return The names and IDs of the MachineStates in this StateMachine.
+     * Look up the IDs you transition to often once, and pass them to
+     * <code>changeMachineState(int)</code>.
+     */
+    public final LogicStateIds getStateIds() {
+        return stateMachine.getStateIds();
+    }
+    
     /**
      * <p>Changes the current MachineState. This function uses an approach
      * similar to the one used by the Store State: It takes a reducer function
@@ -144,6 +155,65 @@ public abstract class LogicState<StoreStateType extends State,
         stateMachine.changeMachineState(newStateName);
     }
     
+    /**
+     * Changes MachineState to the MachineState with the given ID, as found
+     * with <code>getStateIds()</code>. This is the cheapest way to transition,
+     * and costs the same no matter how many MachineStates the StateMachine
+     * has.
+     * @param newStateId The ID of the MachineState you wish to transition to.
+     * @throws MissingLogicStateException If there is no MachineState with
+     * that ID.
+     */
+    protected final void changeMachineState(int newStateId) {
+        stateMachine.changeMachineState(newStateId);
+    }
+    
+    /**
+     * Changes MachineState using the StateMachine's TransitionTable.
+     * @param action A transition action that describes the reason why the
+     * State Machine is transitioning.
+     * @return <code>true</code> if a transition was taken, or
+     * <code>false</code> if the table has no matching row for this
+     * MachineState and action.
+     * @throws IllegalStateException If the StateMachine has no
+     * TransitionTable.
+     * @see LogicMachine#setTransitionTable(TransitionTable)
+     */
+    protected final boolean transition(TransitionActionType action) {
+        return stateMachine.transition(action);
+    }
+    
+    /**
+     * Runs a callback after some amount of logic time, instead of adding up
+     * <code>deltaTime</code> in <code>handleFrame()</code>. The callback is
+     * run at the start of a frame, on the thread running the battle. If this
+     * MachineState is left before then, the callback is skipped.
+     * @param delaySeconds How long from now, in seconds, to run the callback.
+     * @param callback The callback to run.
+     * @return The ScheduledEvent, which can be used to cancel the callback.
+     * @see LogicScheduler
+     */
+    protected final ScheduledEvent schedule(float delaySeconds,
+            Runnable callback) {
+        return stateMachine.schedule(this, delaySeconds, callback);
+    }
+    
+    /**
+     * Changes MachineState using the StateMachine's TransitionTable after some
+     * amount of logic time, for example to end a timing window. If this
+     * MachineState is left before then, the transition is skipped.
+     * @param delaySeconds How long from now, in seconds, to transition.
+     * @param action A transition action that describes the reason why the
+     * State Machine is transitioning.
+     * @return The ScheduledEvent, which can be used to cancel the transition.
+     * @throws IllegalStateException If the StateMachine has no
+     * TransitionTable.
+     */
+    protected final ScheduledEvent scheduleTransition(float delaySeconds,
+            TransitionActionType action) {
+        return stateMachine.scheduleTransition(this, delaySeconds, action);
+    }
+    
     /**
      * Use a Reducer to change the State of the battle. In addition, all objects
      * that are subscribed to the Store will be alerted and have a chance to
@@ -166,24 +236,56 @@ public abstract class LogicState<StoreStateType extends State,
         return stateMachine.changeStoreState(reducer, action);
     }
     
+    /**
+     * Changes the State of the battle using the Reducer the Store has
+     * registered for the Action's class, so you don't need to look up or pass
+     * a Reducer yourself. In addition, all objects that are subscribed to the
+     * Store will be alerted and have a chance to respond to the new State.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     * @return The next State that the battle enters.
+     */
+    protected final StoreStateType dispatch(StoreActionType action) {
+        return stateMachine.dispatch(action);
+    }
+    
+    /**
+     * Applies several Reducers, one after the other, as a single change to the
+     * State of the battle. Only the final State is added to the Store's
+     * history, and subscribers are alerted once, with the final State, instead
+     * of once per Reducer.
+     * @param changes The Reducers to run and the Actions to give them, in
+     * order.
+     * @return The State that the battle enters after every change has been
+     * applied.
+     */
+    protected final StoreStateType changeStoreStates(
+            List<? extends StoreChange<StoreStateType, ? extends StoreActionType>>
+                    changes) {
+        return stateMachine.changeStoreStates(changes);
+    }
+    
     /**
      * Gives the MachineState a chance to respond whenever the Store's state
      * changes.
      * @param newState The new Store State.
      * @return <code>true</code> if you call <code>store.changeState()</code>
-     * before returning. <code>false</code> otherwise. <i>Returning the
-     * wrong value will lead to unpredictable bugs!</i>
+     * before returning. <code>false</code> otherwise.
      */
     public abstract boolean recieveNewState(StoreStateType newState);
     
     /**
-     * Gives the MachineState a change to respond to user input.
+     * Gives the MachineState a change to respond to user input. Use a
+     * TimingJudge with the InputEvent's timestamp to time button presses more
+     * precisely than a frame.
      * @param inputEvent An object describing the user's input.
+     * @see TimingJudge
      */
     public abstract void handleInput(InputEvent inputEvent);
 
     /**
-     * Called once per frame.
+     * Called once per frame. To wait for some amount of time, use
+     * <code>schedule()</code> instead of adding up <code>deltaTime</code>.
      * @param deltaTime The amount of time, in seconds, that has passed since
      * the last time handleFrame() was called.
      */
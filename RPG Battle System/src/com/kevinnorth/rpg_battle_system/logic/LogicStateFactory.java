@@ -0,0 +1,61 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.configuration.Configuration;
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.State;
+
+/**
+ * <p>Builds a LogicState the first time a LogicMachine transitions into it,
+ * instead of when the battle is set up. Register one with
+ * <code>LogicMachine.addLogicState(String, LogicStateFactory)</code> for
+ * special LogicStates that are large and might never be needed, like a card
+ * minigame or a cutscene that is sometimes skipped.</p>
+ * 
+ * <p>Once built, the LogicState stays loaded until it is evicted. The
+ * LogicMachine evicts it when it is left if <code>isEvictedOnExit()</code>
+ * returns <code>true</code>, when too many lazily loaded LogicStates are
+ * loaded at once, or when <code>LogicMachine.evictLogicState()</code> is
+ * called. If the LogicMachine transitions into it again afterwards, the
+ * factory builds a new one.</p>
+ * @param <StoreStateType> The class that the Store uses to keep track of state.
+ * @param <StoreActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer.
+ * @param <TransitionActionType> The class that the StateMachine uses to
+ * describe actions when changing the MachineState using a reducer.
+ * @param <ConfigurationType> The class used to describe an in-battle Actor.
+ */
+public abstract class LogicStateFactory<StoreStateType extends State,
+        StoreActionType extends Action,
+        TransitionActionType extends LogicMachineTransitionAction,
+        ConfigurationType extends Configuration> {
+    /**
+     * Builds the LogicState.
+     * @param stateMachine The LogicMachine the LogicState belongs to.
+     * @return A new LogicState.
+     */
+    public abstract LogicState<StoreStateType, StoreActionType,
+            TransitionActionType, ConfigurationType> create(
+                    LogicMachine<StoreStateType, StoreActionType,
+                            TransitionActionType, ConfigurationType>
+                            stateMachine);
+    
+    /**
+     * Called when a LogicState this factory built is evicted, to release
+     * anything it holds on to, like textures or sounds. If it is evicted while
+     * the LogicMachine is handling input, a frame or a new Store State, this
+     * is called once the LogicMachine is done, so the LogicState is never
+     * disposed while it is still running. Does nothing by default.
+     * @param logicState The evicted LogicState.
+     */
+    public void dispose(LogicState<StoreStateType, StoreActionType,
+            TransitionActionType, ConfigurationType> logicState) { }
+    
+    /**
+     * @return <code>true</code> if the LogicState should be evicted as soon as
+     * the LogicMachine leaves it, because it is never entered twice, like a
+     * one-time cutscene. <code>false</code> by default.
+     */
+    public boolean isEvictedOnExit() {
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The names and integer IDs of the LogicStates in a LogicMachine. Each
+ * LogicState is given the next ID, counting up from 0, when it is added to the
+ * LogicMachine, so the IDs can be used as array indexes.</p>
+ * 
+ * <p>Looking a name up costs a hash lookup, so LogicStates and
+ * LogicStateReducers that transition often should look up the IDs they need
+ * once, for example in their constructors, and transition by ID from then
+ * on.</p>
+ */
+public final class LogicStateIds {
+    /**
+     * The ID used when there is no LogicState, such as when a LogicMachine's
+     * starting LogicState hasn't been added to it yet.
+     */
+    public static final int NO_STATE = -1;
+    
+    private final List<String> names;
+    private final List<String> readOnlyNames;
+    private final Map<String, Integer> ids;
+
+    /* This constructor's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    LogicStateIds() {
+        this.names = new ArrayList<>();
+        this.readOnlyNames = Collections.unmodifiableList(names);
+        this.ids = new HashMap<>();
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    int add(String name) {
+        if(ids.containsKey(name)) {
+            throw new IllegalStateException("The name \"" + name + "\" is "
+                    + "already being used for a LogicState in this "
+                    + "LogicMachine. Using the same name twice would lose "
+                    + "the previous LogicState.");
+        }
+        
+        int id = names.size();
+        names.add(name);
+        ids.put(name, id);
+        return id;
+    }
+    
+    /**
+     * @param name The name a LogicState was added with.
+     * @return The LogicState's ID.
+     * @throws MissingLogicStateException If no LogicState has that name.
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        if(id == null) {
+            throw new MissingLogicStateException("There is no state "
+                    + "associated with the string \"" + name + "\".");
+        }
+        
+        return id;
+    }
+    
+    /**
+     * @param name A name.
+     * @return <code>true</code> if a LogicState was added with that name.
+     */
+    public boolean contains(String name) {
+        return ids.containsKey(name);
+    }
+    
+    /**
+     * @param id A LogicState's ID.
+     * @return The name the LogicState was added with.
+     * @throws MissingLogicStateException If no LogicState has that ID.
+     */
+    public String getName(int id) {
+        if(id < 0 || id >= names.size()) {
+            throw new MissingLogicStateException("There is no state with the "
+                    + "ID " + id + ".");
+        }
+        
+        return names.get(id);
+    }
+    
+    /**
+     * @return The number of LogicStates. Every ID is between 0 and one less
+     * than this.
+     */
+    public int size() {
+        return names.size();
+    }
+    
+    /**
+     * @return An immutable List of every LogicState's name, where each name's
+     * position is its ID.
+     */
+    public List<String> getNames() {
+        return readOnlyNames;
+    }
+}
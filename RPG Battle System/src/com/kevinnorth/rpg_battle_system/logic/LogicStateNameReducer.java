@@ -0,0 +1,51 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.store.State;
+
+/**
+ * A LogicStateReducer that decides which MachineState to transition to by
+ * name. Each transition translates the IDs to and from names, which costs a
+ * hash lookup, so extend LogicStateReducer directly for transitions that
+ * happen often.
+ * @param <StoreStateType> The class that the Store uses to keep track of state.
+ * @param <TransitionActionType> The class that the StateMachine uses to
+ * describe actions when changing the MachineState using a reducer.
+ */
+public abstract class LogicStateNameReducer<StoreStateType extends State,
+        TransitionActionType extends LogicMachineTransitionAction>
+        extends LogicStateReducer<StoreStateType, TransitionActionType> {
+    /**
+     * Translates the IDs to and from names and calls <code>reduce()</code>.
+     * @throws MissingLogicStateException If <code>reduce()</code> returns a
+     * String that isn't the name of a MachineState.
+     */
+    @Override
+    public final int reduceToId(int oldMachineStateId,
+            StoreStateType currentStoreState, TransitionActionType action,
+            LogicStateIds stateIds) {
+        return super.reduceToId(oldMachineStateId, currentStoreState, action,
+                stateIds);
+    }
+    
+    /**
+     * Determines which MachineState to transition to next.
+     * @param oldMachineState The MachineState that the StateMachine is
+     * transitioning from.
+     * @param currentStoreState The current state in the Store.
+     * @param action An object containing information about why the transition
+     * is occurring and how the transition should happen.
+     * @param availableMachineStates A collection of Strings that name each
+     * MachineState that can be transitioned to. This function must return one
+     * of the Strings in this collection.
+     * @return The String corresponding to the MachineState you wish to
+     * transition to. This must be one of the Strings in
+     * <code>availableMachineStates</code>.
+     */
+    // Only deprecated on LogicStateReducer, where it is a bridge for
+    // subclasses written before reduceToId() existed.
+    @Override
+    @SuppressWarnings("deprecation")
+    public abstract String reduce(String oldMachineState, 
+            StoreStateType currentStoreState, TransitionActionType action,
+            Iterable<String> availableMachineStates);
+}
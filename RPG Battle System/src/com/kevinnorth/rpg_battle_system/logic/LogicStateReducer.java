@@ -23,20 +23,57 @@ import com.kevinnorth.rpg_battle_system.store.State;
 public abstract class LogicStateReducer<StoreStateType extends State,
         TransitionActionType extends LogicMachineTransitionAction> {
     /**
-     * Determines which MachineState to transition to next.
+     * <p>Determines which MachineState to transition to next, by ID. This is
+     * what the LogicMachine calls.</p>
+     * 
+     * <p>Look up the IDs you need once, for example the first time this is
+     * called, rather than on every transition. Extend
+     * <code>LogicStateNameReducer</code> instead to decide by name.</p>
+     * @param oldMachineStateId The ID of the MachineState that the
+     * StateMachine is transitioning from.
+     * @param currentStoreState The current state in the Store.
+     * @param action An object containing information about why the transition
+     * is occurring and how the transition should happen.
+     * @param stateIds The names and IDs of every MachineState that can be
+     * transitioned to.
+     * @return The ID of the MachineState you wish to transition to.
+     * @throws MissingLogicStateException If the deprecated
+     * <code>reduce()</code> returns a String that isn't the name of a
+     * MachineState.
+     * @throws UnsupportedOperationException If a subclass overrides neither
+     * this method nor <code>reduce()</code>.
+     */
+    public int reduceToId(int oldMachineStateId,
+            StoreStateType currentStoreState, TransitionActionType action,
+            LogicStateIds stateIds) {
+        // Until reduce() is removed, subclasses written before reduceToId()
+        // existed keep working by having their names translated here.
+        String newMachineState = reduce(stateIds.getName(oldMachineStateId),
+                currentStoreState, action, stateIds.getNames());
+        return stateIds.getId(newMachineState);
+    }
+    
+    /**
+     * Determines which MachineState to transition to next, by name. Only
+     * called by the default <code>reduceToId()</code>.
      * @param oldMachineState The MachineState that the StateMachine is
      * transitioning from.
      * @param currentStoreState The current state in the Store.
      * @param action An object containing information about why the transition
      * is occurring and how the transition should happen.
      * @param availableMachineStates A collection of Strings that name each
-     * MachineState that can be transitioned to. This function must return one
-     * of the Strings in this collection.
+     * MachineState that can be transitioned to.
      * @return The String corresponding to the MachineState you wish to
-     * transition to. This must be one of the Strings in
-     * <code>availableMachineStates</code>.
+     * transition to.
+     * @deprecated Override <code>reduceToId()</code> instead, or extend
+     * <code>LogicStateNameReducer</code> to keep deciding by name. This
+     * method will be removed in the next release.
      */
-    public abstract String reduce(String oldMachineState, 
+    @Deprecated
+    public String reduce(String oldMachineState,
             StoreStateType currentStoreState, TransitionActionType action,
-            Iterable<String> availableMachineStates);
+            Iterable<String> availableMachineStates) {
+        throw new UnsupportedOperationException(getClass().getName()
+                + " must override reduceToId().");
+    }
 }
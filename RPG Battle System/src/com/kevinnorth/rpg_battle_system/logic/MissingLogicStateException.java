@@ -11,5 +11,6 @@ package com.kevinnorth.rpg_battle_system.logic;
  */
 public class MissingLogicStateException extends RuntimeException {
     public MissingLogicStateException(String string) {
+        super(string);
     }
 }
@@ -0,0 +1,46 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+/**
+ * A callback waiting in a LogicScheduler. Keep it to cancel the callback
+ * before it is run.
+ */
+public final class ScheduledEvent {
+    private final LogicScheduler scheduler;
+    final Runnable callback;
+    final long deadlineTick;
+    
+    /* Where the event is in the scheduler's timing wheel. */
+    int level;
+    int slot;
+    ScheduledEvent previous;
+    ScheduledEvent next;
+    boolean pending;
+
+    /* This constructor's visibility is deliberately set to package visibility,
+     * which is why it isn't prefixed by a visibility modifier. */
+    ScheduledEvent(LogicScheduler scheduler, Runnable callback,
+            long deadlineTick) {
+        this.scheduler = scheduler;
+        this.callback = callback;
+        this.deadlineTick = deadlineTick;
+        this.pending = true;
+    }
+    
+    /**
+     * Stops the callback from being run. This takes the same time no matter
+     * how many callbacks are scheduled.
+     * @return <code>true</code> if the callback was cancelled, or
+     * <code>false</code> if it had already been run or cancelled.
+     */
+    public boolean cancel() {
+        return scheduler.cancel(this);
+    }
+    
+    /**
+     * @return <code>true</code> if the callback hasn't been run or cancelled
+     * yet.
+     */
+    public boolean isPending() {
+        return pending;
+    }
+}
@@ -0,0 +1,161 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
+
+/**
+ * <p>Judges timed button presses, like the action commands in Paper Mario or
+ * Mario &amp; Luigi, for a LogicState.</p>
+ * 
+ * <p>A LogicState only finds out about time through the
+ * <code>deltaTime</code> of each frame, so on its own it can only tell which
+ * frame a button was pressed in. A TimingJudge instead compares the
+ * nanosecond timestamp of each InputEvent with a target time, so the result is
+ * exactly as accurate at 20 frames per second as it is at 144.</p>
+ * 
+ * <p>Set the target with <code>setTarget()</code> when the cue is shown, then
+ * pass the button press to <code>judge()</code> from
+ * <code>handleInput()</code>. In case the player doesn't press anything,
+ * check <code>isWindowClosed()</code> from <code>handleFrame()</code>, and once
+ * it returns <code>true</code>, use <code>judgeMissed()</code>.</p>
+ * 
+ * <p>There is always some delay between a cue being decided on and the player
+ * seeing or hearing it, and between the player pressing a button and the
+ * InputEvent being timestamped. The TimingJudge subtracts a latency
+ * compensation from every timestamp to correct for this. It can be set
+ * directly or measured with <code>calibrate()</code>, which averages how late
+ * the player presses for cues they are asked to press exactly on.</p>
+ */
+public class TimingJudge {
+    private static final long NANOS_PER_MICRO = 1000L;
+    
+    private final long earlyWindowNanos;
+    private final long lateWindowNanos;
+    
+    private long targetNanos;
+    private long latencyCompensationNanos;
+    private long calibrationTotalNanos;
+    private int calibrationCount;
+
+    /**
+     * @param earlyWindowMicros How early, in microseconds, a press can be and
+     * still count as a hit.
+     * @param lateWindowMicros How late, in microseconds, a press can be and
+     * still count as a hit.
+     */
+    public TimingJudge(long earlyWindowMicros, long lateWindowMicros) {
+        if(earlyWindowMicros < 0 || lateWindowMicros < 0) {
+            throw new IllegalArgumentException("The timing window cannot be "
+                    + "negative.");
+        }
+        
+        this.earlyWindowNanos = earlyWindowMicros * NANOS_PER_MICRO;
+        this.lateWindowNanos = lateWindowMicros * NANOS_PER_MICRO;
+    }
+    
+    /**
+     * @param targetNanos The moment the button should be pressed, as a
+     * <code>System.nanoTime()</code> value.
+     */
+    public void setTarget(long targetNanos) {
+        this.targetNanos = targetNanos;
+    }
+    
+    /**
+     * Sets the target to a moment relative to now.
+     * @param secondsFromNow How long from now, in seconds, the button should
+     * be pressed.
+     */
+    public void setTargetFromNow(float secondsFromNow) {
+        this.targetNanos = System.nanoTime()
+                + (long) (secondsFromNow * 1000000000.0);
+    }
+    
+    /**
+     * @return The moment the button should be pressed, as a
+     * <code>System.nanoTime()</code> value.
+     */
+    public long getTarget() {
+        return targetNanos;
+    }
+    
+    /**
+     * @param inputEvent The button press to judge.
+     * @return How well-timed the press was.
+     */
+    public TimingResult judge(InputEvent inputEvent) {
+        return judge(inputEvent.getTimestampNanos());
+    }
+    
+    /**
+     * @param timestampNanos When the button was pressed, as a
+     * <code>System.nanoTime()</code> value.
+     * @return How well-timed the press was.
+     */
+    public TimingResult judge(long timestampNanos) {
+        long offsetNanos = timestampNanos - latencyCompensationNanos
+                - targetNanos;
+        boolean hit = offsetNanos >= -earlyWindowNanos
+                && offsetNanos <= lateWindowNanos;
+        
+        return TimingResult.pressed(hit, offsetNanos);
+    }
+    
+    /**
+     * @return The result to use when the timing window closes without the
+     * button being pressed.
+     */
+    public TimingResult judgeMissed() {
+        return TimingResult.missed();
+    }
+    
+    /**
+     * @param nowNanos The current time, as a <code>System.nanoTime()</code>
+     * value.
+     * @return <code>true</code> if a press at <code>nowNanos</code> would
+     * already be too late to hit.
+     */
+    public boolean isWindowClosed(long nowNanos) {
+        return nowNanos - latencyCompensationNanos - targetNanos
+                > lateWindowNanos;
+    }
+    
+    /**
+     * @return The amount of time, in nanoseconds, subtracted from every
+     * timestamp before it is judged.
+     */
+    public long getLatencyCompensationNanos() {
+        return latencyCompensationNanos;
+    }
+    
+    /**
+     * Sets the latency compensation directly, for example from a value saved
+     * in the player's settings. This discards any calibration presses.
+     * @param latencyCompensationNanos The amount of time, in nanoseconds, to
+     * subtract from every timestamp before it is judged.
+     */
+    public void setLatencyCompensationNanos(long latencyCompensationNanos) {
+        this.latencyCompensationNanos = latencyCompensationNanos;
+        this.calibrationTotalNanos = 0;
+        this.calibrationCount = 0;
+    }
+    
+    /**
+     * Measures latency from a calibration press: a press the player made
+     * trying to hit the current target exactly. The latency compensation
+     * becomes the average of how late every calibration press so far was.
+     * @param inputEvent The calibration press.
+     */
+    public void calibrate(InputEvent inputEvent) {
+        calibrationTotalNanos += inputEvent.getTimestampNanos() - targetNanos;
+        calibrationCount++;
+        latencyCompensationNanos = calibrationTotalNanos / calibrationCount;
+    }
+    
+    /**
+     * @return The number of calibration presses the latency compensation is
+     * based on.
+     */
+    public int getCalibrationCount() {
+        return calibrationCount;
+    }
+}
@@ -0,0 +1,93 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+/**
+ * How well-timed a button press was, as decided by a TimingJudge.
+ */
+public final class TimingResult {
+    private static final TimingResult MISSED = new TimingResult(false, 0, true);
+    
+    private final boolean hit;
+    private final long offsetNanos;
+    private final boolean missed;
+
+    private TimingResult(boolean hit, long offsetNanos, boolean missed) {
+        this.hit = hit;
+        this.offsetNanos = offsetNanos;
+        this.missed = missed;
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    static TimingResult pressed(boolean hit, long offsetNanos) {
+        return new TimingResult(hit, offsetNanos, false);
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    static TimingResult missed() {
+        return MISSED;
+    }
+
+    /**
+     * @return <code>true</code> if the button was pressed inside the timing
+     * window.
+     */
+    public boolean isHit() {
+        return hit;
+    }
+
+    /**
+     * @return How far from the target time the button was pressed, in
+     * microseconds, rounded towards zero. Negative values are early and
+     * positive values are late. Always 0 if the button wasn't pressed at all.
+     * A press less than a microsecond off can be 0 here and still be early
+     * or late, so use <code>isEarly()</code> and <code>isLate()</code> rather
+     * than the sign of this value.
+     */
+    public long getOffsetMicros() {
+        return offsetNanos / 1000L;
+    }
+    
+    /**
+     * @return How far from the target time the button was pressed, in
+     * nanoseconds. Negative values are early and positive values are late.
+     * Always 0 if the button wasn't pressed at all.
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+    
+    /**
+     * @return <code>true</code> if the button was pressed before the timing
+     * window opened.
+     */
+    public boolean isEarly() {
+        return !hit && !missed && offsetNanos < 0;
+    }
+    
+    /**
+     * @return <code>true</code> if the button was pressed after the timing
+     * window closed.
+     */
+    public boolean isLate() {
+        return !hit && !missed && offsetNanos > 0;
+    }
+
+    /**
+     * @return <code>true</code> if the timing window closed without the button
+     * being pressed.
+     */
+    public boolean isMissed() {
+        return missed;
+    }
+
+    @Override
+    public String toString() {
+        if(missed) {
+            return "TimingResult[missed]";
+        }
+        
+        return "TimingResult[" + (hit ? "hit" : "miss") + ", "
+                + offsetNanos + "ns]";
+    }
+}
@@ -0,0 +1,21 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.store.State;
+
+/**
+ * A condition on a row of a TransitionTable. The row is only taken if its
+ * guard allows it.
+ * @param <StoreStateType> The class that the Store uses to keep track of state.
+ * @param <TransitionActionType> The class that the StateMachine uses to
+ * describe actions when changing the MachineState.
+ */
+public interface TransitionGuard<StoreStateType extends State,
+        TransitionActionType extends LogicMachineTransitionAction> {
+    /**
+     * @param currentStoreState The current state in the Store.
+     * @param action The action causing the transition.
+     * @return <code>true</code> if the transition should be taken.
+     */
+    public abstract boolean allows(StoreStateType currentStoreState,
+            TransitionActionType action);
+}
@@ -0,0 +1,120 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.store.State;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>A declarative description of a LogicMachine's transitions, as an
+ * alternative to LogicStateReducers. Each row says that when the LogicMachine
+ * is in one LogicState and a transition action of a given class arrives, it
+ * goes to another LogicState, optionally only if a TransitionGuard allows
+ * it. When several rows match, the first one added wins.</p>
+ * 
+ * <p>Because the whole graph is known ahead of time, the LogicMachine checks
+ * it when it is given the table with <code>setTransitionTable()</code>. Rows
+ * naming LogicStates that were never added, and LogicStates that can never be
+ * reached, are reported right away instead of showing up as a
+ * MissingLogicStateException in the middle of a battle. The table is then
+ * compiled so each transition is an array lookup.</p>
+ * 
+ * <p>LogicStates entered some other way, such as by name with
+ * <code>changeMachineState(String)</code>, should be declared with
+ * <code>addEntryState()</code> so they aren't reported as unreachable.</p>
+ * @param <StoreStateType> The class that the Store uses to keep track of state.
+ * @param <TransitionActionType> The class that the StateMachine uses to
+ * describe actions when changing the MachineState.
+ */
+public class TransitionTable<StoreStateType extends State,
+        TransitionActionType extends LogicMachineTransitionAction> {
+    private final List<Row<StoreStateType, TransitionActionType>> rows;
+    private final Set<String> entryStates;
+
+    public TransitionTable() {
+        this.rows = new ArrayList<>();
+        this.entryStates = new LinkedHashSet<>();
+    }
+    
+    /**
+     * Adds a transition that is always taken.
+     * @param from The name of the LogicState the transition leaves.
+     * @param actionClass The class of transition action that causes the
+     * transition. Subclasses cause it too.
+     * @param to The name of the LogicState the transition goes to.
+     * @return This table, so that calls can be chained.
+     */
+    public TransitionTable<StoreStateType, TransitionActionType> add(
+            String from, Class<? extends TransitionActionType> actionClass,
+            String to) {
+        return add(from, actionClass, null, to);
+    }
+    
+    /**
+     * Adds a transition that is only taken if <code>guard</code> allows it.
+     * @param from The name of the LogicState the transition leaves.
+     * @param actionClass The class of transition action that causes the
+     * transition. Subclasses cause it too.
+     * @param guard Decides whether to take the transition, or
+     * <code>null</code> to always take it.
+     * @param to The name of the LogicState the transition goes to.
+     * @return This table, so that calls can be chained.
+     */
+    public TransitionTable<StoreStateType, TransitionActionType> add(
+            String from, Class<? extends TransitionActionType> actionClass,
+            TransitionGuard<StoreStateType, TransitionActionType> guard,
+            String to) {
+        if(from == null || actionClass == null || to == null) {
+            throw new IllegalArgumentException("Only the guard of a transition "
+                    + "can be null.");
+        }
+        
+        rows.add(new Row<>(from, actionClass, guard, to));
+        return this;
+    }
+    
+    /**
+     * Declares a LogicState that is entered without this table, so it isn't
+     * reported as unreachable. LogicStates reachable from it through the table
+     * aren't reported either.
+     * @param name The name of the LogicState.
+     * @return This table, so that calls can be chained.
+     */
+    public TransitionTable<StoreStateType, TransitionActionType> addEntryState(
+            String name) {
+        entryStates.add(name);
+        return this;
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    List<Row<StoreStateType, TransitionActionType>> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+    
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    Set<String> getEntryStates() {
+        return Collections.unmodifiableSet(entryStates);
+    }
+    
+    /* One transition, exactly as it was added. */
+    static final class Row<StoreStateType extends State,
+            TransitionActionType extends LogicMachineTransitionAction> {
+        final String from;
+        final Class<?> actionClass;
+        final TransitionGuard<StoreStateType, TransitionActionType> guard;
+        final String to;
+
+        Row(String from, Class<?> actionClass,
+                TransitionGuard<StoreStateType, TransitionActionType> guard,
+                String to) {
+            this.from = from;
+            this.actionClass = actionClass;
+            this.guard = guard;
+            this.to = to;
+        }
+    }
+}
@@ -1,5 +1,45 @@
 package com.kevinnorth.rpg_battle_system.reciever;
 
+/**
+ * <p>Something the player did, like pressing a button, delivered to the
+ * current LogicState through <code>LogicState.handleInput()</code>. Subclass
+ * this to describe the input your game uses.</p>
+ * 
+ * <p>Input usually arrives on a different thread than the one running the
+ * battle, so it is handed to the battle with
+ * <code>Director.submitInput()</code>, which is safe to call from any thread.
+ * The Director delivers every submitted InputEvent at the start of the next
+ * frame, in the order they were submitted.</p>
+ * 
+ * <p>Every InputEvent records when it happened, as a
+ * <code>System.nanoTime()</code> value, so the logic can tell exactly when
+ * within a frame the input arrived.</p>
+ */
 public class InputEvent {
-    
-}
\ No newline at end of file
+    private final long timestampNanos;
+
+    /**
+     * Creates an InputEvent that happened just now.
+     */
+    public InputEvent() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * @param timestampNanos When the input happened, as a
+     * <code>System.nanoTime()</code> value. Pass the time the input was
+     * received from the OS, if you know it, rather than the time this object
+     * was created.
+     */
+    public InputEvent(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    /**
+     * @return When the input happened, as a <code>System.nanoTime()</code>
+     * value.
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,137 @@
+package com.kevinnorth.rpg_battle_system.reciever;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>A bounded, lock-free queue of InputEvents that any number of input
+ * threads can add to and the thread running the battle drains once per
+ * frame.</p>
+ * 
+ * <p>The queue is a ring buffer with a sequence number per slot. An input
+ * thread claims a slot with a single compare-and-swap, writes its event, and
+ * then publishes it by advancing the slot's sequence number. The battle thread
+ * takes events in the order their slots were claimed. Nothing is allocated
+ * once the queue is built, and neither side ever waits on a lock.</p>
+ * 
+ * <p>Because the queue is bounded, <code>offer()</code> fails instead of
+ * growing the queue if the battle thread falls far behind.</p>
+ */
+public final class InputQueue {
+    private final InputEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail;
+    /* Only touched by the consumer thread. */
+    private long head;
+
+    /**
+     * @param capacity The most InputEvents the queue can hold at once. This is
+     * rounded up to a power of two.
+     */
+    public InputQueue(int capacity) {
+        if(capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("The capacity must be between "
+                    + "1 and 2^30.");
+        }
+        
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity) {
+            size <<= 1;
+        }
+        
+        this.events = new InputEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong(0);
+        this.head = 0;
+    }
+    
+    /**
+     * Adds an InputEvent to the back of the queue. Safe to call from any
+     * thread.
+     * @param event The InputEvent to add. Must not be <code>null</code>.
+     * @return <code>true</code> if the event was added, or <code>false</code>
+     * if the queue was full.
+     */
+    public boolean offer(InputEvent event) {
+        if(event == null) {
+            throw new NullPointerException("InputQueue cannot hold null "
+                    + "events.");
+        }
+        
+        long position = tail.get();
+        int index;
+        while(true) {
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if(difference < 0) {
+                // The consumer hasn't freed this slot from the previous lap.
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        
+        events[index] = event;
+        // The ordered write publishes the event to the consumer.
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+    
+    /**
+     * Takes the InputEvent at the front of the queue. Must only be called by
+     * the consumer thread.
+     * @return The InputEvent at the front of the queue, or <code>null</code>
+     * if there isn't one. An event whose <code>offer()</code> call is still in
+     * progress may not be visible yet.
+     */
+    public InputEvent poll() {
+        int index = (int) head & mask;
+        if(sequences.get(index) != head + 1) {
+            return null;
+        }
+        
+        InputEvent event = events[index];
+        events[index] = null;
+        sequences.lazySet(index, head + events.length);
+        head++;
+        return event;
+    }
+    
+    /**
+     * Hands every InputEvent currently in the queue to <code>handler</code>,
+     * in order. To keep a frame from being held up by input threads that keep
+     * adding events, at most one queue's worth of events is drained per call.
+     * Must only be called by the consumer thread.
+     * @param handler Receives each InputEvent.
+     * @return The number of InputEvents drained.
+     */
+    public int drain(Consumer<? super InputEvent> handler) {
+        int drained = 0;
+        InputEvent event;
+        while(drained < events.length && (event = poll()) != null) {
+            handler.accept(event);
+            drained++;
+        }
+        
+        return drained;
+    }
+    
+    /**
+     * @return The most InputEvents the queue can hold at once.
+     */
+    public int getCapacity() {
+        return events.length;
+    }
+}
@@ -0,0 +1,16 @@
+package com.kevinnorth.rpg_battle_system.renderer;
+
+/**
+ * A Renderer that draws nothing, for running battles headless, such as in
+ * tests or when resolving a battle on a server. A Director given a
+ * <code>null</code> Renderer uses one of these.
+ * @param <StoreStateType> The State type used by the Store.
+ */
+public class NullRenderer<StoreStateType> implements Renderer<StoreStateType> {
+    @Override
+    public void render(StoreStateType currentState, float deltaTime) { }
+
+    @Override
+    public void render(StoreStateType currentState, float deltaTime,
+            float alpha) { }
+}
@@ -0,0 +1,101 @@
+package com.kevinnorth.rpg_battle_system.renderer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>A Renderer that draws nothing but remembers the States it was asked to
+ * draw, for checking what a headless battle would have shown on screen.</p>
+ * 
+ * <p>Only the most recent States are kept, up to a capacity, so a long
+ * headless battle can't fill up the heap. Once the capacity is reached, each
+ * new frame pushes the oldest State out.</p>
+ * @param <StoreStateType> The State type used by the Store.
+ */
+public class RecordingRenderer<StoreStateType>
+        implements Renderer<StoreStateType> {
+    /**
+     * The number of States kept by a RecordingRenderer created without a
+     * capacity.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+    
+    private final ArrayDeque<StoreStateType> renderedStates;
+    private final int capacity;
+    private long frameCount;
+    private double renderedTime;
+
+    public RecordingRenderer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of most recent States to keep.
+     */
+    public RecordingRenderer(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("A RecordingRenderer must be "
+                    + "able to keep at least one State, but its capacity was "
+                    + capacity + ".");
+        }
+        
+        this.renderedStates = new ArrayDeque<>();
+        this.capacity = capacity;
+        this.frameCount = 0;
+        this.renderedTime = 0d;
+    }
+    
+    @Override
+    public void render(StoreStateType currentState, float deltaTime) {
+        if(renderedStates.size() == capacity) {
+            renderedStates.removeFirst();
+        }
+        renderedStates.addLast(currentState);
+        frameCount++;
+        renderedTime += deltaTime;
+    }
+    
+    /**
+     * @return An immutable List of the most recent States this Renderer was
+     * asked to draw, in order, one per frame. It holds at most
+     * <code>getCapacity()</code> States and doesn't change when more frames
+     * are drawn.
+     */
+    public List<StoreStateType> getRenderedStates() {
+        return Collections.unmodifiableList(new ArrayList<>(renderedStates));
+    }
+    
+    /**
+     * @return The most States this Renderer keeps.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return The number of frames this Renderer was asked to draw, including
+     * those whose States have been pushed out.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * @return The sum of the <code>deltaTime</code>s of every frame this
+     * Renderer was asked to draw, in seconds.
+     */
+    public double getRenderedTime() {
+        return renderedTime;
+    }
+    
+    /**
+     * Forgets every State recorded so far.
+     */
+    public void clear() {
+        renderedStates.clear();
+        frameCount = 0;
+        renderedTime = 0d;
+    }
+}
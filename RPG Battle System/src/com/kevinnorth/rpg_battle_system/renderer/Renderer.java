@@ -15,4 +15,24 @@ public interface Renderer<StoreStateType> {
      * the previous frame.
      */
     public abstract void render(StoreStateType currentState, float deltaTime);
+    
+    /**
+     * Called once per rendered frame when the game logic runs at a fixed rate,
+     * such as under a <code>FrameScheduler</code>. The State only changes once
+     * per logic step, so a Renderer that draws faster than the logic runs can
+     * use <code>alpha</code> to interpolate movement between the previous
+     * State and this one. By default, this ignores <code>alpha</code> and calls
+     * <code>render(currentState, deltaTime)</code>.
+     * @param currentState The State in the Store as of when this function is
+     * called.
+     * @param deltaTime The amount of time, in seconds, that has passed since
+     * the previous rendered frame.
+     * @param alpha How far real time has moved past the most recent logic step
+     * toward the next one, from 0 (exactly at the step) to 1 (about to take
+     * the next step).
+     */
+    public default void render(StoreStateType currentState, float deltaTime,
+            float alpha) {
+        render(currentState, deltaTime);
+    }
 }
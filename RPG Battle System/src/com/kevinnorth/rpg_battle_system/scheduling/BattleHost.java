@@ -0,0 +1,338 @@
+package com.kevinnorth.rpg_battle_system.scheduling;
+
+import com.kevinnorth.rpg_battle_system.Director;
+import com.kevinnorth.rpg_battle_system.instrumentation.LatencyHistogram;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Runs many independent battles at once, such as on a server, by
+ * scheduling each Director's frames on a shared work-stealing thread pool
+ * instead of giving each battle a thread and a game loop of its own.</p>
+ * 
+ * <p>A single ticker thread wakes up at the host's tick rate and hands a
+ * frame for every battle to the pool. The pool has one worker per core by
+ * default, and idle workers steal frames queued for busy ones, so the load
+ * stays balanced across cores and independent battles scale with the number
+ * of cores.</p>
+ * 
+ * <p>A battle is never run by two threads at once. If a battle's previous
+ * frame is still running when its next tick comes around, that tick is
+ * skipped and counted, and the next frame's <code>deltaTime</code> covers the
+ * time that passed. Each frame claims the battle's Store for the worker
+ * running it and locks it again when it finishes, so for as long as the
+ * battle is part of the host, changes from any other thread, even between
+ * frames, must go through <code>Director.submitStoreChange()</code>. Removing
+ * the battle releases its Store.</p>
+ * 
+ * <p>If a frame throws, the battle is removed from the host and what it threw
+ * is kept in its HostedBattle, and every other battle keeps running. Errors
+ * are rethrown after the battle is removed.</p>
+ */
+public class BattleHost implements FramePacing.StoppableLoop {
+    private final long tickNanos;
+    private final ForkJoinPool pool;
+    private final List<HostedBattle> battles;
+    private final Thread ticker;
+    
+    private volatile boolean running;
+
+    /**
+     * Creates a BattleHost with one worker thread per available core.
+     * @param ticksPerSecond How many frames to run for each battle each
+     * second.
+     */
+    public BattleHost(int ticksPerSecond) {
+        this(ticksPerSecond, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param ticksPerSecond How many frames to run for each battle each
+     * second.
+     * @param parallelism The number of worker threads to run battles on.
+     */
+    public BattleHost(int ticksPerSecond, int parallelism) {
+        if(ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("The tick rate must be "
+                    + "positive.");
+        }
+        
+        this.tickNanos = FramePacing.NANOS_PER_SECOND / ticksPerSecond;
+        // Async mode runs queued frames in FIFO order, which suits tasks that
+        // are never joined.
+        this.pool = new ForkJoinPool(parallelism,
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.battles = new CopyOnWriteArrayList<>();
+        this.ticker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tickLoop();
+            }
+        }, "Battle host ticker");
+        this.ticker.setDaemon(true);
+    }
+    
+    /**
+     * Starts running frames for every battle added to the host.
+     * @throws IllegalStateException If the host has already been started.
+     */
+    public void start() {
+        if(ticker.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("The battle host has already been "
+                    + "started.");
+        }
+        
+        running = true;
+        ticker.start();
+    }
+    
+    /**
+     * Stops scheduling frames and waits for the frames already running to
+     * finish. The host cannot be restarted afterwards.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(ticker);
+        
+        try {
+            ticker.join();
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Adds a battle to the host. Its first frame runs on the next tick. From
+     * now until the battle is removed, its Store can only be changed directly
+     * by the battle's frames.
+     * @param director The Director of the battle. It must not be run by
+     * anything else while it is part of the host.
+     * @return The handle for the battle, for removing it and reading its
+     * timings.
+     */
+    public HostedBattle addBattle(Director<?, ?, ?> director) {
+        HostedBattle battle = new HostedBattle(this, director);
+        director.lockStoreOwnership();
+        battles.add(battle);
+        return battle;
+    }
+    
+    /**
+     * Removes a battle from the host and releases its Store. A frame that is
+     * already running for the battle still finishes, and the Store is released
+     * once it does.
+     * @param battle The battle to remove.
+     * @return <code>true</code> if the battle was part of the host.
+     */
+    public boolean removeBattle(HostedBattle battle) {
+        if(!battles.remove(battle)) {
+            return false;
+        }
+        
+        battle.unhost();
+        return true;
+    }
+    
+    /**
+     * @return The number of battles currently part of the host.
+     */
+    public int getBattleCount() {
+        return battles.size();
+    }
+    
+    private void tickLoop() {
+        long nextTickTime = System.nanoTime();
+        
+        while(running) {
+            long tickTime = System.nanoTime();
+            for(HostedBattle battle : battles) {
+                battle.schedule(pool, tickTime);
+            }
+            
+            nextTickTime += tickNanos;
+            long now = System.nanoTime();
+            if(nextTickTime < now) {
+                nextTickTime = now;
+            }
+            FramePacing.waitUntil(nextTickTime, this);
+        }
+    }
+    
+    /**
+     * A battle run by a BattleHost, along with the timings of its frames.
+     */
+    public static final class HostedBattle {
+        private final BattleHost host;
+        private final Director<?, ?, ?> director;
+        private final AtomicBoolean frameRunning;
+        private final Runnable frameTask;
+        private final LatencyHistogram frameLatency;
+        private final LatencyHistogram startDelay;
+        
+        /* Only touched while frameRunning is set, so each frame sees the
+        previous frame's writes. */
+        private long scheduledTime;
+        private long previousFrameTime;
+        private boolean firstFrame;
+        
+        private volatile boolean hosted;
+        private volatile long frameCount;
+        private volatile long skippedTickCount;
+        private volatile Throwable failure;
+
+        private HostedBattle(BattleHost host, Director<?, ?, ?> director) {
+            this.host = host;
+            this.director = director;
+            this.frameRunning = new AtomicBoolean(false);
+            this.frameTask = new Runnable() {
+                @Override
+                public void run() {
+                    runFrame();
+                }
+            };
+            this.frameLatency = new LatencyHistogram();
+            this.startDelay = new LatencyHistogram();
+            this.firstFrame = true;
+            this.hosted = true;
+        }
+        
+        /**
+         * @return The Director of the battle.
+         */
+        public Director<?, ?, ?> getDirector() {
+            return director;
+        }
+        
+        /**
+         * @return A copy of the histogram of how long each of the battle's
+         * frames took to run.
+         */
+        public LatencyHistogram getFrameLatency() {
+            LatencyHistogram copy = new LatencyHistogram();
+            synchronized(frameLatency) {
+                copy.add(frameLatency);
+            }
+            return copy;
+        }
+        
+        /**
+         * @return A copy of the histogram of how long each of the battle's
+         * frames waited in the pool between its tick and starting to run. If
+         * this grows, the host has more battles than its cores can keep up
+         * with.
+         */
+        public LatencyHistogram getStartDelay() {
+            LatencyHistogram copy = new LatencyHistogram();
+            synchronized(frameLatency) {
+                copy.add(startDelay);
+            }
+            return copy;
+        }
+        
+        /**
+         * @return The number of frames that have finished running.
+         */
+        public long getFrameCount() {
+            return frameCount;
+        }
+        
+        /**
+         * @return The number of ticks skipped because the battle's previous
+         * frame was still running.
+         */
+        public long getSkippedTickCount() {
+            return skippedTickCount;
+        }
+        
+        /**
+         * @return The exception or Error that made the host remove the battle,
+         * or <code>null</code> if no frame has thrown.
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+        
+        private void unhost() {
+            hosted = false;
+            releaseIfIdle();
+        }
+        
+        private void releaseIfIdle() {
+            // If a frame is running, it calls this again when it finishes.
+            if(frameRunning.compareAndSet(false, true)) {
+                director.releaseStoreOwnership();
+                frameRunning.set(false);
+            }
+        }
+        
+        private void schedule(ForkJoinPool pool, long tickTime) {
+            if(!hosted) {
+                return;
+            }
+            if(!frameRunning.compareAndSet(false, true)) {
+                skippedTickCount++;
+                return;
+            }
+            
+            scheduledTime = tickTime;
+            pool.execute(frameTask);
+        }
+        
+        private void runFrame() {
+            long startTime = System.nanoTime();
+            // System.nanoTime() can be any value, including 0, so the first
+            // frame is tracked with a flag rather than a sentinel time.
+            float deltaTime = firstFrame
+                    ? (float) host.tickNanos / FramePacing.NANOS_PER_SECOND
+                    : (float) (startTime - previousFrameTime)
+                            / FramePacing.NANOS_PER_SECOND;
+            previousFrameTime = startTime;
+            firstFrame = false;
+            
+            try {
+                // Claiming fails if another thread took the Store over, which
+                // fails the battle like any other error in the frame.
+                director.claimStoreOwnership();
+                try {
+                    director.onFrame(deltaTime);
+                } finally {
+                    director.lockStoreOwnership();
+                }
+            } catch(RuntimeException e) {
+                fail(e);
+            } catch(Error e) {
+                fail(e);
+                throw e;
+            } finally {
+                long endTime = System.nanoTime();
+                synchronized(frameLatency) {
+                    frameLatency.record(endTime - startTime);
+                    startDelay.record(startTime - scheduledTime);
+                }
+                frameCount++;
+                frameRunning.set(false);
+                
+                if(!hosted) {
+                    // The battle was removed while this frame was running.
+                    releaseIfIdle();
+                }
+            }
+        }
+        
+        private void fail(Throwable cause) {
+            failure = cause;
+            host.removeBattle(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.kevinnorth.rpg_battle_system.scheduling;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for the start of the next frame without burning CPU.
+ */
+final class FramePacing {
+    static final long NANOS_PER_SECOND = 1000000000L;
+    
+    /* Parking is only accurate to within a scheduler quantum or so, so the
+    last stretch before a frame is spent yielding instead. */
+    private static final long YIELD_THRESHOLD_NANOS = 200000L;
+    
+    private FramePacing() { }
+    
+    /**
+     * Parks the calling thread until shortly before <code>deadline</code>, then
+     * yields until it arrives. Returns early if the thread is unparked and the
+     * caller has been asked to stop.
+     * @param deadline A <code>System.nanoTime()</code> value.
+     * @param blocker The object the thread is parked on, for debuggers and
+     * thread dumps.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    static void waitUntil(long deadline, StoppableLoop blocker) {
+        long remaining = deadline - System.nanoTime();
+        while(remaining > YIELD_THRESHOLD_NANOS && blocker.isRunning()) {
+            LockSupport.parkNanos(blocker, remaining - YIELD_THRESHOLD_NANOS);
+            remaining = deadline - System.nanoTime();
+        }
+        while(remaining > 0 && blocker.isRunning()) {
+            Thread.yield();
+            remaining = deadline - System.nanoTime();
+        }
+    }
+    
+    /**
+     * A loop that <code>waitUntil()</code> should stop waiting for once it
+     * has been asked to stop.
+     */
+    interface StoppableLoop {
+        boolean isRunning();
+    }
+}
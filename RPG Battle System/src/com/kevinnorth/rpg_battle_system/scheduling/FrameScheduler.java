@@ -0,0 +1,202 @@
+package com.kevinnorth.rpg_battle_system.scheduling;
+
+import com.kevinnorth.rpg_battle_system.Director;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Runs a Director's game loop on the calling thread. The game logic runs in
+ * fixed-size steps at a configurable tick rate, while frames are rendered at
+ * their own rate.</p>
+ * 
+ * <p>Time is measured with <code>System.nanoTime()</code>. Real time that
+ * has passed is added to an accumulator, and one logic step is taken for each
+ * whole tick in the accumulator. If the game falls far behind, for example
+ * after a long garbage collection pause or while the process was suspended, at
+ * most <code>maxCatchUpSteps</code> steps are taken in one frame and the rest
+ * of the backlog is dropped rather than letting the game spiral further
+ * behind. What is left over in the accumulator is passed to the Renderer as
+ * the interpolation factor <code>alpha</code>.</p>
+ * 
+ * <p>Between frames, the thread parks until shortly before the next frame is
+ * due and then yields for the last moment, so an idle game uses almost no CPU
+ * but frames still start on time.</p>
+ * 
+ * <p>While the game loop runs, its thread owns the Director's Store, so any
+ * other thread that tries to change the State directly instead of with
+ * <code>submitStoreChange()</code> gets an exception.</p>
+ */
+public class FrameScheduler implements FramePacing.StoppableLoop {
+    /**
+     * The default number of logic steps that can be taken in a single frame.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+    
+    private static final long NANOS_PER_SECOND = FramePacing.NANOS_PER_SECOND;
+    
+    private final Director<?, ?, ?> director;
+    private final long tickNanos;
+    private final float tickSeconds;
+    private final long frameNanos;
+    private final int maxCatchUpSteps;
+    
+    private final AtomicBoolean looping;
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile long tickCount;
+    private volatile long frameCount;
+    private volatile long droppedTickCount;
+
+    /**
+     * Creates a FrameScheduler that renders one frame per logic step.
+     * @param director The Director whose game loop to run.
+     * @param ticksPerSecond How many logic steps to take each second.
+     */
+    public FrameScheduler(Director<?, ?, ?> director, int ticksPerSecond) {
+        this(director, ticksPerSecond, ticksPerSecond,
+                DEFAULT_MAX_CATCH_UP_STEPS);
+    }
+
+    /**
+     * @param director The Director whose game loop to run.
+     * @param ticksPerSecond How many logic steps to take each second.
+     * @param framesPerSecond How many frames to render each second.
+     * @param maxCatchUpSteps The most logic steps to take in a single frame
+     * when the game has fallen behind.
+     */
+    public FrameScheduler(Director<?, ?, ?> director, int ticksPerSecond,
+            int framesPerSecond, int maxCatchUpSteps) {
+        if(ticksPerSecond <= 0 || framesPerSecond <= 0) {
+            throw new IllegalArgumentException("The tick rate and frame rate "
+                    + "must be positive.");
+        }
+        if(maxCatchUpSteps <= 0) {
+            throw new IllegalArgumentException("At least one logic step must "
+                    + "be allowed per frame.");
+        }
+        
+        this.director = director;
+        this.tickNanos = NANOS_PER_SECOND / ticksPerSecond;
+        this.tickSeconds = (float) tickNanos / NANOS_PER_SECOND;
+        this.frameNanos = NANOS_PER_SECOND / framesPerSecond;
+        this.maxCatchUpSteps = maxCatchUpSteps;
+        this.looping = new AtomicBoolean();
+    }
+    
+    /**
+     * Runs the game loop on the calling thread until <code>stop()</code> is
+     * called.
+     * @throws IllegalStateException If the game loop is already running, or
+     * has been stopped but hasn't finished its last frame yet.
+     */
+    public void run() {
+        // Only one thread can win this, even if several call run() at once.
+        if(!looping.compareAndSet(false, true)) {
+            throw new IllegalStateException("The game loop is already "
+                    + "running.");
+        }
+        try {
+            running = true;
+            thread = Thread.currentThread();
+            director.claimStoreOwnership();
+            try {
+                loop();
+            } finally {
+                director.releaseStoreOwnership();
+            }
+        } finally {
+            running = false;
+            thread = null;
+            looping.set(false);
+        }
+    }
+    
+    private void loop() {
+        long previousTime = System.nanoTime();
+        long nextFrameTime = previousTime;
+        long accumulator = 0;
+        
+        while(running) {
+            long currentTime = System.nanoTime();
+            long elapsed = currentTime - previousTime;
+            previousTime = currentTime;
+            accumulator += elapsed;
+            
+            int steps = 0;
+            while(accumulator >= tickNanos && steps < maxCatchUpSteps) {
+                director.onLogicStep(tickSeconds);
+                accumulator -= tickNanos;
+                steps++;
+            }
+            tickCount += steps;
+            
+            if(accumulator >= tickNanos) {
+                droppedTickCount += accumulator / tickNanos;
+                accumulator %= tickNanos;
+            }
+            
+            director.onRenderFrame((float) elapsed / NANOS_PER_SECOND,
+                    (float) accumulator / tickNanos);
+            frameCount++;
+            
+            nextFrameTime += frameNanos;
+            long now = System.nanoTime();
+            if(nextFrameTime < now) {
+                // Don't try to render the frames we missed all at once.
+                nextFrameTime = now;
+            }
+            FramePacing.waitUntil(nextFrameTime, this);
+        }
+    }
+    
+    /**
+     * Makes <code>run()</code> return after the frame it is currently on. This
+     * can be called from any thread, including from inside the game loop.
+     */
+    public void stop() {
+        running = false;
+        
+        Thread loopThread = thread;
+        if(loopThread != null) {
+            LockSupport.unpark(loopThread);
+        }
+    }
+    
+    /**
+     * @return <code>true</code> if <code>run()</code> is running the game
+     * loop.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * @return The number of logic steps taken so far.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    /**
+     * @return The number of frames rendered so far.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * @return The number of logic steps that were skipped because the game
+     * fell more than <code>maxCatchUpSteps</code> steps behind.
+     */
+    public long getDroppedTickCount() {
+        return droppedTickCount;
+    }
+    
+    /**
+     * @return The amount of time, in seconds, that each logic step covers.
+     */
+    public float getTickSeconds() {
+        return tickSeconds;
+    }
+}
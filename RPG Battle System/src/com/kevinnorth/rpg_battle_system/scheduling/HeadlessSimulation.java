@@ -0,0 +1,142 @@
+package com.kevinnorth.rpg_battle_system.scheduling;
+
+import com.kevinnorth.rpg_battle_system.Director;
+import com.kevinnorth.rpg_battle_system.store.State;
+import java.util.function.Predicate;
+
+/**
+ * <p>Runs a battle as fast as the CPU allows instead of in real time, for
+ * tests and for resolving battles on a server, such as AI-versus-AI fights.
+ * Each frame advances the battle by a fixed, synthetic amount of time, and no
+ * time is spent waiting between frames.</p>
+ * 
+ * <p>The Director should be built with a <code>null</code> Renderer, a
+ * <code>NullRenderer</code>, or a <code>RecordingRenderer</code>. Anything the
+ * game logic does that depends on real time, rather than on the
+ * <code>deltaTime</code> it is given, won't be sped up.</p>
+ * @param <StoreStateType> The class that the Store uses to keep track of state.
+ */
+public class HeadlessSimulation<StoreStateType extends State> {
+    private final Director<StoreStateType, ?, ?> director;
+    private final float stepSeconds;
+
+    /**
+     * @param director The Director of the battle to simulate.
+     * @param stepSeconds The amount of simulated time, in seconds, each frame
+     * covers.
+     */
+    public HeadlessSimulation(Director<StoreStateType, ?, ?> director,
+            float stepSeconds) {
+        if(!(stepSeconds > 0f)) {
+            throw new IllegalArgumentException("The step must be a positive "
+                    + "amount of time.");
+        }
+        
+        this.director = director;
+        this.stepSeconds = stepSeconds;
+    }
+    
+    /**
+     * Runs frames back-to-back on the calling thread until the battle ends or
+     * <code>maxFrames</code> frames have been simulated.
+     * @param endOfBattle Decides, from the Store's State after each frame,
+     * whether the battle is over. It is also checked once before the first
+     * frame.
+     * @param maxFrames The most frames to simulate, to guard against battles
+     * that never end.
+     * @return How the simulation went.
+     */
+    public SimulationResult run(Predicate<? super StoreStateType> endOfBattle,
+            long maxFrames) {
+        long startTime = System.nanoTime();
+        long frames = 0;
+        boolean ended = endOfBattle.test(director.getStoreState());
+        
+        director.claimStoreOwnership();
+        try {
+            while(!ended && frames < maxFrames) {
+                director.onFrame(stepSeconds);
+                frames++;
+                ended = endOfBattle.test(director.getStoreState());
+            }
+        } finally {
+            director.releaseStoreOwnership();
+        }
+        
+        // Multiply in double precision. A float has 24 bits of precision, so
+        // it can't even hold the frame count exactly past 2^24 frames.
+        return new SimulationResult(frames, frames * (double) stepSeconds,
+                System.nanoTime() - startTime, ended);
+    }
+    
+    /**
+     * The outcome of a <code>HeadlessSimulation</code> run.
+     */
+    public static final class SimulationResult {
+        private final long frameCount;
+        private final double simulatedSeconds;
+        private final long elapsedNanos;
+        private final boolean battleEnded;
+
+        private SimulationResult(long frameCount, double simulatedSeconds,
+                long elapsedNanos, boolean battleEnded) {
+            this.frameCount = frameCount;
+            this.simulatedSeconds = simulatedSeconds;
+            this.elapsedNanos = elapsedNanos;
+            this.battleEnded = battleEnded;
+        }
+
+        /**
+         * @return The number of frames simulated.
+         */
+        public long getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * @return The amount of battle time simulated, in seconds.
+         */
+        public double getSimulatedSeconds() {
+            return simulatedSeconds;
+        }
+
+        /**
+         * @return The amount of real time the simulation took, in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return <code>true</code> if the simulation stopped because the
+         * battle ended, or <code>false</code> if it ran out of frames.
+         */
+        public boolean isBattleEnded() {
+            return battleEnded;
+        }
+        
+        /**
+         * @return The number of frames simulated per second of real time.
+         */
+        public double getFramesPerSecond() {
+            if(elapsedNanos == 0) {
+                return 0;
+            }
+            
+            return frameCount * (double) FramePacing.NANOS_PER_SECOND
+                    / elapsedNanos;
+        }
+        
+        /**
+         * @return How many times faster than real time the battle ran.
+         */
+        public double getSpeedUp() {
+            if(elapsedNanos == 0) {
+                return 0;
+            }
+            
+            return simulatedSeconds * FramePacing.NANOS_PER_SECOND
+                    / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.kevinnorth.rpg_battle_system.scheduling;
+
+import com.kevinnorth.rpg_battle_system.concurrent.TripleBuffer;
+import com.kevinnorth.rpg_battle_system.instrumentation.FrameProfiler;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.RenderEvent;
+import com.kevinnorth.rpg_battle_system.renderer.Renderer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A dedicated thread that draws the battle at its own frame rate while the
+ * game logic runs on another thread, so that an expensive frame doesn't delay
+ * the logic and a slow logic step doesn't delay drawing.</p>
+ * 
+ * <p>After every logic step, the logic thread publishes the Store's State with
+ * <code>publish()</code>. The snapshots are handed over through a
+ * <code>TripleBuffer</code>, so neither thread ever waits for the other, and
+ * each rendered frame draws the latest complete State. States are immutable,
+ * so the render thread can read them freely while the logic moves on.</p>
+ * 
+ * <p>Since the render thread usually draws between logic steps, it passes the
+ * Renderer an <code>alpha</code> based on how long ago the State it is drawing
+ * was published, compared to how long the logic step took.</p>
+ * @param <StoreStateType> The State type used by the Store.
+ */
+public class RenderThread<StoreStateType> implements FramePacing.StoppableLoop {
+    private final Renderer<StoreStateType> renderer;
+    private final TripleBuffer<Snapshot<StoreStateType>> snapshots;
+    private final long frameNanos;
+    private final Thread thread;
+    
+    private volatile boolean running;
+    private volatile FrameProfiler<?, ?> profiler;
+
+    /**
+     * @param renderer The Renderer to draw with. Once the thread starts, it is
+     * only called from the render thread.
+     * @param framesPerSecond How many frames to render each second.
+     */
+    public RenderThread(Renderer<StoreStateType> renderer,
+            int framesPerSecond) {
+        if(framesPerSecond <= 0) {
+            throw new IllegalArgumentException("The frame rate must be "
+                    + "positive.");
+        }
+        
+        this.renderer = renderer;
+        this.snapshots = new TripleBuffer<>(new Snapshot<StoreStateType>(),
+                new Snapshot<StoreStateType>(), new Snapshot<StoreStateType>());
+        this.frameNanos = FramePacing.NANOS_PER_SECOND / framesPerSecond;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                renderLoop();
+            }
+        }, "Render thread");
+        this.thread.setDaemon(true);
+    }
+    
+    /**
+     * Publishes a new State for the render thread to draw. Must always be
+     * called from the same thread, normally the one running the game logic.
+     * @param state The Store's State after a logic step.
+     * @param stepSeconds The amount of time, in seconds, that the logic step
+     * covered.
+     */
+    public void publish(StoreStateType state, float stepSeconds) {
+        Snapshot<StoreStateType> snapshot = snapshots.getWriteBuffer();
+        snapshot.state = state;
+        snapshot.publishedAt = System.nanoTime();
+        snapshot.stepNanos = (long) (stepSeconds * FramePacing.NANOS_PER_SECOND);
+        snapshots.publish();
+    }
+    
+    /**
+     * Sets the FrameProfiler to record how long each frame takes to draw
+     * into. It can be changed while the thread is running.
+     * @param profiler The FrameProfiler, or <code>null</code> to stop timing
+     * frames.
+     */
+    public void setFrameProfiler(FrameProfiler<?, ?> profiler) {
+        this.profiler = profiler;
+    }
+    
+    /**
+     * Starts rendering. Nothing is drawn until the first State is published.
+     * @throws IllegalStateException If the thread has already been started.
+     */
+    public void start() {
+        if(thread.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("The render thread has already "
+                    + "been started.");
+        }
+        
+        running = true;
+        thread.start();
+    }
+    
+    /**
+     * Stops rendering and waits for the frame being drawn, if any, to finish.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        
+        if(thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void renderLoop() {
+        long previousTime = System.nanoTime();
+        long nextFrameTime = previousTime;
+        
+        while(running) {
+            long currentTime = System.nanoTime();
+            Snapshot<StoreStateType> snapshot = snapshots.getReadBuffer();
+            
+            if(snapshot.state != null) {
+                float alpha = 0f;
+                if(snapshot.stepNanos > 0) {
+                    alpha = Math.min(1f, (float) (currentTime
+                            - snapshot.publishedAt) / snapshot.stepNanos);
+                }
+                
+                float deltaTime = (float) (currentTime - previousTime)
+                        / FramePacing.NANOS_PER_SECOND;
+                
+                FrameProfiler<?, ?> activeProfiler = profiler;
+                RenderEvent event = new RenderEvent();
+                event.begin();
+                
+                if(activeProfiler == null) {
+                    renderer.render(snapshot.state, deltaTime, alpha);
+                } else {
+                    long renderStart = System.nanoTime();
+                    renderer.render(snapshot.state, deltaTime, alpha);
+                    activeProfiler.recordRenderThreadFrame(renderStart);
+                }
+                
+                event.end();
+                if(event.shouldCommit()) {
+                    event.deltaTime = deltaTime;
+                    event.alpha = alpha;
+                    event.commit();
+                }
+            }
+            previousTime = currentTime;
+            
+            nextFrameTime += frameNanos;
+            long now = System.nanoTime();
+            if(nextFrameTime < now) {
+                nextFrameTime = now;
+            }
+            FramePacing.waitUntil(nextFrameTime, this);
+        }
+    }
+    
+    /* One of the three reusable buffers in the TripleBuffer. */
+    private static final class Snapshot<StoreStateType> {
+        private StoreStateType state;
+        private long publishedAt;
+        private long stepNanos;
+    }
+}
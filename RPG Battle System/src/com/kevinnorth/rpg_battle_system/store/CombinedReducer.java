@@ -0,0 +1,166 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A Reducer for the whole State built out of several SliceReducers, each of
+ * which handles one independent piece of the State. This is similar to
+ * <code>combineReducers()</code> in Redux.</p>
+ * 
+ * <p>The first time the CombinedReducer sees a class of Action, it works out
+ * which SliceReducers handle it and remembers the answer. After that, each
+ * Action only runs the SliceReducers that handle it, and the State is only
+ * rebuilt for the slices that actually changed. If no slice changes, the
+ * previous State is returned as-is.</p>
+ * 
+ * <p>Every slice has a version number that goes up each time the slice
+ * changes. The version numbers are kept in the State itself, as
+ * SliceVersions, so subclasses only need to implement
+ * <code>getSliceVersions()</code> and <code>withSliceVersions()</code>.
+ * Subscribers and Renderers can remember the version they last saw and
+ * compare it to <code>getSliceVersion()</code> to find out whether a slice
+ * changed, without comparing the States themselves.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer.
+ */
+public abstract class CombinedReducer<StateType extends State,
+        ActionType extends Action> extends Reducer<StateType, ActionType> {
+    private final List<SliceReducer<StateType, ?, ? extends ActionType>>
+            sliceReducers;
+    private final Map<Class<?>, int[]> slicesByActionClass;
+
+    /**
+     * @param sliceReducers The SliceReducers to combine. They are run in this
+     * order.
+     */
+    protected CombinedReducer(List<? extends SliceReducer<StateType, ?,
+            ? extends ActionType>> sliceReducers) {
+        this.sliceReducers = new ArrayList<>(sliceReducers);
+        this.slicesByActionClass = new HashMap<>();
+    }
+
+    @Override
+    public StateType reduce(ActionType action, StateType previousState) {
+        StateType state = previousState;
+        boolean[] changedSlices = null;
+        
+        for(int index : slicesHandling(action.getClass())) {
+            StateType newState = reduceSlice(sliceReducers.get(index), action,
+                    state);
+            
+            if(newState != state) {
+                state = newState;
+                if(changedSlices == null) {
+                    changedSlices = new boolean[sliceReducers.size()];
+                }
+                changedSlices[index] = true;
+            }
+        }
+        
+        if(changedSlices == null) {
+            return previousState;
+        }
+        
+        return withSliceVersions(state,
+                getSliceVersions(state).incremented(changedSlices));
+    }
+    
+    /**
+     * @param state A State.
+     * @return The SliceVersions kept in <code>state</code>. Return
+     * <code>SliceVersions.INITIAL</code> for a State that has never been
+     * changed by this CombinedReducer.
+     */
+    public abstract SliceVersions getSliceVersions(StateType state);
+    
+    /**
+     * @param state A State.
+     * @param sliceVersions New SliceVersions for the State.
+     * @return A State identical to <code>state</code> except that its
+     * SliceVersions are <code>sliceVersions</code>.
+     */
+    protected abstract StateType withSliceVersions(StateType state,
+            SliceVersions sliceVersions);
+    
+    /**
+     * @param state A State.
+     * @param sliceReducer One of the SliceReducers this CombinedReducer was
+     * built from.
+     * @return The number of times that slice had changed by the time
+     * <code>state</code> was produced.
+     */
+    public long getSliceVersion(StateType state,
+            SliceReducer<StateType, ?, ?> sliceReducer) {
+        return getSliceVersions(state).get(indexOf(sliceReducer));
+    }
+    
+    /**
+     * @param sliceReducer One of the SliceReducers this CombinedReducer was
+     * built from.
+     * @return A Selector that picks out the slice's version number. Pass it to
+     * <code>Store.addSubscriber()</code> to subscribe to changes in that slice
+     * only.
+     */
+    public Selector<StateType, Long> sliceVersionSelector(
+            SliceReducer<StateType, ?, ?> sliceReducer) {
+        final int index = indexOf(sliceReducer);
+        return new Selector<StateType, Long>() {
+            @Override
+            public Long select(StateType state) {
+                return getSliceVersions(state).get(index);
+            }
+        };
+    }
+    
+    private <SliceType> StateType reduceSlice(
+            SliceReducer<StateType, SliceType, ?> sliceReducer,
+            ActionType action, StateType state) {
+        SliceType previousSlice = sliceReducer.getSlice(state);
+        SliceType newSlice = sliceReducer.reduceHandled(action,
+                previousSlice);
+        
+        if(sliceReducer.getSliceComparison().isUnchanged(previousSlice,
+                newSlice)) {
+            return state;
+        }
+        
+        return sliceReducer.withSlice(state, newSlice);
+    }
+    
+    private int[] slicesHandling(Class<?> actionClass) {
+        int[] slices = slicesByActionClass.get(actionClass);
+        if(slices != null) {
+            return slices;
+        }
+        
+        List<Integer> handlingSlices = new ArrayList<>();
+        for(int i = 0; i < sliceReducers.size(); i++) {
+            if(sliceReducers.get(i).handles(actionClass)) {
+                handlingSlices.add(i);
+            }
+        }
+        
+        slices = new int[handlingSlices.size()];
+        for(int i = 0; i < slices.length; i++) {
+            slices[i] = handlingSlices.get(i);
+        }
+        
+        slicesByActionClass.put(actionClass, slices);
+        return slices;
+    }
+    
+    private int indexOf(SliceReducer<StateType, ?, ?> sliceReducer) {
+        for(int i = 0; i < sliceReducers.size(); i++) {
+            if(sliceReducers.get(i) == sliceReducer) {
+                return i;
+            }
+        }
+        
+        throw new IllegalArgumentException("That SliceReducer is not part of "
+                + "this CombinedReducer.");
+    }
+}
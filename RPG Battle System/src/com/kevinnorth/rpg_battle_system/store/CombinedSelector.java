@@ -0,0 +1,68 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * A Selector that computes its value from the values of other Selectors and
+ * caches the result. The cached result is reused as long as the State is the
+ * same object as last time, or every input Selector returns the same objects
+ * as last time. Build these with the factory methods in
+ * <code>Selectors</code>.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <ResultType> The type of the value this Selector computes.
+ */
+/* This class's visibility is deliberately set to package visibility,
+ * which is why it isn't prefixed by a visibility modifier. */
+final class CombinedSelector<StateType, ResultType>
+        implements Selector<StateType, ResultType> {
+    /**
+     * Computes a CombinedSelector's value from the values of its inputs.
+     * @param <ResultType> The type of the computed value.
+     */
+    interface Combiner<ResultType> {
+        ResultType combine(Object[] inputs);
+    }
+    
+    private final Selector<StateType, ?>[] inputSelectors;
+    private final Combiner<ResultType> combiner;
+    /* Two arrays are swapped back and forth so that checking the inputs
+     * doesn't allocate. */
+    private Object[] lastInputs;
+    private Object[] currentInputs;
+    private StateType lastState;
+    private ResultType lastResult;
+    private boolean hasResult;
+
+    CombinedSelector(Selector<StateType, ?>[] inputSelectors,
+            Combiner<ResultType> combiner) {
+        this.inputSelectors = inputSelectors;
+        this.combiner = combiner;
+        this.lastInputs = new Object[inputSelectors.length];
+        this.currentInputs = new Object[inputSelectors.length];
+    }
+
+    @Override
+    public ResultType select(StateType state) {
+        if(hasResult && state == lastState) {
+            return lastResult;
+        }
+        
+        boolean inputsChanged = !hasResult;
+        for(int i = 0; i < inputSelectors.length; i++) {
+            currentInputs[i] = inputSelectors[i].select(state);
+            if(currentInputs[i] != lastInputs[i]) {
+                inputsChanged = true;
+            }
+        }
+        
+        if(inputsChanged) {
+            lastResult = combiner.combine(currentInputs);
+            
+            Object[] swap = lastInputs;
+            lastInputs = currentInputs;
+            currentInputs = swap;
+        }
+        
+        lastState = state;
+        hasResult = true;
+        return lastResult;
+    }
+}
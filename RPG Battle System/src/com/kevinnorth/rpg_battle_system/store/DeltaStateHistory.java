@@ -0,0 +1,130 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * <p>A StateHistory that keeps every State the Store has been in, but only
+ * keeps a full State object every few States. These full States are called
+ * keyframes. Every State between two keyframes is kept as a compact delta from
+ * the State before it, as described by a <code>StateDeltaCodec</code>.</p>
+ * 
+ * <p>A State that is stored as a delta is rebuilt on demand by starting at the
+ * nearest keyframe before it and applying each delta in order. The keyframe
+ * interval trades memory for lookup time: a longer interval keeps fewer full
+ * States, but rebuilding a State may need to apply more deltas. Reading the
+ * history from front to back reuses the previously rebuilt State, so iterating
+ * over the whole history only applies each delta once.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <DeltaType> The class used to describe the difference between two
+ * States.
+ */
+public class DeltaStateHistory<StateType extends State, DeltaType>
+        extends StateHistory<StateType> {
+    private final StateDeltaCodec<StateType, DeltaType> codec;
+    private final int keyframeInterval;
+    /* Each entry is either a keyframe State or a delta from the entry before
+     * it. keyframes has a bit set for every entry that is a keyframe. */
+    private final List<Object> entries;
+    private final BitSet keyframes;
+    private final List<StateType> view;
+    private StateType lastRecordedState;
+    private int entriesSinceKeyframe;
+    
+    private int cachedIndex;
+    private StateType cachedState;
+
+    /**
+     * @param codec Knows how to compute and apply deltas between States.
+     * @param keyframeInterval Keep a full State once every this many States.
+     */
+    public DeltaStateHistory(StateDeltaCodec<StateType, DeltaType> codec,
+            int keyframeInterval) {
+        if(keyframeInterval < 1) {
+            throw new IllegalArgumentException("The keyframe interval must be "
+                    + "at least 1, but was " + keyframeInterval + ".");
+        }
+        
+        this.codec = codec;
+        this.keyframeInterval = keyframeInterval;
+        this.entries = new ArrayList<>();
+        this.keyframes = new BitSet();
+        this.view = new View();
+        this.cachedIndex = -1;
+    }
+    
+    @Override
+    public void record(StateType previousState) {
+        DeltaType delta = null;
+        if(lastRecordedState != null
+                && entriesSinceKeyframe < keyframeInterval) {
+            delta = codec.diff(lastRecordedState, previousState);
+        }
+        
+        if(delta == null) {
+            keyframes.set(entries.size());
+            entries.add(previousState);
+            entriesSinceKeyframe = 1;
+        } else {
+            entries.add(delta);
+            entriesSinceKeyframe++;
+        }
+        
+        lastRecordedState = previousState;
+    }
+
+    @Override
+    public List<StateType> asList() {
+        return view;
+    }
+    
+    /**
+     * @return The number of full States this history is keeping.
+     */
+    public int getKeyframeCount() {
+        return keyframes.cardinality();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private StateType rebuild(int index) {
+        int start;
+        StateType state;
+        
+        if(cachedIndex >= 0 && cachedIndex <= index
+                && keyframes.previousSetBit(index) <= cachedIndex) {
+            start = cachedIndex + 1;
+            state = cachedState;
+        } else {
+            int keyframeIndex = keyframes.previousSetBit(index);
+            start = keyframeIndex + 1;
+            state = (StateType) entries.get(keyframeIndex);
+        }
+        
+        for(int i = start; i <= index; i++) {
+            state = codec.apply(state, (DeltaType) entries.get(i));
+        }
+        
+        cachedIndex = index;
+        cachedState = state;
+        return state;
+    }
+    
+    private class View extends AbstractList<StateType> {
+        @Override
+        public StateType get(int index) {
+            if(index < 0 || index >= entries.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index
+                        + ", Size: " + entries.size());
+            }
+            
+            return rebuild(index);
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+}
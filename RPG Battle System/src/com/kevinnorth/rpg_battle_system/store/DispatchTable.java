@@ -0,0 +1,56 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The lookup table a Store builds from a ReducerRegistry. The first lookup
+ * for a class of Action walks up its class hierarchy to the nearest registered
+ * class once and remembers the answer in a ClassValue, so every later lookup
+ * is a single ClassValue lookup and lookups are safe from any thread.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+/* This class's visibility is deliberately set to package visibility,
+ * which is why it isn't prefixed by a visibility modifier. */
+final class DispatchTable<StateType extends State> {
+    private final Map<Class<?>, Reducer<StateType, ?>> registeredReducers;
+    private final ClassValue<Reducer<StateType, ?>> table;
+
+    DispatchTable(ReducerRegistry<StateType, ?> registry) {
+        this.registeredReducers = Collections.unmodifiableMap(
+                new LinkedHashMap<>(registry.getReducers()));
+        this.table = new ClassValue<Reducer<StateType, ?>>() {
+            @Override
+            protected Reducer<StateType, ?> computeValue(Class<?> actionClass) {
+                for(Class<?> c = actionClass; c != null;
+                        c = c.getSuperclass()) {
+                    Reducer<StateType, ?> reducer = registeredReducers.get(c);
+                    if(reducer != null) {
+                        return reducer;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+    
+    Map<Class<?>, Reducer<StateType, ?>> getRegisteredReducers() {
+        return registeredReducers;
+    }
+    
+    /**
+     * @param actionClass The class of the Action being dispatched.
+     * @return The Reducer that handles it.
+     * @throws IllegalArgumentException If no Reducer handles it.
+     */
+    Reducer<StateType, ?> resolve(Class<?> actionClass) {
+        Reducer<StateType, ?> reducer = table.get(actionClass);
+        if(reducer != null) {
+            return reducer;
+        }
+        
+        throw new IllegalArgumentException("No Reducer is registered for "
+                + actionClass.getName() + " or any of its superclasses.");
+    }
+}
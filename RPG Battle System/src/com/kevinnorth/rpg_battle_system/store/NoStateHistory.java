@@ -0,0 +1,21 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A StateHistory that doesn't keep any States at all. Use this when nothing
+ * in the battle needs to look at previous States and you want the Store to
+ * use as little memory as possible.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+public class NoStateHistory<StateType extends State>
+        extends StateHistory<StateType> {
+    @Override
+    public void record(StateType previousState) { }
+
+    @Override
+    public List<StateType> asList() {
+        return Collections.emptyList();
+    }
+}
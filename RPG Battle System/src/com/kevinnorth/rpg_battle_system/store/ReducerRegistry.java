@@ -0,0 +1,69 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Associates each class of Action with the Reducer that handles it. Give a
+ * ReducerRegistry to a Store when you construct it, and you can change the
+ * Store's State with <code>store.dispatch(action)</code> instead of passing a
+ * Reducer along with every Action.</p>
+ * 
+ * <p>The Store turns the registry into a lookup table when it is constructed,
+ * so changes made to the registry afterwards don't affect it. An Action whose
+ * exact class wasn't registered is handled by the Reducer registered for its
+ * closest superclass.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer. A generic type is used for the same
+ * reasons the StoreStateType is generic.
+ */
+public class ReducerRegistry<StateType extends State,
+        ActionType extends Action> {
+    private final Map<Class<?>, Reducer<StateType, ?>> reducers;
+
+    public ReducerRegistry() {
+        this.reducers = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Registers the Reducer that handles a class of Action. Each class of
+     * Action can only have one Reducer. If this precondition isn't met, this
+     * method will throw an exception.
+     * @param <SpecificActionType> The class of Action.
+     * @param actionClass The class of Action the Reducer handles.
+     * @param reducer The Reducer to use for Actions of that class.
+     * @return This registry, so that calls can be chained.
+     */
+    public <SpecificActionType extends ActionType>
+            ReducerRegistry<StateType, ActionType> register(
+                    Class<SpecificActionType> actionClass,
+                    Reducer<StateType, ? super SpecificActionType> reducer) {
+        if(actionClass == null || reducer == null) {
+            throw new IllegalArgumentException("Neither the Action class nor "
+                    + "the Reducer can be null.");
+        }
+        
+        if(reducers.containsKey(actionClass)) {
+            throw new IllegalStateException("A Reducer is already registered "
+                    + "for " + actionClass.getName() + ". Registering a "
+                    + "second one would lose the first.");
+        }
+        
+        reducers.put(actionClass, reducer);
+        return this;
+    }
+    
+    /**
+     * @return A read-only map from each registered class of Action to its
+     * Reducer, in the order they were registered.
+     */
+    public Map<Class<?>, Reducer<StateType, ?>> getReducers() {
+        return Collections.unmodifiableMap(reducers);
+    }
+}
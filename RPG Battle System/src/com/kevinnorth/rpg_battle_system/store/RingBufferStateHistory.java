@@ -0,0 +1,31 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+
+/**
+ * A StateHistory that keeps only the most recent States. Once it is full,
+ * each new State pushes the oldest one out, so it never holds more than its
+ * capacity.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+public class RingBufferStateHistory<StateType extends State>
+        extends StateHistory<StateType> {
+    private final StateRingBuffer<StateType> states;
+
+    /**
+     * @param capacity The number of most recent States to keep.
+     */
+    public RingBufferStateHistory(int capacity) {
+        this.states = new StateRingBuffer<>(capacity, false);
+    }
+    
+    @Override
+    public void record(StateType previousState) {
+        states.add(previousState);
+    }
+
+    @Override
+    public List<StateType> asList() {
+        return states.asList();
+    }
+}
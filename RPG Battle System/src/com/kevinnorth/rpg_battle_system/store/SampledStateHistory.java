@@ -0,0 +1,48 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+
+/**
+ * A StateHistory that keeps every Kth State instead of every State, which
+ * gives a coarse picture of a whole battle for a fraction of the memory. The
+ * samples themselves are kept in a fixed-capacity ring, so once it is full the
+ * oldest samples are dropped.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+public class SampledStateHistory<StateType extends State>
+        extends StateHistory<StateType> {
+    private final StateRingBuffer<StateType> states;
+    private final int interval;
+    private int statesUntilNextSample;
+
+    /**
+     * @param interval Keep one State out of every <code>interval</code>
+     * States. The first State is always kept.
+     * @param capacity The most samples to keep at once.
+     */
+    public SampledStateHistory(int interval, int capacity) {
+        if(interval < 1) {
+            throw new IllegalArgumentException("The sampling interval must be "
+                    + "at least 1, but was " + interval + ".");
+        }
+        
+        this.states = new StateRingBuffer<>(capacity, false);
+        this.interval = interval;
+        this.statesUntilNextSample = 0;
+    }
+    
+    @Override
+    public void record(StateType previousState) {
+        if(statesUntilNextSample == 0) {
+            states.add(previousState);
+            statesUntilNextSample = interval;
+        }
+        
+        statesUntilNextSample--;
+    }
+
+    @Override
+    public List<StateType> asList() {
+        return states.asList();
+    }
+}
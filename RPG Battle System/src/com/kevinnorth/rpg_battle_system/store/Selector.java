@@ -0,0 +1,24 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * Picks out, or computes, one piece of a State, such as the current
+ * character, a single enemy's health, or the amount of mana left. Selectors
+ * let subscribers only be woken up when the piece of the State they care about
+ * changes, and let several objects share the work of computing the same
+ * derived value.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <SliceType> The type of the value this Selector picks out.
+ */
+public interface Selector<StateType, SliceType> {
+    /**
+     * Picks out this Selector's piece of a State. This must be a pure
+     * function of <code>state</code>.
+     * @param state The State to select from.
+     * @return The selected value.
+     */
+    public SliceType select(StateType state);
+}
@@ -0,0 +1,149 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>Builds memoized Selectors: Selectors that remember the last value they
+ * computed and only compute a new one when their inputs change.</p>
+ * 
+ * <p>Many objects, like Renderers and LogicStates, derive the same values
+ * from the State every frame, such as which enemies are still alive or how
+ * much health the party has left. If they share a memoized Selector, the value
+ * is computed once per State change instead of once per frame per object.</p>
+ * 
+ * <p>Memoized Selectors can be used as the inputs of other memoized
+ * Selectors, so a complex value can be built up from simpler ones. A memoized
+ * Selector compares its inputs by identity, which works best with immutable
+ * States that reuse the objects that didn't change.</p>
+ * 
+ * <p>Memoized Selectors remember their last value in ordinary fields, so
+ * they should only be used by one thread at a time, like the rest of the
+ * Store.</p>
+ */
+public final class Selectors {
+    private Selectors() { }
+    
+    /**
+     * Computes a value from the values of three Selectors.
+     * @param <A> The type of the first input.
+     * @param <B> The type of the second input.
+     * @param <C> The type of the third input.
+     * @param <ResultType> The type of the computed value.
+     */
+    public interface Combiner3<A, B, C, ResultType> {
+        public ResultType combine(A first, B second, C third);
+    }
+    
+    /**
+     * @param <StateType> The class that the Store uses to keep track of state.
+     * @param <ResultType> The type of the value the Selector picks out.
+     * @param selector The Selector to memoize.
+     * @return A Selector that only calls <code>selector</code> when it is
+     * given a different State than last time.
+     */
+    public static <StateType, ResultType> Selector<StateType, ResultType>
+            memoize(final Selector<StateType, ResultType> selector) {
+        return new CombinedSelector<>(inputs(
+                new Selector<StateType, StateType>() {
+                    @Override
+                    public StateType select(StateType state) {
+                        return state;
+                    }
+                }),
+                new CombinedSelector.Combiner<ResultType>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public ResultType combine(Object[] inputs) {
+                        return selector.select((StateType) inputs[0]);
+                    }
+                });
+    }
+    
+    /**
+     * @param <StateType> The class that the Store uses to keep track of state.
+     * @param <A> The type of the input.
+     * @param <ResultType> The type of the computed value.
+     * @param input Picks the value to compute from.
+     * @param combiner Computes the result from the input.
+     * @return A Selector that only calls <code>combiner</code> when
+     * <code>input</code> returns a different object than last time.
+     */
+    public static <StateType, A, ResultType> Selector<StateType, ResultType>
+            create(Selector<StateType, A> input,
+                    final Function<? super A, ResultType> combiner) {
+        return new CombinedSelector<>(inputs(input),
+                new CombinedSelector.Combiner<ResultType>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public ResultType combine(Object[] inputs) {
+                        return combiner.apply((A) inputs[0]);
+                    }
+                });
+    }
+    
+    /**
+     * @param <StateType> The class that the Store uses to keep track of state.
+     * @param <A> The type of the first input.
+     * @param <B> The type of the second input.
+     * @param <ResultType> The type of the computed value.
+     * @param first Picks the first value to compute from.
+     * @param second Picks the second value to compute from.
+     * @param combiner Computes the result from the inputs.
+     * @return A Selector that only calls <code>combiner</code> when one of
+     * the inputs returns a different object than last time.
+     */
+    public static <StateType, A, B, ResultType>
+            Selector<StateType, ResultType> create(
+                    Selector<StateType, A> first,
+                    Selector<StateType, B> second,
+                    final BiFunction<? super A, ? super B, ResultType>
+                            combiner) {
+        return new CombinedSelector<>(inputs(first, second),
+                new CombinedSelector.Combiner<ResultType>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public ResultType combine(Object[] inputs) {
+                        return combiner.apply((A) inputs[0], (B) inputs[1]);
+                    }
+                });
+    }
+    
+    /**
+     * @param <StateType> The class that the Store uses to keep track of state.
+     * @param <A> The type of the first input.
+     * @param <B> The type of the second input.
+     * @param <C> The type of the third input.
+     * @param <ResultType> The type of the computed value.
+     * @param first Picks the first value to compute from.
+     * @param second Picks the second value to compute from.
+     * @param third Picks the third value to compute from.
+     * @param combiner Computes the result from the inputs.
+     * @return A Selector that only calls <code>combiner</code> when one of
+     * the inputs returns a different object than last time.
+     */
+    public static <StateType, A, B, C, ResultType>
+            Selector<StateType, ResultType> create(
+                    Selector<StateType, A> first,
+                    Selector<StateType, B> second,
+                    Selector<StateType, C> third,
+                    final Combiner3<? super A, ? super B, ? super C,
+                            ResultType> combiner) {
+        return new CombinedSelector<>(inputs(first, second, third),
+                new CombinedSelector.Combiner<ResultType>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public ResultType combine(Object[] inputs) {
+                        return combiner.combine((A) inputs[0], (B) inputs[1],
+                                (C) inputs[2]);
+                    }
+                });
+    }
+    
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    private static <StateType> Selector<StateType, ?>[] inputs(
+            Selector<StateType, ?>... selectors) {
+        return selectors;
+    }
+}
@@ -0,0 +1,34 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Objects;
+
+/**
+ * How a selected piece of State is compared to its previous value to decide
+ * whether it changed.
+ */
+public enum SliceComparison {
+    /**
+     * The slice changed if it is a different object than before. This is the
+     * cheapest comparison and is exact for immutable States that reuse the
+     * objects that didn't change.
+     */
+    IDENTITY {
+        @Override
+        boolean isUnchanged(Object previousSlice, Object newSlice) {
+            return previousSlice == newSlice;
+        }
+    },
+    /**
+     * The slice changed if it isn't <code>equals()</code> to its previous
+     * value. Use this for slices that are computed fresh from every State,
+     * like numbers.
+     */
+    EQUALITY {
+        @Override
+        boolean isUnchanged(Object previousSlice, Object newSlice) {
+            return Objects.equals(previousSlice, newSlice);
+        }
+    };
+    
+    abstract boolean isUnchanged(Object previousSlice, Object newSlice);
+}
@@ -0,0 +1,131 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>A Reducer for a single, independent piece of the State, like the party,
+ * the enemies, the turn order, or the mana. Several SliceReducers are combined
+ * into one Reducer for the whole State with a <code>CombinedReducer</code>.</p>
+ * 
+ * <p>Each SliceReducer declares which classes of Action it handles. The
+ * CombinedReducer doesn't run a SliceReducer at all for any other Action, and
+ * only rebuilds the State for slices that changed, as decided by
+ * <code>getSliceComparison()</code>.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <SliceType> The type of the piece of the State this Reducer handles.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer. A generic type is used for the same
+ * reasons the StoreStateType is generic.
+ */
+public abstract class SliceReducer<StateType extends State, SliceType,
+        ActionType extends Action> {
+    private final List<Class<?>> handledActionClasses;
+
+    /**
+     * @param handledActionClasses The classes of Action this SliceReducer
+     * should be run for. Subclasses of these classes are handled too.
+     */
+    @SafeVarargs
+    protected SliceReducer(
+            Class<? extends ActionType>... handledActionClasses) {
+        List<Class<?>> classes = new ArrayList<>(handledActionClasses.length);
+        for(Class<? extends ActionType> handledActionClass
+                : handledActionClasses) {
+            classes.add(handledActionClass);
+        }
+        this.handledActionClasses = Collections.unmodifiableList(classes);
+    }
+    
+    /**
+     * Use this constructor instead of the varargs one when passing the
+     * handled classes along from a subclass's constructor, which would
+     * otherwise pass a generic varargs array along and risk heap pollution.
+     * @param handledActionClasses The classes of Action this SliceReducer
+     * should be run for. Subclasses of these classes are handled too.
+     */
+    protected SliceReducer(
+            List<Class<? extends ActionType>> handledActionClasses) {
+        this.handledActionClasses = Collections.unmodifiableList(
+                new ArrayList<Class<?>>(handledActionClasses));
+    }
+    
+    /**
+     * @return The classes of Action this SliceReducer is run for.
+     */
+    public final List<Class<?>> getHandledActionClasses() {
+        return handledActionClasses;
+    }
+    
+    /**
+     * @param actionClass A class of Action.
+     * @return <code>true</code> if this SliceReducer should be run for
+     * Actions of that class.
+     */
+    public final boolean handles(Class<?> actionClass) {
+        for(Class<?> handledActionClass : handledActionClasses) {
+            if(handledActionClass.isAssignableFrom(actionClass)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @param state A State.
+     * @return This Reducer's piece of <code>state</code>.
+     */
+    public abstract SliceType getSlice(StateType state);
+    
+    /**
+     * @param state A State.
+     * @param newSlice A new value for this Reducer's piece of the State.
+     * @return A State identical to <code>state</code> except that this
+     * Reducer's piece of it is <code>newSlice</code>.
+     */
+    public abstract StateType withSlice(StateType state, SliceType newSlice);
+    
+    /**
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     * @param previousSlice This Reducer's piece of the previous State.
+     * @return The new value for this Reducer's piece of the State. Return
+     * <code>previousSlice</code> itself if nothing changed.
+     */
+    public abstract SliceType reduce(ActionType action, SliceType previousSlice);
+    
+    /**
+     * Decides how the CombinedReducer tells whether <code>reduce()</code>
+     * changed the slice, and so whether the State needs to be rebuilt. By
+     * default, a slice has changed if <code>reduce()</code> returned a
+     * different object. Override this to return
+     * <code>SliceComparison.EQUALITY</code> for slices, like boxed numbers,
+     * where an equal value may be a different object.
+     * @return How this SliceReducer's slices are compared.
+     */
+    public SliceComparison getSliceComparison() {
+        return SliceComparison.IDENTITY;
+    }
+    
+    /**
+     * Runs <code>reduce()</code> for an Action this SliceReducer handles.
+     * @param action An Action whose class <code>handles()</code> returned
+     * <code>true</code> for.
+     * @param previousSlice This Reducer's piece of the previous State.
+     * @return The new value for this Reducer's piece of the State.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    @SuppressWarnings("unchecked")
+    final SliceType reduceHandled(Action action, SliceType previousSlice) {
+        // Every handled class extends ActionType, so an Action of a handled
+        // class is an ActionType.
+        return reduce((ActionType) action, previousSlice);
+    }
+}
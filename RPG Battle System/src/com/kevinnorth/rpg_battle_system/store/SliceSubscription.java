@@ -0,0 +1,41 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * Wraps a StoreSubscriber so that it is only notified when a Selector picks
+ * out a different value from the new State than it did from the last one.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * @param <SliceType> The type of the value the Selector picks out.
+ */
+/* This class's visibility is deliberately set to package visibility,
+ * which is why it isn't prefixed by a visibility modifier. */
+class SliceSubscription<StateType, SliceType>
+        implements StoreSubscriber<StateType> {
+    private final StoreSubscriber<StateType> subscriber;
+    private final Selector<StateType, SliceType> selector;
+    private final SliceComparison comparison;
+    private SliceType lastSlice;
+
+    SliceSubscription(StoreSubscriber<StateType> subscriber,
+            Selector<StateType, SliceType> selector,
+            SliceComparison comparison, StateType currentState) {
+        this.subscriber = subscriber;
+        this.selector = selector;
+        this.comparison = comparison;
+        this.lastSlice = selector.select(currentState);
+    }
+    
+    StoreSubscriber<StateType> getSubscriber() {
+        return subscriber;
+    }
+
+    @Override
+    public boolean recieveNewState(StateType newState) {
+        SliceType newSlice = selector.select(newState);
+        if(comparison.isUnchanged(lastSlice, newSlice)) {
+            return false;
+        }
+        
+        lastSlice = newSlice;
+        return subscriber.recieveNewState(newState);
+    }
+}
@@ -0,0 +1,57 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Arrays;
+
+/**
+ * <p>The version numbers of the slices of a State built by a
+ * <code>CombinedReducer</code>. Every slice's version goes up each time the
+ * slice changes, so subscribers can find out whether a slice changed by
+ * comparing two version numbers instead of comparing the slices
+ * themselves.</p>
+ * 
+ * <p>SliceVersions are immutable and are kept in the State, so the versions
+ * read from a State always describe that State, no matter which State the
+ * CombinedReducer produced last or how many Stores share it.</p>
+ */
+public final class SliceVersions {
+    /**
+     * The versions of a State none of whose slices have changed yet. Use this
+     * for the initial State.
+     */
+    public static final SliceVersions INITIAL = new SliceVersions(new long[0]);
+    
+    private final long[] versions;
+
+    private SliceVersions(long[] versions) {
+        this.versions = versions;
+    }
+    
+    /**
+     * @param sliceIndex The position of a slice's SliceReducer in the
+     * CombinedReducer.
+     * @return The number of times that slice has changed.
+     */
+    public long get(int sliceIndex) {
+        return sliceIndex < versions.length ? versions[sliceIndex] : 0;
+    }
+    
+    /**
+     * @param changedSlices Whether each slice changed, by the position of its
+     * SliceReducer in the CombinedReducer.
+     * @return SliceVersions with the version of every changed slice one
+     * higher than in these.
+     */
+    /* This method's visibility is deliberately set to package visibility,
+    which is why it isn't prefixed by a visibility modifier. */
+    SliceVersions incremented(boolean[] changedSlices) {
+        long[] incremented = Arrays.copyOf(versions,
+                Math.max(versions.length, changedSlices.length));
+        for(int i = 0; i < changedSlices.length; i++) {
+            if(changedSlices[i]) {
+                incremented[i]++;
+            }
+        }
+        
+        return new SliceVersions(incremented);
+    }
+}
@@ -0,0 +1,43 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * <p>Describes how to record the difference between two States compactly and
+ * how to rebuild a State from that difference. Used by
+ * <code>DeltaStateHistory</code> to keep a full history of a battle without
+ * keeping a full State object for every change.</p>
+ * 
+ * <p>Most State changes only touch a small part of the State, such as a single
+ * character's health. A delta that only describes that part can be much
+ * smaller than the State itself.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <DeltaType> The class used to describe the difference between two
+ * States.
+ */
+public abstract class StateDeltaCodec<StateType extends State, DeltaType> {
+    /**
+     * Describes how to get from one State to the next.
+     * @param previousState The older State.
+     * @param nextState The State that came right after
+     * <code>previousState</code>.
+     * @return A delta that, when passed to <code>apply()</code> along with
+     * <code>previousState</code>, produces a State equivalent to
+     * <code>nextState</code>. Return <code>null</code> if the two States are
+     * too different to describe with a delta; the history will keep
+     * <code>nextState</code> as a keyframe instead.
+     */
+    public abstract DeltaType diff(StateType previousState,
+            StateType nextState);
+    
+    /**
+     * Rebuilds a State from the State before it and a delta.
+     * @param previousState The State the delta was computed against.
+     * @param delta A delta returned by <code>diff()</code>.
+     * @return A State equivalent to the one originally passed to
+     * <code>diff()</code> as <code>nextState</code>.
+     */
+    public abstract StateType apply(StateType previousState, DeltaType delta);
+}
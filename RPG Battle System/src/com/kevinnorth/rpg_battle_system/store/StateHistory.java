@@ -0,0 +1,45 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+
+/**
+ * <p>Decides which of the States a Store has moved past are kept around for
+ * later inspection. Every time the Store changes its State, it hands the
+ * State it is leaving to its StateHistory, which may keep it, keep only some
+ * of it, or throw it away.</p>
+ * 
+ * <p>Keeping every State forever is the simplest policy, but a long battle (or
+ * a server hosting many battles at once) will then grow its memory usage
+ * without limit. The bounded implementations in this package keep at most a
+ * fixed number of States in a preallocated array, so the memory used by a
+ * battle's history is a constant you can budget for:</p>
+ * 
+ * <ul>
+ * <li><code>NoStateHistory</code> keeps nothing.</li>
+ * <li><code>UnboundedStateHistory</code> keeps everything. This is what a
+ * Store uses if you don't give it a StateHistory.</li>
+ * <li><code>RingBufferStateHistory</code> keeps the last N States.</li>
+ * <li><code>TimeWindowStateHistory</code> keeps the States that were left
+ * within a window of time.</li>
+ * <li><code>SampledStateHistory</code> keeps every Kth State.</li>
+ * </ul>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ */
+public abstract class StateHistory<StateType extends State> {
+    /**
+     * Called by the Store each time it moves past a State.
+     * @param previousState The State the Store is leaving.
+     */
+    public abstract void record(StateType previousState);
+    
+    /**
+     * @return An immutable List that contains every State this history has
+     * kept, in the order those States occurred, with the oldest State
+     * appearing at the front of the List.
+     */
+    public abstract List<StateType> asList();
+}
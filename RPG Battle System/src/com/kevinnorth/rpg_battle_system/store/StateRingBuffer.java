@@ -0,0 +1,103 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A fixed-capacity, array-backed ring of States that the bounded
+ * StateHistories share. Once the ring is full, adding a State overwrites the
+ * oldest one, so the ring never allocates after it is constructed.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+/* This class's visibility is deliberately set to package visibility,
+ * which is why it isn't prefixed by a visibility modifier. */
+class StateRingBuffer<StateType extends State> {
+    private final Object[] states;
+    private final long[] timestamps;
+    private final List<StateType> view;
+    private int oldest;
+    private int size;
+
+    /**
+     * @param capacity The most States the ring can hold at once.
+     * @param timestamped Whether to keep a timestamp alongside each State.
+     */
+    StateRingBuffer(int capacity, boolean timestamped) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("A StateRingBuffer must be "
+                    + "able to hold at least one State, but its capacity was "
+                    + capacity + ".");
+        }
+        
+        this.states = new Object[capacity];
+        this.timestamps = timestamped ? new long[capacity] : null;
+        this.view = new View();
+    }
+    
+    void add(StateType state) {
+        add(state, 0L);
+    }
+    
+    void add(StateType state, long timestamp) {
+        int slot = (oldest + size) % states.length;
+        
+        if(size == states.length) {
+            oldest = (oldest + 1) % states.length;
+        } else {
+            size++;
+        }
+        
+        states[slot] = state;
+        if(timestamps != null) {
+            timestamps[slot] = timestamp;
+        }
+    }
+    
+    void removeOldest() {
+        states[oldest] = null;
+        oldest = (oldest + 1) % states.length;
+        size--;
+    }
+    
+    @SuppressWarnings("unchecked")
+    StateType get(int index) {
+        return (StateType) states[(oldest + index) % states.length];
+    }
+    
+    long getOldestTimestamp() {
+        return timestamps[oldest];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int capacity() {
+        return states.length;
+    }
+    
+    /**
+     * @return A read-only List view over the ring, oldest State first. The
+     * view reflects later changes to the ring.
+     */
+    List<StateType> asList() {
+        return view;
+    }
+    
+    private class View extends AbstractList<StateType> {
+        @Override
+        public StateType get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index
+                        + ", Size: " + size);
+            }
+            
+            return StateRingBuffer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.kevinnorth.rpg_battle_system.store;
 
+import com.kevinnorth.rpg_battle_system.concurrent.MpscLinkedQueue;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.StoreChangeEvent;
+import com.kevinnorth.rpg_battle_system.instrumentation.jfr.SubscriberNotificationEvent;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import jdk.jfr.EventType;
 
 /**
  * <p>An object that keeps track of the entire mutable state in the battle
@@ -49,9 +54,52 @@ import java.util.Set;
  * Store to see what the State is if they need the State to make decisions but
  * do not need to know when it changes.</p>
  * 
- * <p>The State keeps track of a history of every State that a battle has gone
+ * <p>Subscribers are notified in order of priority, highest first, and in the
+ * order they subscribed when their priorities are equal. Subscribers may
+ * subscribe and unsubscribe objects, including themselves, while they are
+ * being notified; the change takes effect the next time the Store starts
+ * notifying subscribers of a State. If a subscriber
+ * changes the State while it is being notified, the Store doesn't run the
+ * Reducer right away. Instead, the change is queued, and it is applied and
+ * every subscriber is notified of the result once every subscriber has seen
+ * the current State. Queued changes are applied in the order they were made,
+ * so a chain of subscribers reacting to each other never grows the call stack,
+ * every subscriber sees every State, and no subscriber is handed a State the
+ * Store has already moved past. To catch subscribers that keep reacting to
+ * each other forever, the Store gives up with an
+ * <code>IllegalStateException</code> after a maximum number of queued changes
+ * per change.</p>
+ * 
+ * <p>If the Store is given a ReducerRegistry, Actions can be dispatched with
+ * <code>dispatch(action)</code>, and the Store looks up the Reducer for the
+ * Action's class itself.</p>
+ * 
+ * <p>StoreMiddleware can be added to a Store to run code around every
+ * Reducer the Store runs and around alerting its subscribers, for example to
+ * measure how long each Reducer takes.</p>
+ * 
+ * <p>A Store is not meant to be changed by several threads at once. Instead,
+ * one thread owns the Store and is the only one that changes its State. Other
+ * threads, like input threads, network threads, or AI workers, can hand
+ * changes to the owner with <code>submitChange()</code>, which adds them to a
+ * lock-free queue. The owner applies them, in the order they were submitted,
+ * when it calls <code>applySubmittedChanges()</code>. (The Director does this
+ * at the start of every frame.) Any thread can read the current State with
+ * <code>getCurrentState()</code> at any time without waiting. Once a thread
+ * has claimed a Store with <code>claimOwnership()</code>, the Store throws an
+ * <code>IllegalStateException</code> if any other thread tries to change the
+ * State directly. FrameScheduler and HeadlessSimulation claim the Store for
+ * the thread running the battle while they run it. BattleHost runs each frame
+ * on whichever worker thread is free, so it locks the Store with
+ * <code>lockOwnership()</code> between frames, and no thread can change the
+ * State directly for as long as the battle is hosted except the one running
+ * its current frame.</p>
+ * 
+ * <p>The Store keeps track of a history of the States that a battle has gone
  * through over the course of its lifetime. This can be accessed and inspected
- * by any arbitrary object as well.</p>
+ * by any arbitrary object as well. By default, every State is kept; pass a
+ * different StateHistory to the constructor to keep only some of them and cap
+ * the memory the history uses.</p>
  * @param <StateType> The class that the Store uses to keep track of state.
  * Using a generic type allows you to put whatever arbitrary data you wish into
  * the state as well as use different, specialized state classes in different
@@ -62,24 +110,95 @@ import java.util.Set;
  * reasons the StoreStateType is generic.
  */
 public class Store<StateType extends State, ActionType extends Action> {
-    private final Set<StoreSubscriber<StateType>> subscribers;
-    private final List<StateType> stateHistory;
-    private StateType currentState;
+    /**
+     * The default value of <code>getMaxCascadeDepth()</code>.
+     */
+    public static final int DEFAULT_MAX_CASCADE_DEPTH = 1000;
+    
+    /**
+     * The priority given to subscribers that are added without one.
+     */
+    public static final int DEFAULT_SUBSCRIBER_PRIORITY = 0;
+    
+    // Checked once per round of notifications so that no event is allocated
+    // for each subscriber unless a recording has the event enabled.
+    private static final EventType SUBSCRIBER_NOTIFICATION
+            = EventType.getEventType(SubscriberNotificationEvent.class);
+    
+    private final SubscriberRegistry<StateType> subscribers;
+    private final StateHistory<StateType> stateHistory;
+    private final DispatchTable<StateType> dispatchTable;
+    private final ArrayDeque<List<? extends StoreChange<StateType,
+            ? extends ActionType>>> pendingChanges;
+    private final MpscLinkedQueue<StoreChange<StateType, ? extends ActionType>>
+            submittedChanges;
+    private volatile StateType currentState;
+    private final AtomicReference<Thread> ownerThread;
+    private volatile boolean ownershipLocked;
+    private volatile StoreMiddleware<StateType, ActionType>[] middleware;
+    private boolean alertingSubscribers;
+    private int maxCascadeDepth;
     
     /**
+     * Creates a Store that keeps every State the battle is ever in.
      * @param initialState A State describing the battle immediately after
      * starting.
      */
     public Store(StateType initialState) {
-        this.subscribers = new HashSet<>();
-        this.stateHistory = new LinkedList<>();
+        this(initialState, new UnboundedStateHistory<StateType>());
+    }
+    
+    /**
+     * @param initialState A State describing the battle immediately after
+     * starting.
+     * @param stateHistory The policy that decides which previous States are
+     * kept.
+     */
+    public Store(StateType initialState, StateHistory<StateType> stateHistory) {
+        this(initialState, stateHistory, null);
+    }
+    
+    /**
+     * Creates a Store that keeps every State the battle is ever in and can
+     * dispatch Actions to the Reducers in <code>reducers</code>.
+     * @param initialState A State describing the battle immediately after
+     * starting.
+     * @param reducers The Reducer to use for each class of Action passed to
+     * <code>dispatch()</code>.
+     */
+    public Store(StateType initialState,
+            ReducerRegistry<StateType, ActionType> reducers) {
+        this(initialState, new UnboundedStateHistory<StateType>(), reducers);
+    }
+    
+    /**
+     * @param initialState A State describing the battle immediately after
+     * starting.
+     * @param stateHistory The policy that decides which previous States are
+     * kept.
+     * @param reducers The Reducer to use for each class of Action passed to
+     * <code>dispatch()</code>, or <code>null</code> if this Store will only be
+     * changed with explicit Reducers.
+     */
+    public Store(StateType initialState, StateHistory<StateType> stateHistory,
+            ReducerRegistry<StateType, ActionType> reducers) {
+        this.subscribers = new SubscriberRegistry<>();
+        this.stateHistory = stateHistory;
+        this.dispatchTable = reducers == null
+                ? null : new DispatchTable<>(reducers);
+        this.pendingChanges = new ArrayDeque<>();
+        this.submittedChanges = new MpscLinkedQueue<>();
+        this.ownerThread = new AtomicReference<>();
+        this.middleware = newMiddleware(0);
         this.currentState = initialState;
+        this.maxCascadeDepth = DEFAULT_MAX_CASCADE_DEPTH;
     }
 
     /**
      * Gets the Store's current State. This can be used for objects that wish
      * to poll the Store instead of (or in addition to) being notified of
-     * changes via <code>addSubscriber()</code>.
+     * changes via <code>addSubscriber()</code>. This is safe to call from any
+     * thread and never waits.
      * @return The Store's current state.
      */
     public StateType getCurrentState() {
@@ -93,35 +212,278 @@ public class Store<StateType extends State, ActionType extends Action> {
      * @param subscriber The object to sbuscribe to the Store.
      */
     public void addSubscriber(StoreSubscriber<StateType> subscriber) {
-        subscribers.add(subscriber);
+        addSubscriber(subscriber, DEFAULT_SUBSCRIBER_PRIORITY);
+    }
+    
+    /**
+     * Subscribes the specified object to this Store so that any time the
+     * Store's state changes, the object will have a chance to respond to the
+     * changes.
+     * @param subscriber The object to sbuscribe to the Store.
+     * @param priority Subscribers with higher priorities are notified before
+     * subscribers with lower priorities.
+     */
+    public void addSubscriber(StoreSubscriber<StateType> subscriber,
+            int priority) {
+        subscribers.add(subscriber, priority);
     }
     
     /**
-     * Unsubscribes the specified subscriber from updates to the Store state.
+     * Subscribes the specified object to this Store so that it is only
+     * notified when the piece of the State picked out by
+     * <code>selector</code> changes. The selected values are compared with
+     * <code>equals()</code>.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     */
+    public void addSubscriber(StoreSubscriber<StateType> subscriber,
+            Selector<StateType, ?> selector) {
+        addSubscriber(subscriber, selector, SliceComparison.EQUALITY);
+    }
+    
+    /**
+     * Subscribes the specified object to this Store so that it is only
+     * notified when the piece of the State picked out by
+     * <code>selector</code> changes. With many subscribers that each care
+     * about a small part of the State, this avoids waking every one of them
+     * on every change.
+     * @param <SliceType> The type of the value the Selector picks out.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     * @param comparison How to decide whether the selected value changed.
+     */
+    public <SliceType> void addSubscriber(
+            StoreSubscriber<StateType> subscriber,
+            Selector<StateType, SliceType> selector,
+            SliceComparison comparison) {
+        addSubscriber(subscriber, selector, comparison,
+                DEFAULT_SUBSCRIBER_PRIORITY);
+    }
+    
+    /**
+     * Subscribes the specified object to this Store so that it is only
+     * notified when the piece of the State picked out by
+     * <code>selector</code> changes.
+     * @param <SliceType> The type of the value the Selector picks out.
+     * @param subscriber The object to subscribe to the Store.
+     * @param selector Picks out the piece of the State the subscriber cares
+     * about.
+     * @param comparison How to decide whether the selected value changed.
+     * @param priority Subscribers with higher priorities are notified before
+     * subscribers with lower priorities.
+     */
+    public <SliceType> void addSubscriber(
+            StoreSubscriber<StateType> subscriber,
+            Selector<StateType, SliceType> selector,
+            SliceComparison comparison, int priority) {
+        subscribers.add(new SliceSubscription<>(subscriber, selector,
+                comparison, currentState), priority);
+    }
+    
+    /**
+     * Unsubscribes the specified subscriber from updates to the Store state,
+     * whether it was subscribed with or without a Selector.
      * @param subscriber The subscriber to unsubscribe.
      * @return <code>true</code> if the subscriber was removed.
      * <code>false</code> if the subscriber wasn't already subscribed. Either
-     * way, the subscriber will not receive updates after this function is
-     * called.
+     * way, the subscriber will not receive updates after the Store finishes
+     * notifying subscribers of the current State.
      */
     public boolean removeSubscriber(StoreSubscriber<StateType> subscriber) {
         return subscribers.remove(subscriber);
     }
     
     /**
-     * @return An immutable List that contains every State the battle has been
-     * in, in the order those States occurred, with the first State appearing
-     * at the front of the List.  Does not include the current State.
+     * @return An immutable List that contains every State kept by this Store's
+     * StateHistory, in the order those States occurred, with the oldest State
+     * appearing at the front of the List. Does not include the current State.
      */
     public List<StateType> getStateHistory() {
-        return Collections.unmodifiableList(stateHistory);
+        return stateHistory.asList();
+    }
+    
+    /**
+     * Adds middleware that will run around every Reducer this Store runs from
+     * now on. Middleware runs in the order it was added.
+     * @param storeMiddleware The middleware to add.
+     */
+    public synchronized void addMiddleware(
+            StoreMiddleware<StateType, ActionType> storeMiddleware) {
+        StoreMiddleware<StateType, ActionType>[] updated
+                = Arrays.copyOf(middleware,
+                middleware.length + 1);
+        updated[middleware.length] = storeMiddleware;
+        middleware = updated;
+    }
+    
+    /**
+     * @param storeMiddleware The middleware to remove.
+     * @return <code>true</code> if the middleware was removed.
+     * <code>false</code> if it had never been added.
+     */
+    public synchronized boolean removeMiddleware(
+            StoreMiddleware<StateType, ActionType> storeMiddleware) {
+        StoreMiddleware<StateType, ActionType>[] current = middleware;
+        for(int i = 0; i < current.length; i++) {
+            if(current[i] == storeMiddleware) {
+                StoreMiddleware<StateType, ActionType>[] updated
+                        = newMiddleware(current.length - 1);
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i,
+                        current.length - i - 1);
+                middleware = updated;
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @param <MiddlewareType> The class of middleware to look for.
+     * @param middlewareClass The class of middleware to look for.
+     * @return The first middleware added to this Store that is an instance of
+     * <code>middlewareClass</code>, or <code>null</code> if there isn't any.
+     */
+    public <MiddlewareType extends StoreMiddleware<?, ?>> MiddlewareType
+            getMiddleware(Class<MiddlewareType> middlewareClass) {
+        for(StoreMiddleware<StateType, ActionType> storeMiddleware
+                : middleware) {
+            if(middlewareClass.isInstance(storeMiddleware)) {
+                return middlewareClass.cast(storeMiddleware);
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Makes the calling thread the only thread allowed to change this Store's
+     * State directly. Other threads must use <code>submitChange()</code>
+     * instead. Claiming a Store the calling thread already owns does nothing.
+     * @throws IllegalStateException If another thread owns this Store, such
+     * as a FrameScheduler that is running the battle.
+     */
+    public void claimOwnership() {
+        Thread current = Thread.currentThread();
+        while(!ownerThread.compareAndSet(null, current)) {
+            Thread owner = ownerThread.get();
+            if(owner == current) {
+                return;
+            } else if(owner != null) {
+                throw ownedByAnotherThread(owner, "claim it");
+            }
+        }
+    }
+    
+    /**
+     * Allows any thread to change this Store's State directly again. Changing
+     * the State from several threads at once is still not safe.
+     * @throws IllegalStateException If another thread owns this Store.
+     */
+    public void releaseOwnership() {
+        checkNotOwnedByAnotherThread("release it");
+        ownerThread.compareAndSet(Thread.currentThread(), null);
+        ownershipLocked = false;
+    }
+    
+    /**
+     * Gives up the calling thread's ownership without letting other threads
+     * change the State directly. Until a thread claims the Store with
+     * <code>claimOwnership()</code>, no thread can. Use this to hand a Store
+     * from one thread to the next, like a thread pool does between frames,
+     * without a window in which any thread could change it.
+     * @throws IllegalStateException If another thread owns this Store.
+     */
+    public void lockOwnership() {
+        checkNotOwnedByAnotherThread("lock it");
+        ownershipLocked = true;
+        ownerThread.compareAndSet(Thread.currentThread(), null);
+    }
+    
+    /**
+     * @return The thread that owns this Store, or <code>null</code> if no
+     * thread has claimed it or it is locked between owners.
+     */
+    public Thread getOwnerThread() {
+        return ownerThread.get();
+    }
+    
+    /**
+     * Queues a change to be applied by the thread that owns this Store the
+     * next time it calls <code>applySubmittedChanges()</code>. Safe to call
+     * from any thread, and never blocks.
+     * @param reducer The pure function to use to decide what the next State
+     * will be.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     */
+    public <SpecificActionType extends ActionType> void submitChange(
+            Reducer<StateType, SpecificActionType> reducer,
+            SpecificActionType action) {
+        submittedChanges.offer(new StoreChange<>(reducer, action));
+    }
+    
+    /**
+     * Applies every change that has been queued with
+     * <code>submitChange()</code>, in the order they were submitted. Each
+     * change is applied as if by <code>changeState()</code>, so subscribers
+     * are alerted of each one. Must be called by the thread that owns this
+     * Store.
+     * @return The number of changes applied.
+     */
+    public int applySubmittedChanges() {
+        checkOwnerThread();
+        
+        int changesApplied = 0;
+        StoreChange<StateType, ? extends ActionType> change;
+        while((change = submittedChanges.poll()) != null) {
+            if(alertingSubscribers) {
+                pendingChanges.add(Collections.singletonList(change));
+            } else {
+                StateType newState = reduce(change, currentState);
+                setCurrentState(newState);
+                alertSubscribers(newState);
+            }
+            changesApplied++;
+        }
+        
+        return changesApplied;
+    }
+    
+    /**
+     * @return The most changes that can be queued up by subscribers changing
+     * the State in response to a single change before the Store assumes the
+     * subscribers are stuck in a loop.
+     */
+    public int getMaxCascadeDepth() {
+        return maxCascadeDepth;
+    }
+    
+    /**
+     * @param maxCascadeDepth The most changes that can be queued up by
+     * subscribers changing the State in response to a single change before the
+     * Store assumes the subscribers are stuck in a loop.
+     */
+    public void setMaxCascadeDepth(int maxCascadeDepth) {
+        if(maxCascadeDepth < 1) {
+            throw new IllegalArgumentException("The maximum cascade depth must "
+                    + "be at least 1, but was " + maxCascadeDepth + ".");
+        }
+        
+        this.maxCascadeDepth = maxCascadeDepth;
     }
     
     /**
      * Uses a Reducer to change the State of the battle. In addition, all objects
      * that are subscribed to the Store will be alerted and have a chance to
      * respond to the new State before this function returns. The subscribers
-     * may further change the State before this function returns.
+     * may further change the State before this function returns. If this is
+     * called by a subscriber while it is being notified, the change is queued
+     * instead. It is applied, and subscribers are notified of it, after they
+     * have all been notified of the State they are currently responding to.
      * @param reducer The pure function to use to decide what the next State
      * will be.
      * @param action An Action that describes the event that requires the State
@@ -129,34 +491,270 @@ public class Store<StateType extends State, ActionType extends Action> {
      * @return The next State that the battle enters. (This might be identical
      * to the previous State. There will be no special indication if this is the
      * case, and even if the new State is identical to the previous State, all
-     * subscribers will be notified of a state change.)
+     * subscribers will be notified of a state change.) If the change was
+     * queued, the current State, which doesn't include the change yet.
      */
     public <SpecificActionType extends ActionType> StateType
         changeState(Reducer<StateType, SpecificActionType> reducer,
             SpecificActionType action) {
-        StateType newState = reducer.reduce(action, getCurrentState());
+        checkOwnerThread();
+        
+        if(alertingSubscribers) {
+            pendingChanges.add(Collections.singletonList(
+                    new StoreChange<>(reducer, action)));
+            return currentState;
+        }
+        
+        StateType newState = reduce(reducer, action, getCurrentState());
+        setCurrentState(newState);
+        
+        alertSubscribers(newState);
+        
+        return newState;
+    }
+    
+    /**
+     * Changes the State of the battle using the Reducer registered for the
+     * Action's class. Otherwise, this behaves exactly like
+     * <code>changeState()</code>.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     * @return The next State that the battle enters, or the current State if
+     * the change was queued.
+     * @throws IllegalStateException If this Store wasn't given a
+     * ReducerRegistry.
+     * @throws IllegalArgumentException If no Reducer is registered for the
+     * Action's class or any of its superclasses.
+     */
+    @SuppressWarnings("unchecked")
+    public StateType dispatch(ActionType action) {
+        checkOwnerThread();
+        
+        if(dispatchTable == null) {
+            throw new IllegalStateException("This Store was not given a "
+                    + "ReducerRegistry, so it can't choose a Reducer for "
+                    + action.getClass().getName() + " on its own. Use "
+                    + "changeState() instead.");
+        }
+        
+        Reducer<StateType, ActionType> reducer
+                = (Reducer<StateType, ActionType>) dispatchTable.resolve(
+                        action.getClass());
+        return changeState(reducer, action);
+    }
+    
+    /**
+     * @return A read-only map from each class of Action this Store can
+     * dispatch to the Reducer that handles it. Empty if this Store wasn't
+     * given a ReducerRegistry.
+     */
+    public Map<Class<?>, Reducer<StateType, ?>> getRegisteredReducers() {
+        if(dispatchTable == null) {
+            return Collections.emptyMap();
+        }
+        
+        return dispatchTable.getRegisteredReducers();
+    }
+    
+    /**
+     * <p>Applies several Reducers, one after the other, as a single change to
+     * the State of the battle. Each Reducer receives the State returned by the
+     * one before it. Only the final State is added to the history, and all
+     * objects that are subscribed to the Store are alerted once, with the
+     * final State, instead of once per Reducer.</p>
+     * 
+     * <p>Use this when a single event, like an attack, needs to run several
+     * Reducers in a row (applying damage, spending mana, advancing the turn
+     * order) and nothing needs to respond to the States in between.</p>
+     * 
+     * <p>Like <code>changeState()</code>, if this is called by a subscriber
+     * while it is being notified, the changes are queued and applied together
+     * once every subscriber has been notified of the current State.</p>
+     * @param changes The Reducers to run and the Actions to give them, in
+     * order.
+     * @return The State that the battle enters after every change has been
+     * applied. If <code>changes</code> is empty, the State doesn't change and
+     * no subscribers are notified. If the changes were queued, the current
+     * State, which doesn't include them yet.
+     */
+    public StateType changeStates(
+            List<? extends StoreChange<StateType, ? extends ActionType>>
+                    changes) {
+        checkOwnerThread();
+        
+        if(changes.isEmpty()) {
+            return currentState;
+        }
+        if(alertingSubscribers) {
+            pendingChanges.add(changes);
+            return currentState;
+        }
+        
+        StateType newState = reduceAll(changes, currentState);
         setCurrentState(newState);
         
-        alertSubscribers();
+        alertSubscribers(newState);
+        
+        return newState;
+    }
+        
+    private StateType reduceAll(
+            List<? extends StoreChange<StateType, ? extends ActionType>>
+                    changes, StateType previousState) {
+        StateType newState = previousState;
+        for(StoreChange<StateType, ? extends ActionType> change : changes) {
+            newState = reduce(change, newState);
+        }
         
         return newState;
     }
+    
+    private <SpecificActionType extends ActionType> StateType reduce(
+            StoreChange<StateType, SpecificActionType> change,
+            StateType previousState) {
+        return reduce(change.getReducer(), change.getAction(), previousState);
+    }
+    
+    private <SpecificActionType extends ActionType> StateType reduce(
+            Reducer<StateType, SpecificActionType> reducer,
+            SpecificActionType action, StateType previousState) {
+        StoreMiddleware<StateType, ActionType>[] currentMiddleware
+                = middleware;
+        
+        for(StoreMiddleware<StateType, ActionType> storeMiddleware
+                : currentMiddleware) {
+            storeMiddleware.beforeReduce(reducer, action, previousState);
+        }
         
-    private void alertSubscribers() {
-        // Use a for loop instead of a stream to ensure that
-        // the subscribers are updated without paralellism,
-        // avoiding race conditions.
-        for(StoreSubscriber subscriber : subscribers) {
-            boolean didStateUpdateRecursively =
-                    subscriber.recieveNewState(currentState);
-            if(didStateUpdateRecursively) {
-                break;
+        StateType newState = null;
+        try {
+            StoreChangeEvent event = new StoreChangeEvent();
+            event.begin();
+            newState = reducer.reduce(action, previousState);
+            event.end();
+            if(event.shouldCommit()) {
+                event.reducerClass = reducer.getClass();
+                event.actionClass = action.getClass();
+                event.commit();
+            }
+        } finally {
+            for(int i = currentMiddleware.length - 1; i >= 0; i--) {
+                currentMiddleware[i].afterReduce(reducer, action,
+                        previousState, newState);
+            }
+        }
+        
+        return newState;
+    }
+    
+    private void alertSubscribers(StateType newState) {
+        StoreMiddleware<StateType, ActionType>[] currentMiddleware
+                = middleware;
+        for(StoreMiddleware<StateType, ActionType> storeMiddleware
+                : currentMiddleware) {
+            storeMiddleware.beforeAlertSubscribers(newState);
+        }
+        
+        alertingSubscribers = true;
+        try {
+            int changesApplied = 0;
+            StateType state = newState;
+            
+            // Use a for loop instead of a stream to ensure that
+            // the subscribers are updated without paralellism,
+            // avoiding race conditions.
+            while(true) {
+                boolean recordNotifications
+                        = SUBSCRIBER_NOTIFICATION.isEnabled();
+                for(SubscriberRegistry.Entry<StateType> entry
+                        : subscribers.snapshot()) {
+                    if(!recordNotifications) {
+                        entry.subscriber.recieveNewState(state);
+                        continue;
+                    }
+                    SubscriberNotificationEvent event
+                            = new SubscriberNotificationEvent();
+                    event.begin();
+                    entry.subscriber.recieveNewState(state);
+                    event.end();
+                    if(event.shouldCommit()) {
+                        event.subscriberClass = entry.subscriberClass();
+                        event.commit();
+                    }
+                }
+                
+                // Subscribers changed the State while being notified. Apply
+                // their changes now that every subscriber has seen the State
+                // they were responding to.
+                List<? extends StoreChange<StateType, ? extends ActionType>>
+                        changes = pendingChanges.poll();
+                if(changes == null) {
+                    break;
+                }
+                if(++changesApplied > maxCascadeDepth) {
+                    throw new IllegalStateException("Subscribers changed the "
+                            + "State more than " + maxCascadeDepth + " times "
+                            + "in response to a single change. Are two "
+                            + "subscribers changing the State in response to "
+                            + "each other forever?");
+                }
+                
+                state = reduceAll(changes, currentState);
+                setCurrentState(state);
+            }
+        } finally {
+            pendingChanges.clear();
+            alertingSubscribers = false;
+            
+            for(int i = currentMiddleware.length - 1; i >= 0; i--) {
+                currentMiddleware[i].afterAlertSubscribers(newState);
             }
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private StoreMiddleware<StateType, ActionType>[] newMiddleware(
+            int length) {
+        return (StoreMiddleware<StateType, ActionType>[])
+                new StoreMiddleware<?, ?>[length];
+    }
+
     private void setCurrentState(StateType newState) {
-        stateHistory.add(currentState);
+        stateHistory.record(currentState);
         currentState = newState;
     }
+    
+    private void checkNotOwnedByAnotherThread(String attempt) {
+        Thread owner = ownerThread.get();
+        if(owner != null && owner != Thread.currentThread()) {
+            throw ownedByAnotherThread(owner, attempt);
+        }
+    }
+    
+    private IllegalStateException ownedByAnotherThread(Thread owner,
+            String attempt) {
+        return new IllegalStateException("The Store is owned by thread \""
+                + owner.getName() + "\", so thread \""
+                + Thread.currentThread().getName() + "\" can't " + attempt
+                + ".");
+    }
+    
+    private void checkOwnerThread() {
+        Thread owner = ownerThread.get();
+        if(owner == null) {
+            if(ownershipLocked) {
+                throw new IllegalStateException("The Store is locked between "
+                        + "owners, but thread \""
+                        + Thread.currentThread().getName() + "\" tried to "
+                        + "change its State. Use submitChange() to change the "
+                        + "State from other threads.");
+            }
+        } else if(owner != Thread.currentThread()) {
+            throw new IllegalStateException("The Store is owned by thread \""
+                    + owner.getName() + "\", but thread \""
+                    + Thread.currentThread().getName() + "\" tried to change "
+                    + "its State. Use submitChange() to change the State from "
+                    + "other threads.");
+        }
+    }
 }
\ No newline at end of file
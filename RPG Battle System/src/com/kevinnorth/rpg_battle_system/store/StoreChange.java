@@ -0,0 +1,37 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * A Reducer paired with the Action it should reduce. Used to hand several
+ * changes to the Store at once with <code>Store.changeStates()</code>.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <ActionType> The class of Action that the Reducer accepts.
+ */
+public final class StoreChange<StateType extends State,
+        ActionType extends Action> {
+    private final Reducer<StateType, ActionType> reducer;
+    private final ActionType action;
+
+    /**
+     * @param reducer The pure function to use to decide what the next State
+     * will be.
+     * @param action An Action that describes the event that requires the State
+     * to change.
+     */
+    public StoreChange(Reducer<StateType, ActionType> reducer,
+            ActionType action) {
+        this.reducer = reducer;
+        this.action = action;
+    }
+
+    public Reducer<StateType, ActionType> getReducer() {
+        return reducer;
+    }
+
+    public ActionType getAction() {
+        return action;
+    }
+}
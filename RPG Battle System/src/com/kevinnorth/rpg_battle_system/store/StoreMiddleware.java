@@ -0,0 +1,64 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+/**
+ * <p>Code that runs around every Reducer the Store runs, and around every
+ * time the Store alerts its subscribers. Middleware can be used to log
+ * Actions, validate States, or measure how long each Reducer takes, without
+ * touching the Reducers themselves.</p>
+ * 
+ * <p>When several pieces of middleware are added to a Store, their
+ * <code>before</code> methods run in the order they were added, and their
+ * <code>after</code> methods run in the opposite order, so each piece of
+ * middleware wraps the ones added after it.</p>
+ * 
+ * <p>Middleware should not change the Store's State. Every method does nothing
+ * by default, so you only need to override the ones you need.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ * Using a generic type allows you to put whatever arbitrary data you wish into
+ * the state as well as use different, specialized state classes in different
+ * battles, but still gives you compile-time type checking to ensure that all of
+ * your code is interacting with the state object correctly.
+ * @param <ActionType> The class that the Store uses to describe actions
+ * when changing the state using a reducer. A generic type is used for the same
+ * reasons the StoreStateType is generic.
+ */
+public abstract class StoreMiddleware<StateType extends State,
+        ActionType extends Action> {
+    /**
+     * Called right before a Reducer runs.
+     * @param reducer The Reducer that is about to run.
+     * @param action The Action it is about to reduce.
+     * @param previousState The State it is about to reduce from.
+     */
+    public void beforeReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState) { }
+    
+    /**
+     * Called right after a Reducer returns, even if it threw an exception.
+     * @param reducer The Reducer that ran.
+     * @param action The Action it reduced.
+     * @param previousState The State it reduced from.
+     * @param newState The State it returned, or <code>null</code> if it
+     * threw an exception.
+     */
+    public void afterReduce(Reducer<StateType, ?> reducer,
+            ActionType action, StateType previousState, StateType newState) { }
+    
+    /**
+     * Called right before the Store starts alerting its subscribers of a new
+     * State. If subscribers change the State while being alerted, the Store
+     * alerts them of those States too before calling
+     * <code>afterAlertSubscribers()</code>, so this isn't called again for
+     * them.
+     * @param newState The State the subscribers are about to be alerted of.
+     */
+    public void beforeAlertSubscribers(StateType newState) { }
+    
+    /**
+     * Called right after the Store has finished alerting its subscribers,
+     * even if a subscriber threw an exception.
+     * @param newState The State passed to
+     * <code>beforeAlertSubscribers()</code>.
+     */
+    public void afterAlertSubscribers(StateType newState) { }
+}
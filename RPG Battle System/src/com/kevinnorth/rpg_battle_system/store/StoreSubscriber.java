@@ -28,15 +28,11 @@ package com.kevinnorth.rpg_battle_system.store;
 public interface StoreSubscriber<StateType> {
     /**
      * <p>Called whenever a Store that this StoreSubscriber is subscribed to
-     * changes its state. You can change the state again within this function,
-     * but be sure to return the correct value whether you change the state
-     * or not:</p>
-     * 
-     * <ul>
-     * <li> Return <code>false</code> if you do <b>not</b> modify the state
-     * before returning from this function.</li>
-     * <li> Return <code>true</code> if you <b>do</b> modify the state.
-     * </ul>
+     * changes its state. You can change the state again within this function.
+     * If you do, the Store queues the change and only applies it once every
+     * subscriber has been called with <code>newState</code>, so
+     * <code>newState</code> is still the Store's current state while every
+     * subscriber is responding to it.</p>
      * 
      * <p>Remember, to modify the state, you need to call
      * <code>store.changeState()</code> with an appropriate <code>Action</code>
@@ -44,8 +40,9 @@ public interface StoreSubscriber<StateType> {
      * 
      * @param newState The new State object from the Store.
      * @return <code>true</code> if you call <code>store.changeState()</code>
-     * before returning. <code>false</code> otherwise. <i>Returning the
-     * wrong value will lead to unpredictable bugs!</i>
+     * before returning. <code>false</code> otherwise. The Store no longer
+     * relies on this value, since it queues changes made while it is
+     * notifying subscribers, but it is still useful for debugging.
      */
     public boolean recieveNewState(StateType newState);
 }
@@ -0,0 +1,127 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Arrays;
+
+/**
+ * <p>The list of a Store's subscribers, kept in a copy-on-write array.</p>
+ * 
+ * <p>Adding or removing a subscriber builds a new array and swaps it in, so
+ * the array being notified is never modified. A subscriber can safely add or
+ * remove subscribers, including itself, while it is being notified; the change
+ * takes effect the next time the Store starts notifying subscribers of a
+ * State. Notifying subscribers just walks the current array, so it never
+ * allocates or takes a lock.</p>
+ * 
+ * <p>Subscribers are kept in priority order, highest first. Subscribers with
+ * the same priority are kept in the order they were added.</p>
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+/* This class's visibility is deliberately set to package visibility,
+ * which is why it isn't prefixed by a visibility modifier. */
+final class SubscriberRegistry<StateType> {
+    private volatile Entry<StateType>[] entries;
+
+    SubscriberRegistry() {
+        this.entries = newEntries(0);
+    }
+    
+    /**
+     * @return The subscribers as of right now, in the order they should be
+     * notified. The array is never modified after it is returned.
+     */
+    Entry<StateType>[] snapshot() {
+        return entries;
+    }
+    
+    /**
+     * @param subscriber The subscriber to add. Nothing happens if it, or the
+     * subscriber it wraps, was already added, with or without a Selector.
+     * @param priority Subscribers with higher priorities are notified first.
+     */
+    synchronized void add(StoreSubscriber<StateType> subscriber,
+            int priority) {
+        Entry<StateType>[] current = entries;
+        StoreSubscriber<StateType> unwrapped = unwrap(subscriber);
+        for(Entry<StateType> entry : current) {
+            if(entry.unwrapped.equals(unwrapped)) {
+                return;
+            }
+        }
+        
+        int position = current.length;
+        while(position > 0 && current[position - 1].priority < priority) {
+            position--;
+        }
+        
+        Entry<StateType>[] updated = newEntries(current.length + 1);
+        System.arraycopy(current, 0, updated, 0, position);
+        updated[position] = new Entry<>(subscriber, unwrapped, priority);
+        System.arraycopy(current, position, updated, position + 1,
+                current.length - position);
+        entries = updated;
+    }
+    
+    /**
+     * Removes a subscriber, including any SliceSubscriptions wrapping it.
+     * @param subscriber The subscriber to remove.
+     * @return <code>true</code> if anything was removed.
+     */
+    synchronized boolean remove(StoreSubscriber<StateType> subscriber) {
+        Entry<StateType>[] current = entries;
+        Entry<StateType>[] updated = newEntries(current.length);
+        int kept = 0;
+        
+        for(Entry<StateType> entry : current) {
+            if(!entry.subscriber.equals(subscriber)
+                    && !entry.unwrapped.equals(subscriber)) {
+                updated[kept++] = entry;
+            }
+        }
+        
+        if(kept == current.length) {
+            return false;
+        }
+        
+        entries = Arrays.copyOf(updated, kept);
+        return true;
+    }
+    
+    private static <StateType> StoreSubscriber<StateType> unwrap(
+            StoreSubscriber<StateType> subscriber) {
+        if(subscriber instanceof SliceSubscription) {
+            return ((SliceSubscription<StateType, ?>) subscriber)
+                    .getSubscriber();
+        }
+        
+        return subscriber;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <StateType> Entry<StateType>[] newEntries(int length) {
+        return (Entry<StateType>[]) new Entry<?>[length];
+    }
+    
+    static final class Entry<StateType> {
+        /* The subscriber to notify, which may be a SliceSubscription. */
+        final StoreSubscriber<StateType> subscriber;
+        /* The subscriber that was added, without any SliceSubscription
+        wrapping it. */
+        final StoreSubscriber<StateType> unwrapped;
+        final int priority;
+
+        Entry(StoreSubscriber<StateType> subscriber,
+                StoreSubscriber<StateType> unwrapped, int priority) {
+            this.subscriber = subscriber;
+            this.unwrapped = unwrapped;
+            this.priority = priority;
+        }
+        
+        /**
+         * @return The class of the subscriber that was added, rather than of
+         * the SliceSubscription wrapping it, if there is one.
+         */
+        Class<?> subscriberClass() {
+            return unwrapped.getClass();
+        }
+    }
+}
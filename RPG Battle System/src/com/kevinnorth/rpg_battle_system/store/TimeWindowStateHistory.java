@@ -0,0 +1,53 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+
+/**
+ * A StateHistory that keeps the States the Store left within a recent window
+ * of time, such as the last thirty seconds of a battle. Because a burst of
+ * State changes could otherwise fill the window with any number of States, the
+ * history also has a fixed capacity; if it fills up before States age out of
+ * the window, the oldest States are dropped early.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+public class TimeWindowStateHistory<StateType extends State>
+        extends StateHistory<StateType> {
+    private final StateRingBuffer<StateType> states;
+    private final long windowNanos;
+
+    /**
+     * @param windowSeconds How long, in seconds, a State is kept after the
+     * Store leaves it.
+     * @param capacity The most States to keep at once, regardless of how
+     * recently they were left.
+     */
+    public TimeWindowStateHistory(float windowSeconds, int capacity) {
+        if(windowSeconds <= 0) {
+            throw new IllegalArgumentException("The time window must be "
+                    + "positive, but was " + windowSeconds + " seconds.");
+        }
+        
+        this.states = new StateRingBuffer<>(capacity, true);
+        this.windowNanos = (long) (windowSeconds * 1_000_000_000d);
+    }
+    
+    @Override
+    public void record(StateType previousState) {
+        long now = System.nanoTime();
+        removeExpiredStates(now);
+        states.add(previousState, now);
+    }
+
+    @Override
+    public List<StateType> asList() {
+        removeExpiredStates(System.nanoTime());
+        return states.asList();
+    }
+    
+    private void removeExpiredStates(long now) {
+        while(states.size() > 0
+                && now - states.getOldestTimestamp() > windowNanos) {
+            states.removeOldest();
+        }
+    }
+}
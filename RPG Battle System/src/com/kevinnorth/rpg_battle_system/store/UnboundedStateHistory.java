@@ -0,0 +1,33 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A StateHistory that keeps every State the Store has ever been in. This is
+ * the history a Store uses if it isn't given a different one. Its memory usage
+ * grows for as long as the battle goes on, so prefer one of the bounded
+ * histories for long battles.
+ * @param <StateType> The class that the Store uses to keep track of state.
+ */
+public class UnboundedStateHistory<StateType extends State>
+        extends StateHistory<StateType> {
+    private final List<StateType> states;
+    private final List<StateType> unmodifiableStates;
+
+    public UnboundedStateHistory() {
+        this.states = new ArrayList<>();
+        this.unmodifiableStates = Collections.unmodifiableList(states);
+    }
+    
+    @Override
+    public void record(StateType previousState) {
+        states.add(previousState);
+    }
+
+    @Override
+    public List<StateType> asList() {
+        return unmodifiableStates;
+    }
+}
@@ -1,9 +1,22 @@
 package com.kevinnorth.rpg_battle_system;
 
+import com.kevinnorth.rpg_battle_system.configuration.Configuration;
+import com.kevinnorth.rpg_battle_system.logic.LogicMachine;
+import com.kevinnorth.rpg_battle_system.logic.LogicMachineTransitionAction;
+import com.kevinnorth.rpg_battle_system.logic.LogicState;
+import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.Reducer;
+import com.kevinnorth.rpg_battle_system.store.State;
+import com.kevinnorth.rpg_battle_system.store.Store;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
 public class DirectorTest {
+    private Director<CounterState, IncrementAction, TestConfiguration>
+            director;
     
     public DirectorTest() {
     }
@@ -14,4 +27,67 @@ public class DirectorTest {
         fail("The test case is a prototype.");
     }
     
+    @Test
+    public void aChangeMadeWhileRespondingToANewStateReturnsTheCurrentState() {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final List<CounterState> returned = new ArrayList<>();
+        LogicState<CounterState, IncrementAction, TestTransition,
+                TestConfiguration> respondingState = new LogicState<
+                        CounterState, IncrementAction, TestTransition,
+                        TestConfiguration>(null) {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                if(newState.count != 1) {
+                    return false;
+                }
+                
+                returned.add(director.changeStoreState(
+                        new IncrementReducer(), new IncrementAction()));
+                return true;
+            }
+            
+            @Override
+            public void handleInput(InputEvent inputEvent) { }
+            
+            @Override
+            public void handleFrame(float deltaTime) { }
+        };
+        director = new Director<>(store,
+                new LogicMachine<CounterState, IncrementAction, TestTransition,
+                        TestConfiguration>(null, respondingState), null,
+                new TestConfiguration());
+        
+        CounterState result = director.changeStoreState(
+                new IncrementReducer(), new IncrementAction());
+        
+        assertEquals(1, result.count);
+        assertEquals(1, returned.size());
+        assertEquals(1, returned.get(0).count);
+        assertSame(result, returned.get(0));
+        assertEquals(2, store.getCurrentState().count);
+    }
+    
+    private static class CounterState extends State {
+        final int count;
+        
+        CounterState(int count) {
+            this.count = count;
+        }
+    }
+    
+    private static class IncrementAction extends Action { }
+    
+    private static class IncrementReducer
+            extends Reducer<CounterState, IncrementAction> {
+        @Override
+        public CounterState reduce(IncrementAction action,
+                CounterState previousState) {
+            return new CounterState(previousState.count + 1);
+        }
+    }
+    
+    private static class TestTransition extends LogicMachineTransitionAction { }
+    
+    private static class TestConfiguration extends Configuration { }
 }
@@ -0,0 +1,83 @@
+package com.kevinnorth.rpg_battle_system.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MpscLinkedQueueTest {
+    
+    @Test
+    public void elementsComeOutInOrder() {
+        MpscLinkedQueue<Integer> queue = new MpscLinkedQueue<>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        
+        for(int i = 0; i < 100; i++) {
+            queue.offer(i);
+        }
+        assertFalse(queue.isEmpty());
+        for(int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+    
+    @Test(expected = NullPointerException.class)
+    public void nullIsRejected() {
+        new MpscLinkedQueue<Object>().offer(null);
+    }
+    
+    @Test
+    public void concurrentProducersLoseNothingAndKeepTheirOwnOrder()
+            throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 200000;
+        final MpscLinkedQueue<long[]> queue = new MpscLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        
+        Thread[] threads = new Thread[producers];
+        for(int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch(InterruptedException e) {
+                        return;
+                    }
+                    for(int i = 0; i < perProducer; i++) {
+                        queue.offer(new long[] { producer, i });
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+        
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + 30000000000L;
+        while(received < producers * perProducer) {
+            long[] element = queue.poll();
+            if(element == null) {
+                assertTrue("Timed out waiting for elements",
+                        System.nanoTime() < deadline);
+                Thread.yield();
+                continue;
+            }
+            
+            int producer = (int) element[0];
+            assertEquals(nextExpected[producer], element[1]);
+            nextExpected[producer]++;
+            received++;
+        }
+        
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+    }
+}
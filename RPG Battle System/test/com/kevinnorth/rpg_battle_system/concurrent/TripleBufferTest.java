@@ -0,0 +1,89 @@
+package com.kevinnorth.rpg_battle_system.concurrent;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TripleBufferTest {
+    
+    @Test
+    public void theConsumerSeesTheLatestPublishedBuffer() {
+        long[] first = new long[1];
+        long[] second = new long[1];
+        long[] third = new long[1];
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(first, second, third);
+        
+        assertSame(first, buffer.getReadBuffer());
+        assertFalse(buffer.hasNewValue());
+        
+        buffer.getWriteBuffer()[0] = 1;
+        buffer.publish();
+        assertTrue(buffer.hasNewValue());
+        long[] read = buffer.getReadBuffer();
+        assertEquals(1, read[0]);
+        assertFalse(buffer.hasNewValue());
+        
+        // Nothing new: the same buffer again.
+        assertSame(read, buffer.getReadBuffer());
+    }
+    
+    @Test
+    public void valuesTheConsumerMissedAreSkipped() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1],
+                new long[1], new long[1]);
+        
+        for(long value = 1; value <= 5; value++) {
+            buffer.getWriteBuffer()[0] = value;
+            buffer.publish();
+        }
+        
+        assertEquals(5, buffer.getReadBuffer()[0]);
+    }
+    
+    @Test
+    public void theProducerAndConsumerNeverShareABuffer() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1],
+                new long[1], new long[1]);
+        
+        for(int i = 0; i < 20; i++) {
+            long[] read = buffer.getReadBuffer();
+            assertNotSame(read, buffer.getWriteBuffer());
+            buffer.publish();
+            assertNotSame(read, buffer.getWriteBuffer());
+            if(i % 3 == 0) {
+                buffer.publish();
+            }
+        }
+    }
+    
+    @Test
+    public void aConcurrentConsumerNeverSeesATornOrOlderValue()
+            throws InterruptedException {
+        final int values = 1000000;
+        final TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[2],
+                new long[2], new long[2]);
+        
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for(long value = 1; value <= values; value++) {
+                    long[] write = buffer.getWriteBuffer();
+                    write[0] = value;
+                    write[1] = -value;
+                    buffer.publish();
+                }
+            }
+        });
+        producer.start();
+        
+        long last = 0;
+        while(last < values) {
+            long[] read = buffer.getReadBuffer();
+            assertEquals(read[0], -read[1]);
+            assertTrue(read[0] >= last);
+            last = read[0];
+        }
+        
+        producer.join();
+        assertEquals(values, last);
+    }
+}
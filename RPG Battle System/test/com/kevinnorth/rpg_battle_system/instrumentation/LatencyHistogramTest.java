@@ -0,0 +1,81 @@
+package com.kevinnorth.rpg_battle_system.instrumentation;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    
+    @Test
+    public void anEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0d, histogram.getMeanNanos(), 0d);
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+    
+    @Test
+    public void smallDurationsAreRecordedExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long nanos = 0; nanos < 8; nanos++) {
+            histogram.record(nanos);
+        }
+        
+        assertEquals(8, histogram.getCount());
+        assertEquals(7, histogram.getMaxNanos());
+        assertEquals(3.5d, histogram.getMeanNanos(), 0d);
+        assertEquals(3, histogram.getPercentileNanos(50));
+        assertEquals(7, histogram.getPercentileNanos(100));
+        assertEquals(0, histogram.getPercentileNanos(0));
+    }
+    
+    @Test
+    public void percentilesAreWithinAnEighthOfTheTrueValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long nanos = 1; nanos <= 100000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        
+        double[] percentiles = { 1, 10, 50, 90, 99, 99.9 };
+        for(double percentile : percentiles) {
+            long expected = (long) Math.ceil(percentile * 1000) * 1000;
+            long actual = histogram.getPercentileNanos(percentile);
+            assertTrue(percentile + ": " + actual, actual >= expected);
+            assertTrue(percentile + ": " + actual,
+                    actual <= expected + expected / 8);
+        }
+        assertEquals(100000000, histogram.getPercentileNanos(100));
+    }
+    
+    @Test
+    public void extremeDurationsAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(50));
+        assertEquals(Long.MAX_VALUE, histogram.getMaxNanos());
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+    }
+    
+    @Test
+    public void addAndResetCombineAndForgetDurations() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(30);
+        second.record(50);
+        
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(50, first.getMaxNanos());
+        assertEquals(30d, first.getMeanNanos(), 0d);
+        assertEquals(2, second.getCount());
+        
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getMaxNanos());
+        assertEquals(0, first.getPercentileNanos(99));
+    }
+}
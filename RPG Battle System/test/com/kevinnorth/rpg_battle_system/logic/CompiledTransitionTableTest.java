@@ -0,0 +1,127 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.store.State;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CompiledTransitionTableTest {
+    private LogicStateIds stateIds;
+    private int start;
+    private int child;
+    private int guarded;
+    private int end;
+    private int[] parentIds;
+
+    @Before
+    public void setUp() {
+        stateIds = new LogicStateIds();
+        start = stateIds.add("Start");
+        child = stateIds.add("Child");
+        guarded = stateIds.add("Guarded");
+        end = stateIds.add("End");
+
+        parentIds = new int[] {LogicStateIds.NO_STATE, start,
+            LogicStateIds.NO_STATE, LogicStateIds.NO_STATE};
+    }
+
+    @Test
+    public void subclassesOfAnActionUseItsRows() {
+        CompiledTransitionTable<TestState, TestAction> table = compile(
+                new TransitionTable<TestState, TestAction>()
+                        .add("Start", TestAction.class, "Child")
+                        .add("Child", OtherAction.class, "Guarded")
+                        .add("Guarded", OtherAction.class, "End"));
+
+        assertEquals(child, table.resolve(start, null, new TestAction()));
+        assertEquals(child, table.resolve(start, null, new SubAction()));
+        assertEquals(child, table.resolve(start, null, new SubAction()));
+        assertEquals(LogicStateIds.NO_STATE,
+                table.resolve(end, null, new SubAction()));
+    }
+
+    @Test
+    public void aSuperclassRowStillAppliesWhenAnotherStateUsesASubclass() {
+        CompiledTransitionTable<TestState, TestAction> table = compile(
+                new TransitionTable<TestState, TestAction>()
+                        .add("Start", TestAction.class, "Guarded")
+                        .add("Guarded", SubAction.class, "End")
+                        .add("Start", SubAction.class, "End")
+                        .addEntryState("Child"));
+
+        assertEquals(guarded, table.resolve(start, null, new SubAction()));
+        assertEquals(guarded, table.resolve(start, null, new TestAction()));
+        assertEquals(end, table.resolve(guarded, null, new SubAction()));
+        assertEquals(LogicStateIds.NO_STATE,
+                table.resolve(guarded, null, new TestAction()));
+        assertEquals(guarded, table.resolve(child, null, new SubAction()));
+    }
+
+    @Test
+    public void aChildFallsThroughToItsParentsRows() {
+        CompiledTransitionTable<TestState, TestAction> table = compile(
+                new TransitionTable<TestState, TestAction>()
+                        .add("Start", OtherAction.class, "Child")
+                        .add("Start", TestAction.class, "Guarded")
+                        .add("Child", SubAction.class, "End"));
+
+        assertEquals(end, table.resolve(child, null, new SubAction()));
+        assertEquals(child, table.resolve(child, null, new OtherAction()));
+        assertEquals(guarded, table.resolve(child, null, new TestAction()));
+    }
+
+    @Test
+    public void aChildsOwnSuperclassRowsComeBeforeItsParentsRows() {
+        CompiledTransitionTable<TestState, TestAction> table = compile(
+                new TransitionTable<TestState, TestAction>()
+                        .add("Start", OtherAction.class, "Child")
+                        .add("Start", TestAction.class, "Guarded")
+                        .add("Child", TestAction.class, "End"));
+
+        assertEquals(end, table.resolve(child, null, new OtherAction()));
+        assertEquals(child, table.resolve(start, null, new OtherAction()));
+    }
+
+    @Test
+    public void theFirstRowWhoseGuardAllowsItIsTaken() {
+        TransitionGuard<TestState, TestAction> never
+                = new TransitionGuard<TestState, TestAction>() {
+            @Override
+            public boolean allows(TestState currentStoreState,
+                    TestAction action) {
+                return false;
+            }
+        };
+        CompiledTransitionTable<TestState, TestAction> table = compile(
+                new TransitionTable<TestState, TestAction>()
+                        .add("Start", TestAction.class, never, "End")
+                        .add("Start", TestAction.class, "Guarded")
+                        .add("Guarded", TestAction.class, never, "End")
+                        .addEntryState("Child")
+                        .addEntryState("End"));
+
+        assertEquals(guarded, table.resolve(start, null, new TestAction()));
+        assertEquals(LogicStateIds.NO_STATE,
+                table.resolve(guarded, null, new TestAction()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unreachableLogicStatesAreRejected() {
+        compile(new TransitionTable<TestState, TestAction>()
+                .add("Start", TestAction.class, "Guarded"));
+    }
+
+    private CompiledTransitionTable<TestState, TestAction> compile(
+            TransitionTable<TestState, TestAction> table) {
+        return CompiledTransitionTable.compile(table, stateIds, start,
+                parentIds);
+    }
+
+    private static class TestState extends State { }
+
+    private static class TestAction extends LogicMachineTransitionAction { }
+
+    private static class SubAction extends TestAction { }
+
+    private static class OtherAction extends TestAction { }
+}
@@ -0,0 +1,288 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import com.kevinnorth.rpg_battle_system.configuration.Configuration;
+import com.kevinnorth.rpg_battle_system.reciever.InputEvent;
+import com.kevinnorth.rpg_battle_system.store.Action;
+import com.kevinnorth.rpg_battle_system.store.State;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LogicMachineTest {
+    private LogicMachine<TestState, TestAction, TestTransition, TestConfiguration>
+            machine;
+    private int startId;
+
+    @Before
+    public void setUp() {
+        TestLogicState start = new TestLogicState(null);
+        machine = new LogicMachine<>(null, start);
+        startId = machine.addLogicState("Start", start);
+    }
+
+    @Test
+    public void theLeastRecentlyEnteredLazyStatesAreEvictedFirst() {
+        TestFactory a = new TestFactory(false);
+        TestFactory b = new TestFactory(false);
+        TestFactory c = new TestFactory(false);
+        int aId = machine.addLogicState("A", a);
+        int bId = machine.addLogicState("B", b);
+        int cId = machine.addLogicState("C", c);
+        machine.setMaxLoadedLazyStates(2);
+
+        machine.changeMachineState(aId);
+        machine.changeMachineState(bId);
+        machine.changeMachineState(aId);
+        machine.changeMachineState(cId);
+
+        assertTrue(machine.isLogicStateLoaded("A"));
+        assertFalse(machine.isLogicStateLoaded("B"));
+        assertTrue(machine.isLogicStateLoaded("C"));
+        assertEquals(0, a.disposed);
+        assertEquals(1, b.disposed);
+
+        machine.changeMachineState(bId);
+
+        assertFalse(machine.isLogicStateLoaded("A"));
+        assertTrue(machine.isLogicStateLoaded("C"));
+        assertEquals(2, b.created);
+        assertEquals(1, a.disposed);
+    }
+
+    @Test
+    public void activeLazyStatesAreNeverEvicted() {
+        TestFactory parent = new TestFactory(true);
+        TestFactory child = new TestFactory(true);
+        machine.addLogicState("Parent", parent);
+        int childId = machine.addLogicState("Child", child);
+        machine.setParentState("Child", "Parent");
+        machine.setMaxLoadedLazyStates(1);
+
+        machine.changeMachineState(childId);
+
+        assertTrue(machine.isLogicStateLoaded("Parent"));
+        assertTrue(machine.isLogicStateLoaded("Child"));
+        assertEquals(0, parent.disposed);
+        assertEquals(0, child.disposed);
+        try {
+            machine.evictLogicState("Parent");
+            fail("The parent of the current LogicState was evicted.");
+        } catch(IllegalArgumentException e) {
+            assertTrue(machine.isLogicStateLoaded("Parent"));
+        }
+
+        machine.changeMachineState(startId);
+
+        assertFalse(machine.isLogicStateLoaded("Parent"));
+        assertFalse(machine.isLogicStateLoaded("Child"));
+        assertEquals(1, parent.disposed);
+        assertEquals(1, child.disposed);
+    }
+
+    @Test
+    public void aStateEvictedOnExitIsDisposedOnceItIsDoneRunning() {
+        final TestFactory leaving = new TestFactory(true) {
+            @Override
+            public LogicState<TestState, TestAction, TestTransition,
+                    TestConfiguration> create(LogicMachine<TestState,
+                    TestAction, TestTransition, TestConfiguration>
+                    stateMachine) {
+                created++;
+                return new TestLogicState(stateMachine) {
+                    @Override
+                    public void handleFrame(float deltaTime) {
+                        changeMachineState("Start");
+                        disposedWhileRunning = disposed > 0;
+                    }
+                };
+            }
+        };
+        machine.changeMachineState(machine.addLogicState("Leaving", leaving));
+
+        machine.handleFrame(0.1f);
+
+        assertFalse(leaving.disposedWhileRunning);
+        assertFalse(machine.isLogicStateLoaded("Leaving"));
+        assertEquals(1, leaving.disposed);
+    }
+
+    @Test
+    public void callbacksAreSkippedOnceTheirLogicStateHasBeenLeft() {
+        final List<String> ran = new ArrayList<>();
+        TestLogicState a = new TestLogicState(machine);
+        TestLogicState parent = new TestLogicState(machine);
+        int aId = machine.addLogicState("A", a);
+        machine.addLogicState("Parent", parent);
+        int bId = machine.addLogicState("B", new TestLogicState(machine));
+        int cId = machine.addLogicState("C", new TestLogicState(machine));
+        machine.setParentState("B", "Parent");
+        machine.setParentState("C", "Parent");
+
+        machine.changeMachineState(aId);
+        a.schedule(0.01f, record(ran, "before leaving"));
+        machine.changeMachineState(startId);
+        machine.changeMachineState(aId);
+        a.schedule(0.01f, record(ran, "after entering again"));
+        machine.handleFrame(0.02f);
+
+        assertEquals(Arrays.asList("after entering again"), ran);
+
+        machine.changeMachineState(bId);
+        parent.schedule(0.01f, record(ran, "parent"));
+        machine.changeMachineState(cId);
+        machine.handleFrame(0.02f);
+
+        assertEquals(Arrays.asList("after entering again", "parent"), ran);
+        assertEquals(0, machine.getScheduler().getPendingCount());
+    }
+
+    @Test
+    public void aSelfTransitionSkipsCallbacksFromBeforeIt() {
+        final List<String> ran = new ArrayList<>();
+        TestLogicState parent = new TestLogicState(machine);
+        TestLogicState a = new TestLogicState(machine);
+        machine.addLogicState("Parent", parent);
+        int aId = machine.addLogicState("A", a);
+        machine.setParentState("A", "Parent");
+
+        machine.changeMachineState(aId);
+        a.schedule(0.01f, record(ran, "before the self-transition"));
+        parent.schedule(0.01f, record(ran, "parent"));
+        machine.changeMachineState(aId);
+        a.schedule(0.01f, record(ran, "after the self-transition"));
+        machine.handleFrame(0.02f);
+
+        assertEquals(Arrays.asList("parent", "after the self-transition"),
+                ran);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aSideEffectFreeRegionCannotHaveRegionsThatChangeTheStore() {
+        LogicMachine<TestState, TestAction, TestTransition, TestConfiguration>
+                region = newMachine();
+        machine.addRegion(region, true);
+
+        region.addRegion(newMachine(), false);
+    }
+
+    @Test
+    public void aRegionWithRegionsThatChangeTheStoreIsNotSideEffectFree() {
+        LogicMachine<TestState, TestAction, TestTransition, TestConfiguration>
+                region = newMachine();
+        region.addRegion(newMachine(), false);
+
+        try {
+            machine.addRegion(region, true);
+            fail("A region with regions that change the Store was added as "
+                    + "side-effect-free.");
+        } catch(IllegalArgumentException e) {
+            machine.addRegion(region, false);
+        }
+    }
+
+    @Test
+    public void reducersThatOnlyOverrideTheNameBasedReduceStillWork() {
+        int aId = machine.addLogicState("A", new TestLogicState(machine));
+        LogicStateReducer<TestState, TestTransition> reducer
+                = new LogicStateReducer<TestState, TestTransition>() {
+            @Override
+            @SuppressWarnings("deprecation")
+            public String reduce(String oldMachineState,
+                    TestState currentStoreState, TestTransition action,
+                    Iterable<String> availableMachineStates) {
+                return oldMachineState.equals("Start") ? "A" : "Start";
+            }
+        };
+
+        assertEquals(aId, reducer.reduceToId(startId, null,
+                new TestTransition(), machine.getStateIds()));
+        assertEquals(startId, reducer.reduceToId(aId, null,
+                new TestTransition(), machine.getStateIds()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void aReducerMustOverrideReduceToIdOrReduce() {
+        new LogicStateReducer<TestState, TestTransition>() { }.reduceToId(
+                startId, null, new TestTransition(), machine.getStateIds());
+    }
+
+    private static Runnable record(final List<String> ran,
+            final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ran.add(name);
+            }
+        };
+    }
+
+    private static LogicMachine<TestState, TestAction, TestTransition,
+            TestConfiguration> newMachine() {
+        TestLogicState start = new TestLogicState(null);
+        LogicMachine<TestState, TestAction, TestTransition, TestConfiguration>
+                newMachine = new LogicMachine<>(null, start);
+        newMachine.addLogicState("Start", start);
+        return newMachine;
+    }
+
+    private static class TestState extends State { }
+
+    private static class TestAction extends Action { }
+
+    private static class TestTransition extends LogicMachineTransitionAction { }
+
+    private static class TestConfiguration extends Configuration { }
+
+    private static class TestLogicState extends LogicState<TestState,
+            TestAction, TestTransition, TestConfiguration> {
+        private TestLogicState(LogicMachine<TestState, TestAction,
+                TestTransition, TestConfiguration> stateMachine) {
+            super(stateMachine);
+        }
+
+        @Override
+        public boolean recieveNewState(TestState newState) {
+            return false;
+        }
+
+        @Override
+        public void handleInput(InputEvent inputEvent) { }
+
+        @Override
+        public void handleFrame(float deltaTime) { }
+    }
+
+    private static class TestFactory extends LogicStateFactory<TestState,
+            TestAction, TestTransition, TestConfiguration> {
+        private final boolean evictedOnExit;
+        int created;
+        int disposed;
+        boolean disposedWhileRunning;
+
+        private TestFactory(boolean evictedOnExit) {
+            this.evictedOnExit = evictedOnExit;
+        }
+
+        @Override
+        public LogicState<TestState, TestAction, TestTransition,
+                TestConfiguration> create(LogicMachine<TestState, TestAction,
+                TestTransition, TestConfiguration> stateMachine) {
+            created++;
+            return new TestLogicState(stateMachine);
+        }
+
+        @Override
+        public void dispose(LogicState<TestState, TestAction, TestTransition,
+                TestConfiguration> logicState) {
+            disposed++;
+        }
+
+        @Override
+        public boolean isEvictedOnExit() {
+            return evictedOnExit;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LogicSchedulerTest {
+    private static final long LEVEL_1_TICKS = 64;
+    private static final long LEVEL_2_TICKS = 64 * 64;
+
+    /* Each tick is a nanosecond, so delays and ticks are the same numbers. */
+    private LogicScheduler scheduler;
+    private List<Long> ran;
+
+    @Before
+    public void setUp() {
+        scheduler = new LogicScheduler(1);
+        ran = new ArrayList<>();
+    }
+
+    @Test
+    public void aCallbackWithNoDelayRunsInTheNextFrameThatReachesANewTick() {
+        LogicScheduler milliseconds = new LogicScheduler();
+        milliseconds.advanceNanos(LogicScheduler.DEFAULT_TICK_NANOS);
+        ScheduledEvent event = milliseconds.scheduleNanos(0, record(0));
+
+        milliseconds.advanceNanos(0);
+        assertTrue(ran.isEmpty());
+        milliseconds.advanceNanos(LogicScheduler.DEFAULT_TICK_NANOS - 1);
+        assertTrue(ran.isEmpty());
+        assertTrue(event.isPending());
+
+        milliseconds.advanceNanos(1);
+        assertEquals(Arrays.asList(0L), ran);
+        assertFalse(event.isPending());
+    }
+
+    @Test
+    public void callbacksCascadeDownTheLevelsAndRunOnTheirTick() {
+        long[] delays = {5, LEVEL_1_TICKS + 1, 3 * LEVEL_2_TICKS
+                + 5 * LEVEL_1_TICKS + 7};
+        for(long delay : delays) {
+            scheduler.scheduleNanos(delay, record(delay));
+        }
+
+        long elapsed = 0;
+        for(long delay : delays) {
+            scheduler.advanceNanos(delay - 1 - elapsed);
+            assertFalse(ran.contains(delay));
+            scheduler.advanceNanos(1);
+            assertEquals(delay, (long) ran.get(ran.size() - 1));
+            elapsed = delay;
+        }
+
+        assertEquals(delays.length, ran.size());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void oneLongFrameRunsEverythingDueAcrossManyWindowsInOrder() {
+        Long[] delays = {4097L, 1L, 5 * LEVEL_2_TICKS + 3, 63L, 200000L,
+            LEVEL_2_TICKS, 65L, LEVEL_1_TICKS, LEVEL_2_TICKS - 1, 200000L};
+        for(long delay : delays) {
+            scheduler.scheduleNanos(delay, record(delay));
+        }
+        scheduler.scheduleNanos(1000001, record(1000001));
+
+        scheduler.advanceNanos(1000000);
+
+        Long[] expected = delays.clone();
+        Arrays.sort(expected);
+        assertEquals(Arrays.asList(expected), ran);
+        assertEquals(1, scheduler.getPendingCount());
+
+        scheduler.advanceNanos(1);
+        assertEquals(1000001L, (long) ran.get(ran.size() - 1));
+    }
+
+    @Test
+    public void delaysPastTheEndOfTimeAreClampedInsteadOfOverflowing() {
+        scheduler.advanceNanos(10);
+        ScheduledEvent event = scheduler.scheduleNanos(Long.MAX_VALUE,
+                record(0));
+
+        scheduler.advanceNanos(Long.MAX_VALUE - 11);
+        assertTrue(event.isPending());
+        assertTrue(ran.isEmpty());
+
+        scheduler.advanceNanos(1);
+        assertFalse(event.isPending());
+        assertEquals(1, ran.size());
+    }
+
+    @Test
+    public void callbacksCancelledByEarlierCallbacksInTheSameFrameDontRun() {
+        final ScheduledEvent[] later = new ScheduledEvent[2];
+        scheduler.scheduleNanos(5, new Runnable() {
+            @Override
+            public void run() {
+                ran.add(5L);
+                assertTrue(later[0].cancel());
+                assertTrue(later[1].cancel());
+                assertFalse(later[1].cancel());
+            }
+        });
+        later[0] = scheduler.scheduleNanos(5, record(-1));
+        later[1] = scheduler.scheduleNanos(LEVEL_1_TICKS * 2, record(-1));
+        scheduler.scheduleNanos(LEVEL_1_TICKS * 3, record(LEVEL_1_TICKS * 3));
+
+        scheduler.advanceNanos(LEVEL_2_TICKS);
+
+        assertEquals(Arrays.asList(5L, LEVEL_1_TICKS * 3), ran);
+        assertEquals(0, scheduler.getPendingCount());
+        assertFalse(later[0].isPending());
+    }
+
+    @Test
+    public void callbacksCanScheduleMoreCallbacks() {
+        scheduler.scheduleNanos(10, new Runnable() {
+            @Override
+            public void run() {
+                ran.add(10L);
+                scheduler.scheduleNanos(0, record(0));
+                scheduler.scheduleNanos(LEVEL_1_TICKS, record(LEVEL_1_TICKS));
+            }
+        });
+
+        scheduler.advanceNanos(100);
+        assertEquals(Arrays.asList(10L), ran);
+        assertEquals(2, scheduler.getPendingCount());
+
+        scheduler.advanceNanos(1);
+        assertEquals(Arrays.asList(10L, 0L), ran);
+
+        scheduler.advanceNanos(LEVEL_1_TICKS - 2);
+        assertEquals(2, ran.size());
+        scheduler.advanceNanos(1);
+        assertEquals(Arrays.asList(10L, 0L, LEVEL_1_TICKS), ran);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDelaysAreRejected() {
+        scheduler.scheduleNanos(-1, record(0));
+    }
+
+    private Runnable record(final long value) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ran.add(value);
+            }
+        };
+    }
+}
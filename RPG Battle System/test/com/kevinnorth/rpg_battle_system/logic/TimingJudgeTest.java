@@ -0,0 +1,56 @@
+package com.kevinnorth.rpg_battle_system.logic;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TimingJudgeTest {
+    
+    @Test
+    public void pressesInsideTheWindowAreHits() {
+        TimingJudge judge = new TimingJudge(100, 200);
+        judge.setTarget(1000000L);
+        
+        TimingResult early = judge.judge(1000000L - 100000L);
+        assertTrue(early.isHit());
+        assertEquals(-100, early.getOffsetMicros());
+        assertTrue(judge.judge(1000000L + 200000L).isHit());
+    }
+    
+    @Test
+    public void pressesLessThanAMicrosecondOutsideTheWindowAreEarlyOrLate() {
+        TimingJudge judge = new TimingJudge(0, 0);
+        judge.setTarget(1000000L);
+        
+        TimingResult late = judge.judge(1000000L + 500L);
+        assertFalse(late.isHit());
+        assertEquals(0, late.getOffsetMicros());
+        assertEquals(500, late.getOffsetNanos());
+        assertTrue(late.isLate());
+        assertFalse(late.isEarly());
+        
+        TimingResult early = judge.judge(1000000L - 1L);
+        assertFalse(early.isHit());
+        assertTrue(early.isEarly());
+        assertFalse(early.isLate());
+    }
+    
+    @Test
+    public void latencyCompensationIsSubtractedFromPresses() {
+        TimingJudge judge = new TimingJudge(0, 1000);
+        judge.setTarget(0);
+        judge.setLatencyCompensationNanos(5000000L);
+        
+        assertTrue(judge.judge(5000000L).isHit());
+        assertTrue(judge.judge(5000000L - 1L).isEarly());
+        assertFalse(judge.isWindowClosed(6000000L));
+        assertTrue(judge.isWindowClosed(6000001L));
+    }
+    
+    @Test
+    public void aMissedWindowIsNeitherEarlyNorLate() {
+        TimingResult missed = new TimingJudge(0, 0).judgeMissed();
+        assertTrue(missed.isMissed());
+        assertFalse(missed.isEarly());
+        assertFalse(missed.isLate());
+    }
+}
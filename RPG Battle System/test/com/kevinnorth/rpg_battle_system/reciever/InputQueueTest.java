@@ -0,0 +1,143 @@
+package com.kevinnorth.rpg_battle_system.reciever;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class InputQueueTest {
+    
+    @Test
+    public void theCapacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new InputQueue(1).getCapacity());
+        assertEquals(8, new InputQueue(5).getCapacity());
+        assertEquals(8, new InputQueue(8).getCapacity());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void aCapacityOfZeroIsRejected() {
+        new InputQueue(0);
+    }
+    
+    @Test(expected = NullPointerException.class)
+    public void nullIsRejected() {
+        new InputQueue(4).offer(null);
+    }
+    
+    @Test
+    public void aFullQueueRefusesEventsUntilOneIsTaken() {
+        InputQueue queue = new InputQueue(2);
+        InputEvent first = new InputEvent(1);
+        InputEvent second = new InputEvent(2);
+        InputEvent third = new InputEvent(3);
+        
+        assertTrue(queue.offer(first));
+        assertTrue(queue.offer(second));
+        assertFalse(queue.offer(third));
+        
+        assertSame(first, queue.poll());
+        assertTrue(queue.offer(third));
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+        assertNull(queue.poll());
+    }
+    
+    @Test
+    public void drainHandsOverEventsInOrderAndWrapsAround() {
+        InputQueue queue = new InputQueue(4);
+        final List<Long> drained = new ArrayList<>();
+        Consumer<InputEvent> handler = new Consumer<InputEvent>() {
+            @Override
+            public void accept(InputEvent event) {
+                drained.add(event.getTimestampNanos());
+            }
+        };
+        
+        // Several laps around the ring.
+        for(long lap = 0; lap < 5; lap++) {
+            for(long i = 0; i < 3; i++) {
+                assertTrue(queue.offer(new InputEvent(lap * 10 + i)));
+            }
+            assertEquals(3, queue.drain(handler));
+        }
+        
+        assertEquals(15, drained.size());
+        assertEquals(Long.valueOf(41), drained.get(13));
+        assertEquals(0, queue.drain(handler));
+    }
+    
+    @Test
+    public void drainStopsAfterOneQueuesWorthOfEvents() {
+        final InputQueue queue = new InputQueue(4);
+        for(int i = 0; i < 4; i++) {
+            queue.offer(new InputEvent(i));
+        }
+        
+        // A handler that keeps the queue topped up, like a busy input thread.
+        int drained = queue.drain(new Consumer<InputEvent>() {
+            @Override
+            public void accept(InputEvent event) {
+                queue.offer(new InputEvent(-1));
+            }
+        });
+        
+        assertEquals(4, drained);
+        assertNotNull(queue.poll());
+    }
+    
+    @Test
+    public void concurrentProducersLoseNothingAndKeepTheirOwnOrder()
+            throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 100000;
+        final InputQueue queue = new InputQueue(1024);
+        final CountDownLatch start = new CountDownLatch(1);
+        
+        Thread[] threads = new Thread[producers];
+        for(int p = 0; p < producers; p++) {
+            final long producer = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch(InterruptedException e) {
+                        return;
+                    }
+                    for(long i = 0; i < perProducer; i++) {
+                        InputEvent event
+                                = new InputEvent(producer * perProducer + i);
+                        while(!queue.offer(event)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+        
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        while(received < producers * perProducer) {
+            InputEvent event = queue.poll();
+            if(event == null) {
+                Thread.yield();
+                continue;
+            }
+            
+            int producer = (int) (event.getTimestampNanos() / perProducer);
+            long sequence = event.getTimestampNanos() % perProducer;
+            assertEquals(nextExpected[producer], sequence);
+            nextExpected[producer]++;
+            received++;
+        }
+        
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,41 @@
+package com.kevinnorth.rpg_battle_system.renderer;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RecordingRendererTest {
+    
+    @Test
+    public void onlyTheMostRecentStatesAreKept() {
+        RecordingRenderer<Integer> renderer = new RecordingRenderer<>(3);
+        for(int frame = 1; frame <= 5; frame++) {
+            renderer.render(frame, 0.5f);
+        }
+        
+        assertEquals(Arrays.asList(3, 4, 5), renderer.getRenderedStates());
+        assertEquals(5, renderer.getFrameCount());
+        assertEquals(2.5d, renderer.getRenderedTime(), 0d);
+    }
+    
+    @Test
+    public void returnedListsDontChangeAfterMoreFrames() {
+        RecordingRenderer<Integer> renderer = new RecordingRenderer<>(2);
+        renderer.render(1, 0f);
+        List<Integer> states = renderer.getRenderedStates();
+        
+        renderer.render(2, 0f);
+        renderer.render(3, 0f);
+        assertEquals(Arrays.asList(1), states);
+        
+        renderer.clear();
+        assertTrue(renderer.getRenderedStates().isEmpty());
+        assertEquals(0, renderer.getFrameCount());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void theCapacityMustBePositive() {
+        new RecordingRenderer<Integer>(0);
+    }
+}
@@ -0,0 +1,144 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CombinedReducerTest {
+    
+    private static class PairState extends State {
+        final Integer left;
+        final Integer right;
+        final SliceVersions sliceVersions;
+        
+        PairState(Integer left, Integer right, SliceVersions sliceVersions) {
+            this.left = left;
+            this.right = right;
+            this.sliceVersions = sliceVersions;
+        }
+    }
+    
+    private static class AddAction extends Action {
+        final int amount;
+        
+        AddAction(int amount) {
+            this.amount = amount;
+        }
+    }
+    
+    private static class OtherAction extends Action { }
+    
+    private static class LeftReducer
+            extends SliceReducer<PairState, Integer, AddAction> {
+        LeftReducer() {
+            super(AddAction.class);
+        }
+        
+        @Override
+        public Integer getSlice(PairState state) {
+            return state.left;
+        }
+        
+        @Override
+        public PairState withSlice(PairState state, Integer newSlice) {
+            return new PairState(newSlice, state.right, state.sliceVersions);
+        }
+        
+        @Override
+        public Integer reduce(AddAction action, Integer previousSlice) {
+            return previousSlice + action.amount;
+        }
+        
+        @Override
+        public SliceComparison getSliceComparison() {
+            return SliceComparison.EQUALITY;
+        }
+    }
+    
+    private static class RightReducer
+            extends SliceReducer<PairState, Integer, Action> {
+        int runs;
+        
+        RightReducer() {
+            super(OtherAction.class);
+        }
+        
+        @Override
+        public Integer getSlice(PairState state) {
+            return state.right;
+        }
+        
+        @Override
+        public PairState withSlice(PairState state, Integer newSlice) {
+            return new PairState(state.left, newSlice, state.sliceVersions);
+        }
+        
+        @Override
+        public Integer reduce(Action action, Integer previousSlice) {
+            runs++;
+            return previousSlice + 1;
+        }
+    }
+    
+    private static class PairReducer extends CombinedReducer<PairState, Action> {
+        PairReducer(LeftReducer left, RightReducer right) {
+            super(Arrays.asList(left, right));
+        }
+        
+        @Override
+        public SliceVersions getSliceVersions(PairState state) {
+            return state.sliceVersions;
+        }
+        
+        @Override
+        protected PairState withSliceVersions(PairState state,
+                SliceVersions sliceVersions) {
+            return new PairState(state.left, state.right, sliceVersions);
+        }
+    }
+    
+    @Test
+    public void onlyHandlingSlicesRunAndVersionsAreKeptInTheState() {
+        LeftReducer left = new LeftReducer();
+        RightReducer right = new RightReducer();
+        PairReducer reducer = new PairReducer(left, right);
+        PairState initial = new PairState(0, 0, SliceVersions.INITIAL);
+        
+        PairState afterAdd = reducer.reduce(new AddAction(2), initial);
+        assertEquals(Integer.valueOf(2), afterAdd.left);
+        assertEquals(0, right.runs);
+        assertEquals(1, reducer.getSliceVersion(afterAdd, left));
+        assertEquals(0, reducer.getSliceVersion(afterAdd, right));
+        
+        PairState afterOther = reducer.reduce(new OtherAction(), afterAdd);
+        assertEquals(1, right.runs);
+        assertEquals(1, reducer.getSliceVersion(afterOther, left));
+        assertEquals(1, reducer.getSliceVersion(afterOther, right));
+        
+        // Versions describe the State they are read from, not whichever
+        // State the reducer produced last.
+        assertEquals(0, reducer.getSliceVersion(initial, left));
+        assertEquals(Long.valueOf(1),
+                reducer.sliceVersionSelector(left).select(afterAdd));
+        assertEquals(Long.valueOf(0),
+                reducer.sliceVersionSelector(right).select(afterAdd));
+    }
+    
+    @Test
+    public void anEqualSliceIsNotAChange() {
+        LeftReducer left = new LeftReducer();
+        PairReducer reducer = new PairReducer(left, new RightReducer());
+        // Integers this large aren't cached, so adding 0 boxes a new Integer.
+        PairState initial = new PairState(500, 0, SliceVersions.INITIAL);
+        
+        assertSame(initial, reducer.reduce(new AddAction(0), initial));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownSliceReducersAreRejected() {
+        PairReducer reducer = new PairReducer(new LeftReducer(),
+                new RightReducer());
+        reducer.getSliceVersion(new PairState(0, 0, SliceVersions.INITIAL),
+                new LeftReducer());
+    }
+}
@@ -0,0 +1,108 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DeltaStateHistoryTest {
+    
+    private static class ValueState extends State {
+        final int value;
+        
+        ValueState(int value) {
+            this.value = value;
+        }
+    }
+    
+    /* Stores the difference between two values, or a keyframe when the
+    difference is too large to fit in a Byte. */
+    private static class ValueCodec extends StateDeltaCodec<ValueState, Byte> {
+        int deltasApplied;
+        
+        @Override
+        public Byte diff(ValueState previousState, ValueState nextState) {
+            int difference = nextState.value - previousState.value;
+            if(difference < Byte.MIN_VALUE || difference > Byte.MAX_VALUE) {
+                return null;
+            }
+            return (byte) difference;
+        }
+
+        @Override
+        public ValueState apply(ValueState previousState, Byte delta) {
+            deltasApplied++;
+            return new ValueState(previousState.value + delta);
+        }
+    }
+    
+    private static int valueAt(int index) {
+        return index * 7 % 100;
+    }
+    
+    @Test
+    public void everyRecordedStateIsRebuilt() {
+        DeltaStateHistory<ValueState, Byte> history
+                = new DeltaStateHistory<>(new ValueCodec(), 8);
+        for(int i = 0; i < 100; i++) {
+            history.record(new ValueState(valueAt(i)));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(100, states.size());
+        for(int i = 99; i >= 0; i--) {
+            assertEquals(valueAt(i), states.get(i).value);
+        }
+        for(int i = 0; i < 100; i += 13) {
+            assertEquals(valueAt(i), states.get(i).value);
+        }
+    }
+    
+    @Test
+    public void keyframesAreKeptOncePerInterval() {
+        DeltaStateHistory<ValueState, Byte> history
+                = new DeltaStateHistory<>(new ValueCodec(), 10);
+        for(int i = 0; i < 95; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        assertEquals(10, history.getKeyframeCount());
+    }
+    
+    @Test
+    public void statesTheCodecCantDescribeBecomeKeyframes() {
+        DeltaStateHistory<ValueState, Byte> history
+                = new DeltaStateHistory<>(new ValueCodec(), 100);
+        history.record(new ValueState(0));
+        history.record(new ValueState(1));
+        history.record(new ValueState(1000));
+        history.record(new ValueState(1001));
+        
+        assertEquals(2, history.getKeyframeCount());
+        assertEquals(1000, history.asList().get(2).value);
+        assertEquals(1001, history.asList().get(3).value);
+    }
+    
+    @Test
+    public void readingInOrderAppliesEachDeltaOnce() {
+        ValueCodec codec = new ValueCodec();
+        DeltaStateHistory<ValueState, Byte> history
+                = new DeltaStateHistory<>(codec, 50);
+        for(int i = 0; i < 50; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        for(ValueState state : history.asList()) {
+            assertNotNull(state);
+        }
+        
+        assertEquals(49, codec.deltasApplied);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheEndThrows() {
+        DeltaStateHistory<ValueState, Byte> history
+                = new DeltaStateHistory<>(new ValueCodec(), 4);
+        history.record(new ValueState(0));
+        history.asList().get(1);
+    }
+}
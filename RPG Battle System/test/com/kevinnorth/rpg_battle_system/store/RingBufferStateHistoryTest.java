@@ -0,0 +1,73 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RingBufferStateHistoryTest {
+    
+    private static class ValueState extends State {
+        final int value;
+        
+        ValueState(int value) {
+            this.value = value;
+        }
+    }
+    
+    @Test
+    public void everyStateIsKeptUntilTheHistoryIsFull() {
+        RingBufferStateHistory<ValueState> history
+                = new RingBufferStateHistory<>(4);
+        for(int i = 0; i < 3; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(3, states.size());
+        for(int i = 0; i < 3; i++) {
+            assertEquals(i, states.get(i).value);
+        }
+    }
+    
+    @Test
+    public void theOldestStatesArePushedOutOnceItIsFull() {
+        RingBufferStateHistory<ValueState> history
+                = new RingBufferStateHistory<>(4);
+        for(int i = 0; i < 10; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(4, states.size());
+        for(int i = 0; i < 4; i++) {
+            assertEquals(6 + i, states.get(i).value);
+        }
+    }
+    
+    @Test
+    public void theListReflectsLaterStates() {
+        RingBufferStateHistory<ValueState> history
+                = new RingBufferStateHistory<>(2);
+        List<ValueState> states = history.asList();
+        
+        history.record(new ValueState(0));
+        history.record(new ValueState(1));
+        history.record(new ValueState(2));
+        
+        assertEquals(2, states.size());
+        assertEquals(1, states.get(0).value);
+        assertEquals(2, states.get(1).value);
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void theListCantBeChanged() {
+        RingBufferStateHistory<ValueState> history
+                = new RingBufferStateHistory<>(2);
+        history.asList().add(new ValueState(0));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void theCapacityMustBePositive() {
+        new RingBufferStateHistory<ValueState>(0);
+    }
+}
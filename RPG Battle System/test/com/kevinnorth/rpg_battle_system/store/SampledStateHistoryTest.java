@@ -0,0 +1,62 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SampledStateHistoryTest {
+    
+    private static class ValueState extends State {
+        final int value;
+        
+        ValueState(int value) {
+            this.value = value;
+        }
+    }
+    
+    @Test
+    public void oneStateInEveryIntervalIsKeptStartingWithTheFirst() {
+        SampledStateHistory<ValueState> history
+                = new SampledStateHistory<>(3, 100);
+        for(int i = 0; i < 10; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(4, states.size());
+        for(int i = 0; i < 4; i++) {
+            assertEquals(i * 3, states.get(i).value);
+        }
+    }
+    
+    @Test
+    public void anIntervalOfOneKeepsEveryState() {
+        SampledStateHistory<ValueState> history
+                = new SampledStateHistory<>(1, 100);
+        for(int i = 0; i < 5; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        assertEquals(5, history.asList().size());
+    }
+    
+    @Test
+    public void theOldestSamplesAreDroppedOnceItIsFull() {
+        SampledStateHistory<ValueState> history
+                = new SampledStateHistory<>(2, 3);
+        for(int i = 0; i < 20; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(3, states.size());
+        assertEquals(14, states.get(0).value);
+        assertEquals(16, states.get(1).value);
+        assertEquals(18, states.get(2).value);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void theIntervalMustBePositive() {
+        new SampledStateHistory<ValueState>(0, 10);
+    }
+}
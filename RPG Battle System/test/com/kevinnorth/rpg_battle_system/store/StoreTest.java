@@ -0,0 +1,355 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StoreTest {
+    
+    private static class CounterState extends State {
+        final int count;
+        
+        CounterState(int count) {
+            this.count = count;
+        }
+    }
+    
+    private static class IncrementAction extends Action { }
+    
+    private static class DoubleIncrementAction extends IncrementAction { }
+    
+    private static class IncrementReducer
+            extends Reducer<CounterState, IncrementAction> {
+        @Override
+        public CounterState reduce(IncrementAction action,
+                CounterState previousState) {
+            return new CounterState(previousState.count + 1);
+        }
+    }
+    
+    private static List<StoreChange<CounterState, IncrementAction>>
+            increments(int count) {
+        List<StoreChange<CounterState, IncrementAction>> changes
+                = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            changes.add(new StoreChange<>(new IncrementReducer(),
+                    new IncrementAction()));
+        }
+        return changes;
+    }
+    
+    @Test
+    public void nestedChangesAreQueuedUntilEverySubscriberHasSeenTheState() {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final IncrementReducer reducer = new IncrementReducer();
+        final List<String> seen = new ArrayList<>();
+        
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                seen.add("first " + newState.count);
+                if(newState.count == 1) {
+                    CounterState returned = store.changeState(reducer,
+                            new IncrementAction());
+                    assertSame(newState, returned);
+                    return true;
+                }
+                return false;
+            }
+        }, 1);
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                seen.add("second " + newState.count);
+                assertSame(newState, store.getCurrentState());
+                return false;
+            }
+        }, 0);
+        
+        CounterState result = store.changeState(reducer,
+                new IncrementAction());
+        
+        assertEquals(1, result.count);
+        assertEquals(2, store.getCurrentState().count);
+        assertEquals("[first 1, second 1, first 2, second 2]",
+                seen.toString());
+    }
+    
+    @Test
+    public void aBatchIsOneChangeWithEveryReducerRunThroughTheMiddleware() {
+        Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final List<Integer> seen = new ArrayList<>();
+        final List<Integer> reduced = new ArrayList<>();
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                seen.add(newState.count);
+                return false;
+            }
+        });
+        store.addMiddleware(new StoreMiddleware<CounterState, IncrementAction>() {
+            @Override
+            public void afterReduce(Reducer<CounterState, ?> reducer,
+                    IncrementAction action, CounterState previousState,
+                    CounterState newState) {
+                reduced.add(newState.count);
+            }
+        });
+        
+        CounterState result = store.changeStates(increments(3));
+        
+        assertEquals(3, result.count);
+        assertSame(result, store.getCurrentState());
+        assertEquals("[3]", seen.toString());
+        assertEquals("[1, 2, 3]", reduced.toString());
+        assertEquals(1, store.getStateHistory().size());
+        assertEquals(0, store.getStateHistory().get(0).count);
+    }
+    
+    @Test
+    public void anEmptyBatchChangesNothing() {
+        Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final int[] notifications = { 0 };
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                notifications[0]++;
+                return false;
+            }
+        });
+        CounterState initialState = store.getCurrentState();
+        
+        assertSame(initialState, store.changeStates(increments(0)));
+        assertEquals(0, notifications[0]);
+        assertTrue(store.getStateHistory().isEmpty());
+    }
+    
+    @Test
+    public void aBatchFromASubscriberIsQueuedAndAppliedTogether() {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final List<Integer> seen = new ArrayList<>();
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                seen.add(newState.count);
+                if(newState.count == 1) {
+                    assertSame(newState, store.changeStates(increments(2)));
+                    return true;
+                }
+                return false;
+            }
+        });
+        
+        store.changeState(new IncrementReducer(), new IncrementAction());
+        
+        assertEquals("[1, 3]", seen.toString());
+        assertEquals(3, store.getCurrentState().count);
+        assertEquals(2, store.getStateHistory().size());
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void endlessCascadesAreStopped() {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final IncrementReducer reducer = new IncrementReducer();
+        store.setMaxCascadeDepth(10);
+        store.addSubscriber(new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                store.changeState(reducer, new IncrementAction());
+                return true;
+            }
+        });
+        
+        store.changeState(reducer, new IncrementAction());
+    }
+    
+    @Test
+    public void aSubscriberIsOnlyAddedOnceEvenThroughSelectors() {
+        Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final int[] notifications = { 0 };
+        StoreSubscriber<CounterState> subscriber
+                = new StoreSubscriber<CounterState>() {
+            @Override
+            public boolean recieveNewState(CounterState newState) {
+                notifications[0]++;
+                return false;
+            }
+        };
+        Selector<CounterState, Integer> count
+                = new Selector<CounterState, Integer>() {
+            @Override
+            public Integer select(CounterState state) {
+                return state.count;
+            }
+        };
+        
+        store.addSubscriber(subscriber, count);
+        store.addSubscriber(subscriber, count);
+        store.addSubscriber(subscriber);
+        store.changeState(new IncrementReducer(), new IncrementAction());
+        assertEquals(1, notifications[0]);
+        
+        assertTrue(store.removeSubscriber(subscriber));
+        store.changeState(new IncrementReducer(), new IncrementAction());
+        assertEquals(1, notifications[0]);
+    }
+    
+    @Test
+    public void middlewareStillRunsAfterAReducerThatThrows() {
+        Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        final List<String> calls = new ArrayList<>();
+        store.addMiddleware(new StoreMiddleware<CounterState, IncrementAction>() {
+            @Override
+            public void beforeReduce(Reducer<CounterState, ?> reducer,
+                    IncrementAction action, CounterState previousState) {
+                calls.add("before");
+            }
+            
+            @Override
+            public void afterReduce(Reducer<CounterState, ?> reducer,
+                    IncrementAction action, CounterState previousState,
+                    CounterState newState) {
+                calls.add("after " + newState);
+            }
+        });
+        
+        try {
+            store.changeState(new Reducer<CounterState, IncrementAction>() {
+                @Override
+                public CounterState reduce(IncrementAction action,
+                        CounterState previousState) {
+                    throw new IllegalArgumentException();
+                }
+            }, new IncrementAction());
+            fail();
+        } catch(IllegalArgumentException e) {
+            // Expected.
+        }
+        
+        assertEquals("[before, after null]", calls.toString());
+        assertEquals(0, store.getCurrentState().count);
+    }
+    
+    @Test
+    public void aLockedStoreRejectsDirectChangesUntilItIsClaimed()
+            throws InterruptedException {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        store.claimOwnership();
+        store.lockOwnership();
+        assertNull(store.getOwnerThread());
+        
+        try {
+            store.changeState(new IncrementReducer(), new IncrementAction());
+            fail();
+        } catch(IllegalStateException e) {
+            // Expected.
+        }
+        
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                store.claimOwnership();
+                store.changeState(new IncrementReducer(),
+                        new IncrementAction());
+                store.lockOwnership();
+            }
+        });
+        worker.start();
+        worker.join();
+        assertEquals(1, store.getCurrentState().count);
+        
+        store.releaseOwnership();
+        store.changeState(new IncrementReducer(), new IncrementAction());
+        assertEquals(2, store.getCurrentState().count);
+    }
+    
+    @Test
+    public void onlyTheOwnerCanClaimReleaseOrLockAnOwnedStore()
+            throws InterruptedException {
+        final Store<CounterState, IncrementAction> store
+                = new Store<>(new CounterState(0));
+        store.claimOwnership();
+        store.claimOwnership();
+        
+        final List<String> rejected = new ArrayList<>();
+        Thread intruder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.claimOwnership();
+                } catch(IllegalStateException e) {
+                    rejected.add("claim");
+                }
+                try {
+                    store.releaseOwnership();
+                } catch(IllegalStateException e) {
+                    rejected.add("release");
+                }
+                try {
+                    store.lockOwnership();
+                } catch(IllegalStateException e) {
+                    rejected.add("lock");
+                }
+            }
+        });
+        intruder.start();
+        intruder.join();
+        
+        assertEquals(Arrays.asList("claim", "release", "lock"), rejected);
+        assertSame(Thread.currentThread(), store.getOwnerThread());
+        store.changeState(new IncrementReducer(), new IncrementAction());
+        assertEquals(1, store.getCurrentState().count);
+    }
+    
+    @Test
+    public void dispatchUsesTheReducerOfTheNearestRegisteredSuperclass() {
+        Store<CounterState, IncrementAction> store = new Store<>(
+                new CounterState(0),
+                new ReducerRegistry<CounterState, IncrementAction>()
+                        .register(IncrementAction.class,
+                                new IncrementReducer()));
+        
+        store.dispatch(new DoubleIncrementAction());
+        store.dispatch(new IncrementAction());
+        assertEquals(2, store.getCurrentState().count);
+    }
+    
+    @Test
+    public void dispatchChecksOwnershipBeforeChoosingAReducer()
+            throws InterruptedException {
+        final Store<CounterState, IncrementAction> store = new Store<>(
+                new CounterState(0),
+                new ReducerRegistry<CounterState, IncrementAction>()
+                        .register(IncrementAction.class,
+                                new IncrementReducer()));
+        store.claimOwnership();
+        
+        final List<RuntimeException> thrown = new ArrayList<>();
+        Thread intruder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.dispatch(new DoubleIncrementAction());
+                } catch(RuntimeException e) {
+                    thrown.add(e);
+                }
+            }
+        });
+        intruder.start();
+        intruder.join();
+        
+        assertEquals(1, thrown.size());
+        assertTrue(thrown.get(0) instanceof IllegalStateException);
+        assertEquals(0, store.getCurrentState().count);
+    }
+}
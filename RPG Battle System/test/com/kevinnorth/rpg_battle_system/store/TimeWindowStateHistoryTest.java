@@ -0,0 +1,69 @@
+package com.kevinnorth.rpg_battle_system.store;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TimeWindowStateHistoryTest {
+    
+    private static class ValueState extends State {
+        final int value;
+        
+        ValueState(int value) {
+            this.value = value;
+        }
+    }
+    
+    @Test
+    public void statesAreDroppedOnceTheyLeaveTheWindow()
+            throws InterruptedException {
+        TimeWindowStateHistory<ValueState> history
+                = new TimeWindowStateHistory<>(0.2f, 100);
+        history.record(new ValueState(0));
+        history.record(new ValueState(1));
+        
+        Thread.sleep(300);
+        history.record(new ValueState(2));
+        
+        List<ValueState> states = history.asList();
+        assertEquals(1, states.size());
+        assertEquals(2, states.get(0).value);
+        
+        Thread.sleep(300);
+        assertTrue(history.asList().isEmpty());
+    }
+    
+    @Test
+    public void statesInsideTheWindowAreKept() {
+        TimeWindowStateHistory<ValueState> history
+                = new TimeWindowStateHistory<>(60f, 100);
+        for(int i = 0; i < 10; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(10, states.size());
+        for(int i = 0; i < 10; i++) {
+            assertEquals(i, states.get(i).value);
+        }
+    }
+    
+    @Test
+    public void theOldestStatesAreDroppedEarlyOnceItIsFull() {
+        TimeWindowStateHistory<ValueState> history
+                = new TimeWindowStateHistory<>(60f, 3);
+        for(int i = 0; i < 5; i++) {
+            history.record(new ValueState(i));
+        }
+        
+        List<ValueState> states = history.asList();
+        assertEquals(3, states.size());
+        assertEquals(2, states.get(0).value);
+        assertEquals(4, states.get(2).value);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void theWindowMustBePositive() {
+        new TimeWindowStateHistory<ValueState>(0f, 10);
+    }
+}